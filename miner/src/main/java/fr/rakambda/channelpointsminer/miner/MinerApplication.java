@@ -5,9 +5,12 @@ import fr.rakambda.channelpointsminer.miner.cli.CLIParameters;
 import fr.rakambda.channelpointsminer.miner.event.impl.MinerStartedEvent;
 import fr.rakambda.channelpointsminer.miner.event.manager.EventManager;
 import fr.rakambda.channelpointsminer.miner.factory.ConfigurationFactory;
+import fr.rakambda.channelpointsminer.miner.factory.ExecutorFactory;
 import fr.rakambda.channelpointsminer.miner.factory.MinerFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.log.UnirestLogger;
+import fr.rakambda.channelpointsminer.miner.miner.Miner;
+import fr.rakambda.channelpointsminer.miner.miner.SharedRuntime;
 import fr.rakambda.channelpointsminer.miner.util.GitProperties;
 import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
 import kong.unirest.core.Unirest;
@@ -15,10 +18,13 @@ import kong.unirest.modules.jackson.JacksonObjectMapper;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import picocli.CommandLine;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
 import static kong.unirest.core.HeaderNames.USER_AGENT;
 
 @Log4j2
@@ -37,11 +43,22 @@ public class MinerApplication{
 		var accountConfigurations = ConfigurationFactory.getInstance();
 		log.info("Picked up configuration: {}", accountConfigurations);
 		
+		var runtime = accountConfigurations.getRuntime().isShared() ? new SharedRuntime(accountConfigurations.getRuntime()) : null;
+		var miners = new ArrayList<Miner>();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(miners, runtime), "shutdown"));
+		
 		for(var accountConfiguration : accountConfigurations.getAccounts()){
 			if(accountConfiguration.isEnabled()){
-				var eventManager = new EventManager(Executors.newCachedThreadPool());
-				var miner = MinerFactory.create(accountConfiguration, eventManager);
+				var eventManager = new EventManager(Objects.isNull(runtime)
+						? ExecutorFactory.createTaskExecutor(accountConfiguration.getThreadMode())
+						: runtime.getTaskExecutor(accountConfiguration.getUsername()));
+				var miner = Objects.isNull(runtime)
+						? MinerFactory.create(accountConfiguration, eventManager)
+						: MinerFactory.create(accountConfiguration, eventManager, runtime);
 				eventManager.setMiner(miner);
+				synchronized(miners){
+					miners.add(miner);
+				}
 				
 				miner.start();
 				eventManager.onEvent(new MinerStartedEvent(version, commitId, branch, TimeFactory.now()));
@@ -52,6 +69,24 @@ public class MinerApplication{
 		}
 	}
 	
+	private static void shutdown(@NotNull Collection<Miner> miners, @Nullable SharedRuntime runtime){
+		log.info("Shutting down");
+		synchronized(miners){
+			for(var miner : miners){
+				try{
+					miner.close();
+				}
+				catch(RuntimeException e){
+					log.error("Failed to close miner", e);
+				}
+			}
+		}
+		// Closed last as the miners use its executors and databases
+		if(Objects.nonNull(runtime)){
+			runtime.close();
+		}
+	}
+	
 	@NotNull
 	private static CLIParameters parseCLIParameters(@NotNull String[] args){
 		var parameters = new CLIParameters();
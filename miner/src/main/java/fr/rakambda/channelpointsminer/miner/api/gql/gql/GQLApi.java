@@ -1,5 +1,9 @@
 package fr.rakambda.channelpointsminer.miner.api.gql.gql;
 
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLMetrics.ErrorClass;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLError;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.IGQLOperation;
@@ -39,19 +43,29 @@ import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IIntegrityProvider
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityException;
 import fr.rakambda.channelpointsminer.miner.api.passport.TwitchLogin;
 import fr.rakambda.channelpointsminer.miner.api.passport.exceptions.InvalidCredentials;
+import fr.rakambda.channelpointsminer.miner.util.CountingInputStream;
+import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
+import kong.unirest.core.HttpRequestWithBody;
+import kong.unirest.core.RawResponse;
 import kong.unirest.core.UnirestInstance;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import static kong.unirest.core.HeaderNames.AUTHORIZATION;
 
-@RequiredArgsConstructor
 @Log4j2
 public class GQLApi{
     private static final String ENDPOINT = "https://gql.twitch.tv/gql";
@@ -62,71 +76,422 @@ public class GQLApi{
     private static final String X_DEVICE_ID_HEADER = "X-Device-ID";
     
     private static final String ORDER_DESC = "DESC";
+    private static final int FOLLOWS_PAGE_SIZE = 100;
     private static final Set<String> EXPECTED_ERROR_MESSAGES = Set.of("service timeout", "service error", "server error", "service unavailable");
     private static final Set<String> INTEGRITY_ERROR_MESSAGES = Set.of("failed integrity check");
     
     private final TwitchLogin twitchLogin;
     private final UnirestInstance unirest;
     private final IIntegrityProvider integrityProvider;
+    @Nullable
+    private final GQLBatcher batcher;
+    private final GQLSingleFlight singleFlight;
+    @Nullable
+    private final GQLCircuitBreaker circuitBreaker;
+    private final GQLMetrics metrics;
+    
+    public GQLApi(@NotNull TwitchLogin twitchLogin, @NotNull UnirestInstance unirest, @NotNull IIntegrityProvider integrityProvider){
+        this(twitchLogin, unirest, integrityProvider, 0, 1);
+    }
+    
+    /**
+     * @param batchWindow  Time in milliseconds to wait for other operations to send them in the same request. Zero or negative value disables batching.
+     * @param batchMaxSize Maximum number of operations sent in the same request.
+     */
+    public GQLApi(@NotNull TwitchLogin twitchLogin, @NotNull UnirestInstance unirest, @NotNull IIntegrityProvider integrityProvider, long batchWindow, int batchMaxSize){
+        this(twitchLogin, unirest, integrityProvider, batchWindow, batchMaxSize, null);
+    }
+    
+    /**
+     * @param batchWindow    Time in milliseconds to wait for other operations to send them in the same request. Zero or negative value disables batching.
+     * @param batchMaxSize   Maximum number of operations sent in the same request.
+     * @param circuitBreaker Limiter of requests based on how Twitch is answering them, null to always send requests.
+     */
+    public GQLApi(@NotNull TwitchLogin twitchLogin, @NotNull UnirestInstance unirest, @NotNull IIntegrityProvider integrityProvider, long batchWindow, int batchMaxSize, @Nullable GQLCircuitBreaker circuitBreaker){
+        this.twitchLogin = twitchLogin;
+        this.unirest = unirest;
+        this.integrityProvider = integrityProvider;
+        this.circuitBreaker = circuitBreaker;
+        batcher = batchWindow > 0 && batchMaxSize > 1 ? new GQLBatcher(this::postGqlRequestsAsync, batchWindow, batchMaxSize) : null;
+        singleFlight = new GQLSingleFlight();
+        metrics = new GQLMetrics();
+    }
+    
+    /**
+     * @return Latency, size, status and error metrics of the operations sent so far.
+     */
+    @NotNull
+    public GQLMetrics getMetrics(){
+        return metrics;
+    }
     
     @NotNull
     public Optional<GQLResponse<ReportMenuItemData>> reportMenuItem(@NotNull String username){
-        return postGqlRequest(new ReportMenuItemOperation(username));
+        return await(reportMenuItemAsync(username));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<ReportMenuItemData>>> reportMenuItemAsync(@NotNull String username){
+        return postQueryGqlRequestAsync(new ReportMenuItemOperation(username));
+    }
+    
+    /**
+     * Send an operation that only reads data. If an identical operation is already in flight, its response is shared instead of sending a new request.
+     */
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> postQueryGqlRequestAsync(@NotNull IGQLOperation<T> operation){
+        return singleFlight.submit(operation, this::postGqlRequestAsync);
+    }
+    
+    /**
+     * Send an operation that only reads data, allowing it to be sent in the same request as other operations.
+     * If an identical operation is already in flight, its response is shared instead of sending a new request.
+     */
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> postBatchableGqlRequestAsync(@NotNull IGQLOperation<T> operation){
+        return singleFlight.submit(operation, this::postBatchedGqlRequestAsync);
+    }
+    
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> postBatchedGqlRequestAsync(@NotNull IGQLOperation<T> operation){
+        return guard(operation, o -> Objects.isNull(batcher) ? sendGqlRequestAsync(o) : batcher.submit(o));
+    }
+    
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> postGqlRequestAsync(@NotNull IGQLOperation<T> operation){
+        return guard(operation, this::sendGqlRequestAsync);
     }
     
+    /**
+     * Send an operation that modifies data. It is never held back by the circuit breaker, as dropping it would lose the action.
+     */
     @NotNull
-    private <T> Optional<GQLResponse<T>> postGqlRequest(@NotNull IGQLOperation<T> operation){
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> postMutationGqlRequestAsync(@NotNull IGQLOperation<T> operation){
+        return sendGqlRequestAsync(operation, null);
+    }
+    
+    /**
+     * Send an operation once the circuit breaker allows it, recording its completion. Operations above the concurrency limit wait for a previous one to complete.
+     *
+     * @return The response of the operation, failed with a {@link GQLRequestRejectedException} without sending anything if the operation is currently suspended.
+     */
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> guard(@NotNull IGQLOperation<T> operation, @NotNull Function<IGQLOperation<T>, CompletableFuture<Optional<GQLResponse<T>>>> sender){
+        if(Objects.isNull(circuitBreaker)){
+            return sender.apply(operation);
+        }
+        
+        var operationName = operation.getOperationName();
+        return circuitBreaker.acquire(operationName).thenCompose(permit -> {
+            CompletableFuture<Optional<GQLResponse<T>>> response;
+            try{
+                response = sender.apply(operation);
+            }
+            catch(Throwable e){
+                response = CompletableFuture.failedFuture(e);
+            }
+            return response.whenComplete((result, throwable) -> {
+                if(Objects.nonNull(throwable) && !isInvalidCredentials(throwable) && !isIntegrityFailure(throwable)){
+                    circuitBreaker.onFailure(operationName);
+                }
+                circuitBreaker.release(operationName);
+            });
+        });
+    }
+    
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> sendGqlRequestAsync(@NotNull IGQLOperation<T> operation){
+        return sendGqlRequestAsync(operation, circuitBreaker);
+    }
+    
+    /**
+     * @param circuitBreaker Circuit breaker recording how the operation went, null if the operation isn't limited.
+     */
+    @NotNull
+    private <T> CompletableFuture<Optional<GQLResponse<T>>> sendGqlRequestAsync(@NotNull IGQLOperation<T> operation, @Nullable GQLCircuitBreaker circuitBreaker){
         try{
             log.debug("Sending GQL operation {}", operation);
-            var integrity = integrityProvider.getIntegrity();
-            
-            var request = unirest.post(ENDPOINT)
-                    .header(AUTHORIZATION, "OAuth " + twitchLogin.getAccessToken())
-                    .header(CLIENT_ID_HEADER, twitchLogin.getTwitchClient().getClientId());
+            var request = createRequest().body(operation);
+            var start = System.nanoTime();
+            var payloadSize = new AtomicLong();
+            return request
+                    .asObjectAsync(raw -> readResponse(raw, operation, payloadSize))
+                    .thenApply(response -> {
+                        if(!response.isSuccess()){
+                            recordMetrics(operation, start, response.getStatus(), payloadSize.get(), ErrorClass.HTTP);
+                            if(response.getStatus() == 401){
+                                throw new RuntimeException(new InvalidCredentials(response.getStatus(), -1, "Invalid credentials provided"));
+                            }
+                            onErrorStatus(operation, response.getStatus(), circuitBreaker);
+                            return Optional.<GQLResponse<T>> empty();
+                        }
             
-            integrity.ifPresent(i -> request
-                    .header(CLIENT_INTEGRITY_HEADER, i.getToken())
-                    .header(CLIENT_SESSION_ID_HEADER, i.getClientSessionId())
-                    .header(CLIENT_VERSION_HEADER, i.getClientVersion())
-                    .header(X_DEVICE_ID_HEADER, i.getXDeviceId()));
+                        var body = response.getBody();
+                        if(Objects.isNull(body)){
+                            recordMetrics(operation, start, response.getStatus(), payloadSize.get(), ErrorClass.DECODE);
+                            return Optional.<GQLResponse<T>> empty();
+                        }
+                        recordMetrics(operation, start, response.getStatus(), payloadSize.get(), getErrorClass(body));
+                        return handleResponse(operation, body, circuitBreaker);
+                    })
+                    .whenComplete((response, throwable) -> {
+                        if(Objects.nonNull(throwable) && !isInvalidCredentials(throwable)){
+                            recordMetrics(operation, start, 0, payloadSize.get(), ErrorClass.EXCEPTION);
+                        }
+                        logError(throwable);
+                    });
+        }
+        catch(IntegrityException e){
+            return CompletableFuture.failedFuture(new RuntimeException(e));
+        }
+        catch(Throwable e){
+            log.error("Unknown error during GQL request", e);
+            return CompletableFuture.failedFuture(new RuntimeException(e));
+        }
+    }
+    
+    /**
+     * Send several operations in a single request.
+     *
+     * @param operations Operations to send.
+     *
+     * @return The response of each operation, in the same order.
+     */
+    @NotNull
+    List<Optional<GQLResponse<?>>> postGqlRequests(@NotNull List<IGQLOperation<?>> operations){
+        return await(postGqlRequestsAsync(operations));
+    }
+    
+    @NotNull
+    private CompletableFuture<List<Optional<GQLResponse<?>>>> postGqlRequestsAsync(@NotNull List<IGQLOperation<?>> operations){
+        if(operations.size() == 1){
+            return sendGqlRequestAsync(operations.getFirst()).thenApply(response -> List.of(response.<GQLResponse<?>> map(r -> r)));
+        }
+        
+        try{
+            log.debug("Sending GQL operations {}", operations);
+            var request = createRequest().body(operations);
+            var start = System.nanoTime();
+            var payloadSize = new AtomicLong();
+            return request
+                    .asObjectAsync(raw -> readResponses(raw, operations, payloadSize))
+                    .thenApply(response -> {
+                        var operationPayloadSize = payloadSize.get() / operations.size();
+                        if(!response.isSuccess()){
+                            operations.forEach(operation -> recordMetrics(operation, start, response.getStatus(), operationPayloadSize, ErrorClass.HTTP));
+                            if(response.getStatus() == 401){
+                                throw new RuntimeException(new InvalidCredentials(response.getStatus(), -1, "Invalid credentials provided"));
+                            }
+                            operations.forEach(operation -> onErrorStatus(operation, response.getStatus(), circuitBreaker));
+                            return operations.stream().<Optional<GQLResponse<?>>> map(o -> Optional.empty()).toList();
+                        }
             
-            var response = request
-                    .body(operation)
-                    .asObject(operation.getResponseType());
+                        var body = Optional.ofNullable(response.getBody()).orElseGet(List::of);
+                        List<Optional<GQLResponse<?>>> results = new ArrayList<>(operations.size());
+                        for(var i = 0; i < operations.size(); i++){
+                            var operation = operations.get(i);
+                            var operationBody = i < body.size() ? body.get(i) : null;
+                            if(Objects.isNull(operationBody)){
+                                recordMetrics(operation, start, response.getStatus(), operationPayloadSize, ErrorClass.DECODE);
+                                results.add(Optional.empty());
+                                continue;
+                            }
+                            recordMetrics(operation, start, response.getStatus(), operationPayloadSize, getErrorClass(operationBody));
+                            results.add(handleUntypedResponse(operation, operationBody));
+                        }
+                        return results;
+                    })
+                    .whenComplete((response, throwable) -> {
+                        if(Objects.nonNull(throwable) && !isInvalidCredentials(throwable)){
+                            var operationPayloadSize = payloadSize.get() / operations.size();
+                            operations.forEach(operation -> recordMetrics(operation, start, 0, operationPayloadSize, ErrorClass.EXCEPTION));
+                        }
+                        logError(throwable);
+                    });
+        }
+        catch(IntegrityException e){
+            return CompletableFuture.failedFuture(new RuntimeException(e));
+        }
+        catch(Throwable e){
+            log.error("Unknown error during GQL request", e);
+            return CompletableFuture.failedFuture(new RuntimeException(e));
+        }
+    }
+    
+    private void recordMetrics(@NotNull IGQLOperation<?> operation, long start, int status, long payloadSize, @Nullable ErrorClass errorClass){
+        metrics.record(operation.getOperationName(), Duration.ofNanos(System.nanoTime() - start), status, payloadSize, errorClass);
+    }
+    
+    @Nullable
+    private ErrorClass getErrorClass(@NotNull GQLResponse<?> body){
+        if(!body.isError()){
+            return null;
+        }
+        if(isErrorIntegrity(body.getErrors())){
+            return ErrorClass.INTEGRITY;
+        }
+        if(isErrorExpected(body.getErrors())){
+            return ErrorClass.SERVICE;
+        }
+        return ErrorClass.GQL;
+    }
+    
+    private void logError(@Nullable Throwable throwable){
+        if(Objects.isNull(throwable) || isInvalidCredentials(throwable)){
+            return;
+        }
+        var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        log.error("Unknown error during GQL request", cause);
+    }
+    
+    private static boolean isInvalidCredentials(@NotNull Throwable throwable){
+        var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        return Objects.nonNull(cause) && cause.getCause() instanceof InvalidCredentials;
+    }
+    
+    /**
+     * @return true if the request wasn't sent because no integrity token could be obtained, which says nothing about how Twitch is doing.
+     */
+    private static boolean isIntegrityFailure(@NotNull Throwable throwable){
+        var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        return Objects.nonNull(cause) && cause.getCause() instanceof IntegrityException;
+    }
+    
+    /**
+     * Record a request that got an error status. Server errors and rate limits are considered as transient failures, other statuses are ignored.
+     */
+    private static void onErrorStatus(@NotNull IGQLOperation<?> operation, int status, @Nullable GQLCircuitBreaker circuitBreaker){
+        if(Objects.nonNull(circuitBreaker) && (status >= 500 || status == 429)){
+            circuitBreaker.onFailure(operation.getOperationName());
+        }
+    }
+    
+    @NotNull
+    private HttpRequestWithBody createRequest() throws IntegrityException{
+        var integrity = integrityProvider.getIntegrity();
+        
+        var request = unirest.post(ENDPOINT)
+                .header(AUTHORIZATION, "OAuth " + twitchLogin.getAccessToken())
+                .header(CLIENT_ID_HEADER, twitchLogin.getTwitchClient().getClientId());
+        
+        integrity.ifPresent(i -> request
+                .header(CLIENT_INTEGRITY_HEADER, i.getToken())
+                .header(CLIENT_SESSION_ID_HEADER, i.getClientSessionId())
+                .header(CLIENT_VERSION_HEADER, i.getClientVersion())
+                .header(X_DEVICE_ID_HEADER, i.getXDeviceId()));
+        
+        return request;
+    }
+    
+    /**
+     * Decode the response of an operation straight from the response stream.
+     * Properties that aren't mapped by the response type are skipped by the parser without building any object.
+     *
+     * @param response    The raw response.
+     * @param operation   The operation that was sent.
+     * @param payloadSize Set to the number of bytes read from the response.
+     *
+     * @return The decoded response, null if the request failed or the response couldn't be decoded.
+     */
+    @Nullable
+    private <T> GQLResponse<T> readResponse(@NotNull RawResponse response, @NotNull IGQLOperation<T> operation, @NotNull AtomicLong payloadSize){
+        if(!isSuccess(response)){
+            return null;
+        }
+        
+        try(var content = new CountingInputStream(response.getContent())){
+            var mapper = JacksonUtils.getMapper();
+            var body = mapper.<GQLResponse<T>> readValue(content, getResponseType(mapper, operation));
+            payloadSize.set(content.getCount());
+            return body;
+        }
+        catch(IOException e){
+            log.error("Failed to decode GQL response for {}", operation.getOperationName(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Decode the responses of several operations sent in the same request, streaming over the response array.
+     * Each element is decoded into the response type of its operation without building an intermediate tree.
+     *
+     * @param response    The raw response.
+     * @param operations  The operations that were sent.
+     * @param payloadSize Set to the number of bytes read from the response.
+     *
+     * @return The decoded responses, in the same order as the operations. Missing responses are null. Null if the request failed or the response couldn't be decoded.
+     */
+    @Nullable
+    private List<GQLResponse<?>> readResponses(@NotNull RawResponse response, @NotNull List<IGQLOperation<?>> operations, @NotNull AtomicLong payloadSize){
+        if(!isSuccess(response)){
+            return null;
+        }
+        
+        var mapper = JacksonUtils.getMapper();
+        var content = new CountingInputStream(response.getContent());
+        try(var parser = mapper.createParser(content)){
+            if(parser.nextToken() != JsonToken.START_ARRAY){
+                log.error("Received unexpected GQL response for batched operations {}", operations);
+                return null;
+            }
             
-            if(!response.isSuccess()){
-                if(response.getStatus() == 401){
-                    throw new InvalidCredentials(response.getStatus(), -1, "Invalid credentials provided");
+            var bodies = new ArrayList<GQLResponse<?>>(operations.size());
+            for(var operation : operations){
+                var token = parser.nextToken();
+                if(Objects.isNull(token) || token == JsonToken.END_ARRAY){
+                    break;
                 }
-                return Optional.empty();
+                bodies.add(mapper.readValue(parser, getResponseType(mapper, operation)));
             }
+            payloadSize.set(content.getCount());
+            return bodies;
+        }
+        catch(IOException e){
+            log.error("Failed to decode GQL response for batched operations {}", operations, e);
+            return null;
+        }
+    }
+    
+    private static boolean isSuccess(@NotNull RawResponse response){
+        return response.getStatus() >= 200 && response.getStatus() < 300;
+    }
+    
+    @NotNull
+    private static JavaType getResponseType(@NotNull JsonMapper mapper, @NotNull IGQLOperation<?> operation){
+        return mapper.getTypeFactory().constructType(operation.getResponseType().getType());
+    }
+    
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private <T> Optional<GQLResponse<?>> handleUntypedResponse(@NotNull IGQLOperation<T> operation, @NotNull GQLResponse<?> body){
+        return handleResponse(operation, (GQLResponse<T>) body, circuitBreaker).map(r -> r);
+    }
+    
+    @NotNull
+    private <T> Optional<GQLResponse<T>> handleResponse(@NotNull IGQLOperation<T> operation, @NotNull GQLResponse<T> body, @Nullable GQLCircuitBreaker circuitBreaker){
+        if(body.isError()){
+            var errors = body.getErrors();
             
-            var body = response.getBody();
-            if(body.isError()){
-                var errors = body.getErrors();
-                
-                if(isErrorIntegrity(errors)){
-                    log.error("Received GQL integrity error response: {}", errors);
-                    integrityProvider.invalidate();
-                }
-                else if(isErrorExpected(errors)){
-                    log.warn("Received GQL error response for {}: {}", operation.getOperationName(), errors);
-                }
-                else{
-                    log.error("Received GQL error response for {}: {}", operation.getOperationName(), errors);
+            if(isErrorIntegrity(errors)){
+                log.error("Received GQL integrity error response: {}", errors);
+                integrityProvider.invalidate();
+            }
+            else if(isErrorExpected(errors)){
+                log.warn("Received GQL error response for {}: {}", operation.getOperationName(), errors);
+                if(Objects.nonNull(circuitBreaker)){
+                    circuitBreaker.onFailure(operation.getOperationName());
                 }
-                return Optional.empty();
             }
-            
-            return Optional.of(body);
-        }
-        catch(IntegrityException | InvalidCredentials e){
-            throw new RuntimeException(e);
+            else{
+                log.error("Received GQL error response for {}: {}", operation.getOperationName(), errors);
+            }
+            return Optional.empty();
         }
-        catch(Throwable e){
-            log.error("Unknown error during GQL request", e);
-            throw new RuntimeException(e);
+        
+        if(Objects.nonNull(circuitBreaker)){
+            circuitBreaker.onSuccess(operation.getOperationName());
         }
+        return Optional.of(body);
     }
     
     private boolean isErrorExpected(@NotNull Collection<GQLError> errors){
@@ -147,101 +512,245 @@ public class GQLApi{
     
     @NotNull
     public Optional<GQLResponse<ChannelPointsContextData>> channelPointsContext(@NotNull String username){
-        return postGqlRequest(new ChannelPointsContextOperation(username));
+        return await(channelPointsContextAsync(username));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<ChannelPointsContextData>>> channelPointsContextAsync(@NotNull String username){
+        return postBatchableGqlRequestAsync(new ChannelPointsContextOperation(username));
     }
     
     @NotNull
     public Optional<GQLResponse<VideoPlayerStreamInfoOverlayChannelData>> videoPlayerStreamInfoOverlayChannel(@NotNull String username){
-        return postGqlRequest(new VideoPlayerStreamInfoOverlayChannelOperation(username));
+        return await(videoPlayerStreamInfoOverlayChannelAsync(username));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<VideoPlayerStreamInfoOverlayChannelData>>> videoPlayerStreamInfoOverlayChannelAsync(@NotNull String username){
+        return postBatchableGqlRequestAsync(new VideoPlayerStreamInfoOverlayChannelOperation(username));
     }
     
     @NotNull
     public Optional<GQLResponse<DropsHighlightServiceAvailableDropsData>> dropsHighlightServiceAvailableDrops(@NotNull String channelId){
-        return postGqlRequest(new DropsHighlightServiceAvailableDropsOperation(channelId));
+        return await(dropsHighlightServiceAvailableDropsAsync(channelId));
     }
 	
-	@NotNull
-	public Optional<GQLResponse<SetDropsCommunityHighlightToHiddenData>> setDropsCommunityHighlightToHidden(@NotNull String channelId, @NotNull String campaignId){
-		return postGqlRequest(new SetDropsCommunityHighlightToHiddenOperation(channelId, campaignId));
-	}
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<DropsHighlightServiceAvailableDropsData>>> dropsHighlightServiceAvailableDropsAsync(@NotNull String channelId){
+        return postBatchableGqlRequestAsync(new DropsHighlightServiceAvailableDropsOperation(channelId));
+    }
+    
+    @NotNull
+    public Optional<GQLResponse<SetDropsCommunityHighlightToHiddenData>> setDropsCommunityHighlightToHidden(@NotNull String channelId, @NotNull String campaignId){
+        return await(setDropsCommunityHighlightToHiddenAsync(channelId, campaignId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<SetDropsCommunityHighlightToHiddenData>>> setDropsCommunityHighlightToHiddenAsync(@NotNull String channelId, @NotNull String campaignId){
+        return postMutationGqlRequestAsync(new SetDropsCommunityHighlightToHiddenOperation(channelId, campaignId));
+    }
     
     @NotNull
     public Optional<GQLResponse<ClaimCommunityPointsData>> claimCommunityPoints(@NotNull String channelId, @NotNull String claimId){
-        return postGqlRequest(new ClaimCommunityPointsOperation(channelId, claimId));
+        return await(claimCommunityPointsAsync(channelId, claimId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<ClaimCommunityPointsData>>> claimCommunityPointsAsync(@NotNull String channelId, @NotNull String claimId){
+        return postMutationGqlRequestAsync(new ClaimCommunityPointsOperation(channelId, claimId));
     }
     
     @NotNull
     public Optional<GQLResponse<CommunityMomentCalloutClaimData>> claimCommunityMoment(@NotNull String momentId){
-        return postGqlRequest(new CommunityMomentCalloutClaimOperation(momentId));
+        return await(claimCommunityMomentAsync(momentId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<CommunityMomentCalloutClaimData>>> claimCommunityMomentAsync(@NotNull String momentId){
+        return postMutationGqlRequestAsync(new CommunityMomentCalloutClaimOperation(momentId));
     }
     
     @NotNull
     public Optional<GQLResponse<JoinRaidData>> joinRaid(@NotNull String raidId){
-        return postGqlRequest(new JoinRaidOperation(raidId));
+        return await(joinRaidAsync(raidId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<JoinRaidData>>> joinRaidAsync(@NotNull String raidId){
+        return postMutationGqlRequestAsync(new JoinRaidOperation(raidId));
     }
     
     @NotNull
     public Optional<GQLResponse<InventoryData>> inventory(){
-        return postGqlRequest(new InventoryOperation());
+        return await(inventoryAsync());
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<InventoryData>>> inventoryAsync(){
+        return postQueryGqlRequestAsync(new InventoryOperation());
     }
     
     @NotNull
     public Optional<GQLResponse<DropsPageClaimDropRewardsData>> dropsPageClaimDropRewards(@NotNull String dropInstanceId){
-        return postGqlRequest(new DropsPageClaimDropRewardsOperation(dropInstanceId));
+        return await(dropsPageClaimDropRewardsAsync(dropInstanceId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<DropsPageClaimDropRewardsData>>> dropsPageClaimDropRewardsAsync(@NotNull String dropInstanceId){
+        return postMutationGqlRequestAsync(new DropsPageClaimDropRewardsOperation(dropInstanceId));
     }
     
     @NotNull
     public Optional<GQLResponse<MakePredictionData>> makePrediction(@NotNull String eventId, @NotNull String outcomeId, int amount, @NotNull String transactionId){
-        return postGqlRequest(new MakePredictionOperation(eventId, outcomeId, amount, transactionId));
+        return await(makePredictionAsync(eventId, outcomeId, amount, transactionId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<MakePredictionData>>> makePredictionAsync(@NotNull String eventId, @NotNull String outcomeId, int amount, @NotNull String transactionId){
+        return postMutationGqlRequestAsync(new MakePredictionOperation(eventId, outcomeId, amount, transactionId));
     }
     
     @NotNull
     public Optional<GQLResponse<PlaybackAccessTokenData>> playbackAccessToken(@NotNull String login){
-        return postGqlRequest(new PlaybackAccessTokenOperation(login));
+        return await(playbackAccessTokenAsync(login));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<PlaybackAccessTokenData>>> playbackAccessTokenAsync(@NotNull String login){
+        return postQueryGqlRequestAsync(new PlaybackAccessTokenOperation(login));
     }
     
     @NotNull
     public List<User> allChannelFollows(){
-        var follows = new ArrayList<User>();
+        return await(allChannelFollowsAsync());
+    }
         
-        boolean hasNext;
+    @NotNull
+    public CompletableFuture<List<User>> allChannelFollowsAsync(){
+        var follows = new ArrayList<User>();
+        return channelFollowsPagesAsync(page -> {
+            follows.addAll(page);
+            return true;
+        }).thenApply(completed -> follows);
+    }
+    
+    /**
+     * Load follows page by page, most recent follows first. Pages are requested one after the other and given to the consumer on the calling thread, so that it may block.
+     *
+     * @param pageConsumer Consumer of each page, returning true to load the next page or false to stop loading.
+     *
+     * @return true if every page was loaded or the consumer stopped the loading, false if a page failed to load or was rejected.
+     */
+    public boolean channelFollowsPages(@NotNull Predicate<List<User>> pageConsumer){
         String cursor = null;
         do{
-            var response = channelFollows(100, ORDER_DESC, cursor);
-			if(response.isEmpty()){
-				log.error("Failed to load follows, response is empty");
-				break;
-			}
-			
-            var followConnection = response.map(GQLResponse::getData).map(ChannelFollowsData::getUser).map(User::getFollows);
-            
-            followConnection.stream()
-                    .map(FollowConnection::getEdges)
-                    .flatMap(Collection::stream)
-                    .map(FollowEdge::getNode)
-                    .forEach(follows::add);
-            
-            hasNext = followConnection.map(FollowConnection::getPageInfo).map(PageInfo::isHasNextPage).orElse(false);
-            if(hasNext){
-                cursor = followConnection.map(FollowConnection::getEdges)
-                        .filter(followEdges -> !followEdges.isEmpty())
-                        .map(List::getLast)
-                        .map(FollowEdge::getCursor)
-                        .orElseThrow(() -> new IllegalStateException("Follows has next page but couldn't find cursor"));
+            Optional<GQLResponse<ChannelFollowsData>> response;
+            try{
+                response = channelFollows(FOLLOWS_PAGE_SIZE, ORDER_DESC, cursor);
+            }
+            catch(GQLRequestRejectedException e){
+                log.warn("Stopped loading follows, requests are currently suspended");
+                return false;
             }
+            if(response.isEmpty()){
+                log.error("Failed to load follows, response is empty");
+                return false;
+            }
+            cursor = consumeFollowsPage(response.get(), pageConsumer);
         }
-        while(hasNext);
+        while(Objects.nonNull(cursor));
+        return true;
+    }
+    
+    /**
+     * Load follows page by page, most recent follows first. Each page is given to the consumer as soon as it is received, on the thread completing the request, so the consumer must not block.
+     *
+     * @param pageConsumer Consumer of each page, returning true to load the next page or false to stop loading.
+     *
+     * @return A future completed with true if every page was loaded or the consumer stopped the loading, false if a page failed to load or was rejected.
+     */
+    @NotNull
+    public CompletableFuture<Boolean> channelFollowsPagesAsync(@NotNull Predicate<List<User>> pageConsumer){
+        return channelFollowsPagesAsync(pageConsumer, null).exceptionally(throwable -> {
+            if(GQLRequestRejectedException.isRejection(throwable)){
+                log.warn("Stopped loading follows, requests are currently suspended");
+                return false;
+            }
+            throw throwable instanceof CompletionException completionException ? completionException : new CompletionException(throwable);
+        });
+    }
+    
+    @NotNull
+    private CompletableFuture<Boolean> channelFollowsPagesAsync(@NotNull Predicate<List<User>> pageConsumer, @Nullable String cursor){
+        return channelFollowsAsync(FOLLOWS_PAGE_SIZE, ORDER_DESC, cursor).thenCompose(response -> {
+            if(response.isEmpty()){
+                log.error("Failed to load follows, response is empty");
+                return CompletableFuture.completedFuture(false);
+            }
+			
+            var nextCursor = consumeFollowsPage(response.get(), pageConsumer);
+            if(Objects.isNull(nextCursor)){
+                return CompletableFuture.completedFuture(true);
+            }
+            return channelFollowsPagesAsync(pageConsumer, nextCursor);
+        });
+    }
+    
+    /**
+     * Give a page of follows to a consumer.
+     *
+     * @return The cursor of the next page, null if there is none or if the consumer stopped the loading.
+     */
+    @Nullable
+    private static String consumeFollowsPage(@NotNull GQLResponse<ChannelFollowsData> response, @NotNull Predicate<List<User>> pageConsumer){
+        var followConnection = Optional.ofNullable(response.getData()).map(ChannelFollowsData::getUser).map(User::getFollows);
+        
+        var page = followConnection.stream()
+                .map(FollowConnection::getEdges)
+                .flatMap(Collection::stream)
+                .map(FollowEdge::getNode)
+                .toList();
         
-        return follows;
+        var hasNext = followConnection.map(FollowConnection::getPageInfo).map(PageInfo::isHasNextPage).orElse(false);
+        var nextCursor = !hasNext ? null : followConnection.map(FollowConnection::getEdges)
+                .filter(followEdges -> !followEdges.isEmpty())
+                .map(List::getLast)
+                .map(FollowEdge::getCursor)
+                .orElseThrow(() -> new IllegalStateException("Follows has next page but couldn't find cursor"));
+        
+        return pageConsumer.test(page) ? nextCursor : null;
     }
     
     @NotNull
     public Optional<GQLResponse<ChannelFollowsData>> channelFollows(int limit, @NotNull String order, @Nullable String cursor){
-        return postGqlRequest(new ChannelFollowsOperation(limit, order, cursor));
+        return await(channelFollowsAsync(limit, order, cursor));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<ChannelFollowsData>>> channelFollowsAsync(int limit, @NotNull String order, @Nullable String cursor){
+        return postQueryGqlRequestAsync(new ChannelFollowsOperation(limit, order, cursor));
     }
     
     @NotNull
     public Optional<GQLResponse<ChatRoomBanStatusData>> chatRoomBanStatus(@NotNull String channelId, @NotNull String targetUserId){
-        return postGqlRequest(new ChatRoomBanStatusOperation(channelId, targetUserId));
+        return await(chatRoomBanStatusAsync(channelId, targetUserId));
+    }
+    
+    @NotNull
+    public CompletableFuture<Optional<GQLResponse<ChatRoomBanStatusData>>> chatRoomBanStatusAsync(@NotNull String channelId, @NotNull String targetUserId){
+        return postBatchableGqlRequestAsync(new ChatRoomBanStatusOperation(channelId, targetUserId));
+    }
+    
+    @NotNull
+    private static <T> T await(@NotNull CompletableFuture<T> future){
+        try{
+            return future.join();
+        }
+        catch(CompletionException e){
+            if(e.getCause() instanceof RuntimeException runtimeException){
+                throw runtimeException;
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,116 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.IGQLOperation;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Groups GQL operations submitted concurrently so that they are sent in a single request.
+ * <p>
+ * A batch is sent once the batch window elapsed after its first operation, or as soon as it is full. No thread is held while waiting for a batch to be sent.
+ */
+@Log4j2
+public class GQLBatcher{
+	private final Function<List<IGQLOperation<?>>, CompletableFuture<List<Optional<GQLResponse<?>>>>> sender;
+	private final Executor delayedExecutor;
+	private final int maxSize;
+	
+	private List<PendingOperation<?>> pending = new ArrayList<>();
+	
+	/**
+	 * @param sender  Function sending a batch of operations, returning a response for each of them in the same order.
+	 * @param window  Time in milliseconds to wait for other operations before sending a batch.
+	 * @param maxSize Maximum number of operations in a batch.
+	 */
+	public GQLBatcher(@NotNull Function<List<IGQLOperation<?>>, CompletableFuture<List<Optional<GQLResponse<?>>>>> sender, long window, int maxSize){
+		this.sender = sender;
+		this.delayedExecutor = CompletableFuture.delayedExecutor(window, TimeUnit.MILLISECONDS);
+		this.maxSize = Math.max(1, maxSize);
+	}
+	
+	/**
+	 * Add an operation to the current batch.
+	 *
+	 * @param operation The operation to send.
+	 *
+	 * @return A future completed with the response of the operation once its batch was sent, empty if the batch didn't contain any response for it.
+	 */
+	@NotNull
+	public <T> CompletableFuture<Optional<GQLResponse<T>>> submit(@NotNull IGQLOperation<T> operation){
+		var pendingOperation = new PendingOperation<>(operation, new CompletableFuture<>());
+		
+		List<PendingOperation<?>> batch = List.of();
+		synchronized(this){
+			pending.add(pendingOperation);
+			if(pending.size() >= maxSize){
+				batch = takePending();
+			}
+			else if(pending.size() == 1){
+				var current = pending;
+				delayedExecutor.execute(() -> flush(current));
+			}
+		}
+		
+		if(!batch.isEmpty()){
+			send(batch);
+		}
+		return pendingOperation.future();
+	}
+	
+	private void flush(@NotNull List<PendingOperation<?>> expected){
+		List<PendingOperation<?>> batch;
+		synchronized(this){
+			if(pending != expected){
+				return;
+			}
+			batch = takePending();
+		}
+		send(batch);
+	}
+	
+	@NotNull
+	private List<PendingOperation<?>> takePending(){
+		var batch = pending;
+		pending = new ArrayList<>();
+		return batch;
+	}
+	
+	private void send(@NotNull List<PendingOperation<?>> batch){
+		CompletableFuture<List<Optional<GQLResponse<?>>>> responses;
+		try{
+			log.debug("Sending GQL batch of {} operations", batch.size());
+			responses = sender.apply(batch.stream().<IGQLOperation<?>> map(PendingOperation::operation).toList());
+		}
+		catch(Throwable e){
+			responses = CompletableFuture.failedFuture(e);
+		}
+		
+		responses.whenComplete((result, throwable) -> {
+			if(Objects.nonNull(throwable)){
+				var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+				batch.forEach(pendingOperation -> pendingOperation.future().completeExceptionally(cause));
+				return;
+			}
+			for(var i = 0; i < batch.size(); i++){
+				batch.get(i).complete(i < result.size() ? result.get(i) : Optional.empty());
+			}
+		});
+	}
+	
+	private record PendingOperation<T>(@NotNull IGQLOperation<T> operation, @NotNull CompletableFuture<Optional<GQLResponse<T>>> future){
+		@SuppressWarnings("unchecked")
+		private void complete(@NotNull Optional<GQLResponse<?>> response){
+			future.complete(response.map(r -> (GQLResponse<T>) r));
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits GQL requests per operation name depending on how Twitch is currently answering them.
+ * <p>
+ * Each operation has a concurrency limit that is increased by a small step on every success and halved on every transient failure (AIMD). Requests above this limit
+ * wait for a previous one to complete.
+ * After too many consecutive failures the operation is suspended for a while, then a single probe request is let through once no other request is in flight.
+ * If the probe succeeds the operation is resumed, if it fails it is suspended again for twice as long, and if it ends without telling either it is suspended again for
+ * the same duration. Requests of a suspended operation are rejected with a {@link GQLRequestRejectedException}.
+ */
+@Log4j2
+public class GQLCircuitBreaker{
+	private static final double DECREASE_RATIO = 0.5;
+	
+	private final int failureThreshold;
+	private final Duration openDuration;
+	private final Duration maxOpenDuration;
+	private final int maxConcurrency;
+	private final Map<String, OperationState> states = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param failureThreshold Number of consecutive failures before an operation is suspended.
+	 * @param openDuration     Duration of the first suspension.
+	 * @param maxOpenDuration  Maximum duration of a suspension.
+	 * @param maxConcurrency   Maximum number of requests in flight for an operation.
+	 */
+	public GQLCircuitBreaker(int failureThreshold, @NotNull Duration openDuration, @NotNull Duration maxOpenDuration, int maxConcurrency){
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.openDuration = openDuration;
+		this.maxOpenDuration = maxOpenDuration.compareTo(openDuration) < 0 ? openDuration : maxOpenDuration;
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+	
+	/**
+	 * Wait for a request of an operation to be allowed. Once allowed, {@link #release(String)} must be called once the request completed.
+	 *
+	 * @param operationName The name of the operation.
+	 *
+	 * @return A future completed once the request can be sent, failed with a {@link GQLRequestRejectedException} if the operation is suspended.
+	 */
+	@NotNull
+	public CompletableFuture<Void> acquire(@NotNull String operationName){
+		return getState(operationName).acquire(operationName, TimeFactory.now());
+	}
+	
+	/**
+	 * Try to start a request for an operation without waiting. If allowed, {@link #release(String)} must be called once the request completed.
+	 *
+	 * @param operationName The name of the operation.
+	 *
+	 * @return true if the request can be sent, false if the operation is suspended or at its concurrency limit.
+	 */
+	public boolean tryAcquire(@NotNull String operationName){
+		return getState(operationName).tryAcquire(operationName, TimeFactory.now());
+	}
+	
+	public void release(@NotNull String operationName){
+		var state = getState(operationName);
+		state.release(operationName, TimeFactory.now());
+		state.dispatch(operationName);
+	}
+	
+	public void onSuccess(@NotNull String operationName){
+		var state = getState(operationName);
+		state.onSuccess(operationName);
+		state.dispatch(operationName);
+	}
+	
+	/**
+	 * Record a failure that is expected to go away by itself (Twitch service errors, server errors, timeouts...).
+	 *
+	 * @param operationName The name of the operation.
+	 */
+	public void onFailure(@NotNull String operationName){
+		var state = getState(operationName);
+		state.onFailure(operationName, TimeFactory.now());
+		state.dispatch(operationName);
+	}
+	
+	@NotNull
+	private OperationState getState(@NotNull String operationName){
+		return states.computeIfAbsent(operationName, key -> new OperationState(maxConcurrency, openDuration));
+	}
+	
+	private class OperationState{
+		private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+		private double limit;
+		private int inFlight;
+		private int consecutiveFailures;
+		@Nullable
+		private Instant openUntil;
+		private Duration currentOpenDuration;
+		private boolean probing;
+		
+		private OperationState(double limit, @NotNull Duration currentOpenDuration){
+			this.limit = limit;
+			this.currentOpenDuration = currentOpenDuration;
+		}
+		
+		@NotNull
+		private synchronized CompletableFuture<Void> acquire(@NotNull String operationName, @NotNull Instant now){
+			if(Objects.isNull(openUntil) && inFlight >= (int) limit){
+				log.debug("GQL operation {} reached its concurrency limit of {}, waiting for a request to complete", operationName, (int) limit);
+				var permit = new CompletableFuture<Void>();
+				waiting.add(permit);
+				return permit;
+			}
+			if(tryAcquire(operationName, now)){
+				return CompletableFuture.completedFuture(null);
+			}
+			log.debug("Not sending GQL operation {}, it is currently suspended", operationName);
+			return CompletableFuture.failedFuture(new GQLRequestRejectedException(operationName));
+		}
+		
+		private synchronized boolean tryAcquire(@NotNull String operationName, @NotNull Instant now){
+			if(Objects.nonNull(openUntil)){
+				if(now.isBefore(openUntil) || probing || inFlight > 0){
+					return false;
+				}
+				log.info("Sending probe request for suspended GQL operation {}", operationName);
+				probing = true;
+			}
+			else if(inFlight >= (int) limit){
+				log.debug("GQL operation {} reached its concurrency limit of {}", operationName, (int) limit);
+				return false;
+			}
+			inFlight++;
+			return true;
+		}
+		
+		private synchronized void release(@NotNull String operationName, @NotNull Instant now){
+			inFlight = Math.max(0, inFlight - 1);
+			if(probing){
+				log.info("Probe request for suspended GQL operation {} ended without success or failure", operationName);
+				probing = false;
+				open(operationName, now);
+			}
+		}
+		
+		private synchronized void onSuccess(@NotNull String operationName){
+			consecutiveFailures = 0;
+			limit = Math.min(maxConcurrency, limit + 1 / limit);
+			if(Objects.nonNull(openUntil)){
+				log.info("Resuming GQL operation {}", operationName);
+				openUntil = null;
+				probing = false;
+				currentOpenDuration = openDuration;
+			}
+		}
+		
+		private synchronized void onFailure(@NotNull String operationName, @NotNull Instant now){
+			consecutiveFailures++;
+			limit = Math.max(1, limit * DECREASE_RATIO);
+			if(probing){
+				probing = false;
+				currentOpenDuration = currentOpenDuration.multipliedBy(2);
+				if(currentOpenDuration.compareTo(maxOpenDuration) > 0){
+					currentOpenDuration = maxOpenDuration;
+				}
+				open(operationName, now);
+			}
+			else if(Objects.isNull(openUntil) && consecutiveFailures >= failureThreshold){
+				open(operationName, now);
+			}
+		}
+		
+		/**
+		 * Let waiting requests through if the concurrency limit allows it, or reject them if the operation got suspended.
+		 * Waiting requests are completed outside the lock as they send their request right away.
+		 */
+		private void dispatch(@NotNull String operationName){
+			var granted = new ArrayList<CompletableFuture<Void>>();
+			var rejected = new ArrayList<CompletableFuture<Void>>();
+			synchronized(this){
+				if(Objects.nonNull(openUntil)){
+					rejected.addAll(waiting);
+					waiting.clear();
+				}
+				else{
+					while(!waiting.isEmpty() && inFlight < (int) limit){
+						inFlight++;
+						granted.add(waiting.poll());
+					}
+				}
+			}
+			rejected.forEach(permit -> permit.completeExceptionally(new GQLRequestRejectedException(operationName)));
+			granted.forEach(permit -> permit.complete(null));
+		}
+		
+		private void open(@NotNull String operationName, @NotNull Instant now){
+			log.warn("Suspending GQL operation {} for {} after {} consecutive failures", operationName, currentOpenDuration, consecutiveFailures);
+			openUntil = now.plus(currentOpenDuration);
+		}
+	}
+}
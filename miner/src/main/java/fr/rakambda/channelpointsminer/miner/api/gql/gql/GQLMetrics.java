@@ -0,0 +1,172 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, payload size, status and error counters of GQL requests, by operation name.
+ * <p>
+ * Recording is lock-free so that it can be done on every request. A consistent enough view can be obtained at any time through {@link #getSnapshot()}.
+ */
+public class GQLMetrics{
+	/**
+	 * Upper bounds (inclusive) of the latency histogram buckets, in milliseconds. A last bucket counts everything above.
+	 */
+	private static final long[] LATENCY_BUCKETS = {50, 100, 250, 500, 1000, 2500, 5000, 10000};
+	
+	private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+	
+	/**
+	 * Record a completed request of an operation.
+	 *
+	 * @param operationName The name of the operation.
+	 * @param latency       Time taken to get the response.
+	 * @param status        HTTP status of the response, 0 if no response was received.
+	 * @param payloadSize   Size in bytes of the response attributed to this operation.
+	 * @param errorClass    Class of error of the operation, null if it succeeded.
+	 */
+	public void record(@NotNull String operationName, @NotNull Duration latency, int status, long payloadSize, @Nullable ErrorClass errorClass){
+		operations.computeIfAbsent(operationName, key -> new OperationMetrics()).record(latency.toMillis(), status, payloadSize, errorClass);
+	}
+	
+	/**
+	 * @return A view of the metrics of each operation, sorted by operation name.
+	 */
+	@NotNull
+	public Map<String, OperationSnapshot> getSnapshot(){
+		var snapshot = new TreeMap<String, OperationSnapshot>();
+		operations.forEach((name, metrics) -> snapshot.put(name, metrics.snapshot()));
+		return Collections.unmodifiableMap(snapshot);
+	}
+	
+	public enum ErrorClass{
+		/**
+		 * The request got a non success HTTP status.
+		 */
+		HTTP,
+		/**
+		 * The integrity token was rejected.
+		 */
+		INTEGRITY,
+		/**
+		 * Twitch answered with a transient service error (timeout, unavailable...).
+		 */
+		SERVICE,
+		/**
+		 * Twitch answered with another GQL error.
+		 */
+		GQL,
+		/**
+		 * The response couldn't be decoded.
+		 */
+		DECODE,
+		/**
+		 * The request failed without a response.
+		 */
+		EXCEPTION
+	}
+	
+	/**
+	 * @param requests       Number of requests.
+	 * @param totalLatency   Sum of the latencies, in milliseconds.
+	 * @param maxLatency     Maximum latency, in milliseconds.
+	 * @param latencyBuckets Number of requests taking up to 50, 100, 250, 500, 1000, 2500, 5000 and 10000 milliseconds, with an additional last bucket for slower requests.
+	 * @param payloadSize    Sum of the response sizes, in bytes.
+	 * @param statuses       Number of responses by HTTP status.
+	 * @param errors         Number of errors by class.
+	 */
+	public record OperationSnapshot(long requests, long totalLatency, long maxLatency, long[] latencyBuckets, long payloadSize, Map<Integer, Long> statuses, Map<ErrorClass, Long> errors){
+		public long averageLatency(){
+			return requests == 0 ? 0 : totalLatency / requests;
+		}
+		
+		public long averagePayloadSize(){
+			return requests == 0 ? 0 : payloadSize / requests;
+		}
+		
+		/**
+		 * Estimate a latency percentile from the histogram.
+		 *
+		 * @param percentile The percentile, between 0 and 1.
+		 *
+		 * @return The upper bound of the bucket containing the percentile, or the maximum latency if it is in the last bucket.
+		 */
+		public long latencyPercentile(double percentile){
+			var target = (long) Math.ceil(requests * percentile);
+			var count = 0L;
+			for(var i = 0; i < LATENCY_BUCKETS.length; i++){
+				count += latencyBuckets[i];
+				if(count >= target){
+					return Math.min(LATENCY_BUCKETS[i], maxLatency);
+				}
+			}
+			return maxLatency;
+		}
+		
+		public long errorCount(){
+			return errors.values().stream().mapToLong(Long::longValue).sum();
+		}
+		
+		@Override
+		public String toString(){
+			return "OperationSnapshot{requests=%d, totalLatency=%d, maxLatency=%d, latencyBuckets=%s, payloadSize=%d, statuses=%s, errors=%s}"
+					.formatted(requests, totalLatency, maxLatency, Arrays.toString(latencyBuckets), payloadSize, statuses, errors);
+		}
+	}
+	
+	private static class OperationMetrics{
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder totalLatency = new LongAdder();
+		private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+		private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
+		private final LongAdder payloadSize = new LongAdder();
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		private final Map<ErrorClass, LongAdder> errors = new ConcurrentHashMap<>();
+		
+		private void record(long latency, int status, long size, @Nullable ErrorClass errorClass){
+			requests.increment();
+			totalLatency.add(latency);
+			maxLatency.accumulate(latency);
+			latencyBuckets.incrementAndGet(getBucket(latency));
+			payloadSize.add(size);
+			statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+			if(Objects.nonNull(errorClass)){
+				errors.computeIfAbsent(errorClass, key -> new LongAdder()).increment();
+			}
+		}
+		
+		@NotNull
+		private OperationSnapshot snapshot(){
+			var buckets = new long[latencyBuckets.length()];
+			for(var i = 0; i < buckets.length; i++){
+				buckets[i] = latencyBuckets.get(i);
+			}
+			
+			var statusCounts = new TreeMap<Integer, Long>();
+			statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+			var errorCounts = new TreeMap<ErrorClass, Long>();
+			errors.forEach((errorClass, count) -> errorCounts.put(errorClass, count.sum()));
+			
+			return new OperationSnapshot(requests.sum(), totalLatency.sum(), maxLatency.get(), buckets, payloadSize.sum(), Collections.unmodifiableMap(statusCounts), Collections.unmodifiableMap(errorCounts));
+		}
+		
+		private static int getBucket(long latency){
+			for(var i = 0; i < LATENCY_BUCKETS.length; i++){
+				if(latency <= LATENCY_BUCKETS[i]){
+					return i;
+				}
+			}
+			return LATENCY_BUCKETS.length;
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A GQL operation wasn't sent because it is currently suspended. The request may succeed later, so data previously received should be kept.
+ */
+public class GQLRequestRejectedException extends RuntimeException{
+	public GQLRequestRejectedException(@NotNull String operationName){
+		super("GQL operation " + operationName + " is currently suspended");
+	}
+	
+	/**
+	 * @param throwable The error a request failed with, possibly wrapped in a {@link CompletionException}.
+	 *
+	 * @return true if the request was rejected.
+	 */
+	public static boolean isRejection(@Nullable Throwable throwable){
+		var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+		return cause instanceof GQLRequestRejectedException;
+	}
+}
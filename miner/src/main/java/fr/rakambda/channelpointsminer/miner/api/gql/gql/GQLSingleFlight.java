@@ -0,0 +1,59 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.IGQLOperation;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Coalesces identical GQL operations that are in flight at the same time so that only one request is sent.
+ * <p>
+ * Operations are identified by their name, variables and extensions. Callers submitting an operation while an identical one is pending share its result.
+ * Once the request completed, a new submission sends a new request.
+ */
+@Log4j2
+public class GQLSingleFlight{
+	private final Map<IGQLOperation<?>, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param operation The operation to send.
+	 * @param sender    Function sending the operation if no identical one is in flight.
+	 *
+	 * @return The response of the operation.
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<Optional<GQLResponse<T>>> submit(@NotNull IGQLOperation<T> operation, @NotNull Function<IGQLOperation<T>, CompletableFuture<Optional<GQLResponse<T>>>> sender){
+		var future = new CompletableFuture<Optional<GQLResponse<T>>>();
+		var existing = inFlight.putIfAbsent(operation, future);
+		if(Objects.nonNull(existing)){
+			log.debug("Joining in flight GQL operation {}", operation.getOperationName());
+			return ((CompletableFuture<Optional<GQLResponse<T>>>) existing).copy();
+		}
+		
+		CompletableFuture<Optional<GQLResponse<T>>> response;
+		try{
+			response = sender.apply(operation);
+		}
+		catch(Throwable e){
+			response = CompletableFuture.failedFuture(e);
+		}
+		
+		response.whenComplete((result, throwable) -> {
+			inFlight.remove(operation, future);
+			if(Objects.nonNull(throwable)){
+				future.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+				return;
+			}
+			future.complete(result);
+		});
+		return future.copy();
+	}
+}
@@ -0,0 +1,119 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.integrity;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Integrity provider keeping the current token as an immutable snapshot that is read without locking.
+ * <p>
+ * When the token gets close to its expiration, a new one is queried in the background while callers keep using the current one.
+ * Only callers arriving once the token expired (or got invalidated) wait for a new one. At most one query is in progress at any time.
+ */
+@Log4j2
+public abstract class AbstractRefreshingIntegrityProvider implements IIntegrityProvider{
+	private static final Duration EXPIRATION_MARGIN = Duration.ofMinutes(5);
+	private static final Duration REFRESH_AHEAD = Duration.ofMinutes(30);
+	private static final Duration BACKGROUND_RETRY_DELAY = Duration.ofMinutes(1);
+	
+	private final AtomicReference<CompletableFuture<IntegrityData>> refresh = new AtomicReference<>();
+	@Nullable
+	private volatile IntegrityData currentIntegrity;
+	@Nullable
+	private volatile Instant lastBackgroundRefresh;
+	
+	@Override
+	@NotNull
+	public Optional<IntegrityData> getIntegrity() throws IntegrityException{
+		var integrity = currentIntegrity;
+		var now = TimeFactory.now();
+		if(Objects.nonNull(integrity) && integrity.getExpiration().minus(EXPIRATION_MARGIN).isAfter(now)){
+			if(!integrity.getExpiration().minus(REFRESH_AHEAD).isAfter(now)){
+				refreshInBackground(now);
+			}
+			return Optional.of(integrity);
+		}
+		return Optional.of(refreshAndWait());
+	}
+	
+	@Override
+	public void invalidate(){
+		log.info("Invalidating integrity");
+		currentIntegrity = null;
+	}
+	
+	/**
+	 * Query a new integrity token. Calls are never concurrent.
+	 *
+	 * @return The new integrity.
+	 *
+	 * @throws IntegrityException If the integrity couldn't be retrieved.
+	 */
+	@NotNull
+	protected abstract IntegrityData queryIntegrity() throws IntegrityException;
+	
+	private void refreshInBackground(@NotNull Instant now){
+		var last = lastBackgroundRefresh;
+		if(Objects.nonNull(last) && last.plus(BACKGROUND_RETRY_DELAY).isAfter(now)){
+			return;
+		}
+		
+		var future = new CompletableFuture<IntegrityData>();
+		if(!refresh.compareAndSet(null, future)){
+			return;
+		}
+		lastBackgroundRefresh = now;
+		
+		log.info("Integrity token is about to expire, refreshing it in the background");
+		future.whenComplete((integrity, throwable) -> {
+			if(Objects.nonNull(throwable)){
+				log.warn("Failed to refresh integrity token in the background, keeping current one", throwable);
+			}
+		});
+		Thread.ofVirtual().name("integrity-refresh").start(() -> runRefresh(future));
+	}
+	
+	@NotNull
+	private IntegrityData refreshAndWait() throws IntegrityException{
+		var future = new CompletableFuture<IntegrityData>();
+		var existing = refresh.compareAndExchange(null, future);
+		if(Objects.isNull(existing)){
+			runRefresh(future);
+			existing = future;
+		}
+		
+		try{
+			return existing.join();
+		}
+		catch(CompletionException e){
+			switch(e.getCause()){
+				case IntegrityException integrityException -> throw integrityException;
+				case RuntimeException runtimeException -> throw runtimeException;
+				case Error error -> throw error;
+				case null, default -> throw e;
+			}
+		}
+	}
+	
+	private void runRefresh(@NotNull CompletableFuture<IntegrityData> future){
+		try{
+			var integrity = queryIntegrity();
+			currentIntegrity = integrity;
+			future.complete(integrity);
+		}
+		catch(Throwable e){
+			future.completeExceptionally(e);
+		}
+		finally{
+			refresh.compareAndSet(future, null);
+		}
+	}
+}
@@ -1,7 +1,7 @@
 package fr.rakambda.channelpointsminer.miner.api.gql.integrity.browser;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IIntegrityProvider;
+import fr.rakambda.channelpointsminer.miner.api.gql.integrity.AbstractRefreshingIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityData;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityException;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityResponse;
@@ -10,7 +10,6 @@ import fr.rakambda.channelpointsminer.miner.browser.Browser;
 import fr.rakambda.channelpointsminer.miner.config.login.BrowserConfiguration;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.factory.BrowserFactory;
-import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.util.CommonUtils;
 import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
 import lombok.RequiredArgsConstructor;
@@ -18,48 +17,33 @@ import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
 import org.openqa.selenium.devtools.v131.page.model.FrameId;
 import java.io.IOException;
-import java.time.Duration;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.Optional;
 
 @RequiredArgsConstructor
 @Log4j2
-public class BrowserIntegrityProvider implements IIntegrityProvider{
+public class BrowserIntegrityProvider extends AbstractRefreshingIntegrityProvider{
 	public static final String INTEGRITY_URL = "https://gql.twitch.tv/integrity";
 	@NotNull
 	private final BrowserConfiguration browserConfiguration;
 	@NotNull
 	private final IEventManager eventManager;
 	
-	private IntegrityData currentIntegrity;
-	
-	@Override
-	public void invalidate(){
-		log.info("Invalidating integrity");
-		currentIntegrity = null;
-	}
-	
 	@Override
 	@NotNull
-	public Optional<IntegrityData> getIntegrity() throws IntegrityException{
-		synchronized(this){
-			if(Objects.nonNull(currentIntegrity) && currentIntegrity.getExpiration().minus(Duration.ofMinutes(5)).isAfter(TimeFactory.now())){
-				return Optional.of(currentIntegrity);
-			}
-			
-			log.info("Querying new integrity token");
-			try(var browser = BrowserFactory.createBrowser(browserConfiguration, eventManager)){
-				var controller = browser.setup();
-				controller.ensureLoggedIn();
-				CommonUtils.randomSleep(10000, 1);
-				currentIntegrity = extractGQLIntegrity(browser);
-				log.debug("Got new integrity token {}", currentIntegrity);
-				return Optional.of(currentIntegrity);
-			}
-			catch(LoginException e){
-				throw new IntegrityException("Failed to get integrity", e);
-			}
+	protected IntegrityData queryIntegrity() throws IntegrityException{
+		log.info("Querying new integrity token");
+		try(var browser = BrowserFactory.createBrowser(browserConfiguration, eventManager)){
+			var controller = browser.setup();
+			controller.ensureLoggedIn();
+			CommonUtils.randomSleep(10000, 1);
+			var integrity = extractGQLIntegrity(browser);
+			log.debug("Got new integrity token {}", integrity);
+			return integrity;
+		}
+		catch(LoginException e){
+			throw new IntegrityException("Failed to get integrity", e);
 		}
 	}
 	
@@ -0,0 +1,174 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.version;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Version provider remembering the last resolved version, optionally persisted to a file so that it is known right after a restart.
+ * <p>
+ * Once the version is older than its time to live, it is still returned while a new one is resolved in the background.
+ * Callers only wait for a resolution when no version was ever known.
+ */
+@Log4j2
+public class CachedVersionProvider implements IVersionProvider{
+	private static final TypeReference<CachedVersion> TYPE = new TypeReference<>(){};
+	private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+	
+	@NotNull
+	private final IVersionProvider delegate;
+	@NotNull
+	private final Duration timeToLive;
+	@Nullable
+	private final Path file;
+	private final AtomicBoolean refreshing;
+	
+	@Nullable
+	private volatile CachedVersion current;
+	@Nullable
+	private volatile Instant nextRefresh;
+	private boolean loaded;
+	
+	/**
+	 * @param delegate   Provider resolving the version.
+	 * @param timeToLive Duration after which a version is resolved again.
+	 * @param file       File to persist the version into, null to keep it in memory only.
+	 */
+	public CachedVersionProvider(@NotNull IVersionProvider delegate, @NotNull Duration timeToLive, @Nullable Path file){
+		this.delegate = delegate;
+		this.timeToLive = timeToLive;
+		this.file = file;
+		refreshing = new AtomicBoolean(false);
+	}
+	
+	@Override
+	@NotNull
+	public String getVersion() throws VersionException{
+		var cached = getCurrent();
+		if(Objects.isNull(cached)){
+			return resolve();
+		}
+		
+		var now = TimeFactory.now();
+		if(now.toEpochMilli() - cached.getResolvedAt() >= timeToLive.toMillis()){
+			refreshInBackground(now);
+		}
+		return cached.getVersion();
+	}
+	
+	@Nullable
+	private CachedVersion getCurrent(){
+		var cached = current;
+		if(Objects.nonNull(cached)){
+			return cached;
+		}
+		
+		synchronized(this){
+			if(!loaded){
+				loaded = true;
+				current = readFile();
+			}
+			return current;
+		}
+	}
+	
+	@NotNull
+	private synchronized String resolve() throws VersionException{
+		var cached = current;
+		if(Objects.nonNull(cached)){
+			return cached.getVersion();
+		}
+		
+		var version = delegate.getVersion();
+		update(version, TimeFactory.now());
+		return version;
+	}
+	
+	private void refreshInBackground(@NotNull Instant now){
+		var next = nextRefresh;
+		if(Objects.nonNull(next) && now.isBefore(next)){
+			return;
+		}
+		if(!refreshing.compareAndSet(false, true)){
+			return;
+		}
+		nextRefresh = now.plus(RETRY_DELAY);
+		
+		log.debug("Client version is outdated, resolving it in the background");
+		Thread.ofVirtual().name("version-refresh").start(() -> {
+			try{
+				update(delegate.getVersion(), now);
+			}
+			catch(Exception e){
+				log.warn("Failed to refresh client version, keeping current one", e);
+			}
+			finally{
+				refreshing.set(false);
+			}
+		});
+	}
+	
+	private void update(@NotNull String version, @NotNull Instant resolvedAt){
+		var cached = new CachedVersion(version, resolvedAt.toEpochMilli());
+		current = cached;
+		save(cached);
+	}
+	
+	private void save(@NotNull CachedVersion cached){
+		if(Objects.isNull(file)){
+			return;
+		}
+		
+		try{
+			JacksonUtils.writeAtomically(file, cached);
+		}
+		catch(IOException e){
+			log.warn("Failed to save client version to {}", file, e);
+		}
+	}
+	
+	@Nullable
+	private CachedVersion readFile(){
+		if(Objects.isNull(file) || !Files.exists(file)){
+			return null;
+		}
+		
+		try(var is = Files.newInputStream(file)){
+			var cached = JacksonUtils.read(is, TYPE);
+			log.debug("Loaded cached client version {}", cached.getVersion());
+			return Objects.isNull(cached.getVersion()) ? null : cached;
+		}
+		catch(IOException e){
+			log.warn("Failed to read client version from {}", file, e);
+			return null;
+		}
+	}
+	
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	@ToString
+	public static class CachedVersion{
+		@JsonProperty("version")
+		private String version;
+		@JsonProperty("resolvedAt")
+		private long resolvedAt;
+	}
+}
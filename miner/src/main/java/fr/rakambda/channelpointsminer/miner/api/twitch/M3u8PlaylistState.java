@@ -0,0 +1,33 @@
+package fr.rakambda.channelpointsminer.miner.api.twitch;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+import java.net.URL;
+
+/**
+ * What is known of a media playlist from previous reads, used to only process what changed since then.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class M3u8PlaylistState{
+	@Nullable
+	private String etag;
+	@Nullable
+	private String lastModified;
+	private long mediaSequence = -1;
+	@Nullable
+	private URL lastChunkUrl;
+
+	/**
+	 * Forget everything known, as if the playlist was never read.
+	 */
+	public void reset(){
+		etag = null;
+		lastModified = null;
+		mediaSequence = -1;
+		lastChunkUrl = null;
+	}
+}
@@ -0,0 +1,88 @@
+package fr.rakambda.channelpointsminer.miner.api.twitch;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the spade url, which is the same for every channel, so that it is only scraped once.
+ * Once expired, the known url is still returned while a new one is fetched in the background.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class SpadeUrlResolver{
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(6);
+	
+	@NotNull
+	private final Duration timeToLive;
+	
+	@Nullable
+	private ResolvedSpadeUrl resolved;
+	@Nullable
+	private CompletableFuture<Optional<URL>> pending;
+	
+	/**
+	 * Get the spade url.
+	 *
+	 * @param fetcher Fetches the spade url if it isn't known or expired.
+	 *
+	 * @return The spade url.
+	 */
+	@NotNull
+	public synchronized CompletableFuture<Optional<URL>> resolve(@NotNull Supplier<CompletableFuture<Optional<URL>>> fetcher){
+		if(Objects.isNull(resolved)){
+			return fetch(fetcher);
+		}
+		
+		if(TimeFactory.now().isAfter(resolved.resolvedAt().plus(timeToLive))){
+			log.debug("Spade url expired, refreshing it");
+			fetch(fetcher);
+		}
+		return CompletableFuture.completedFuture(Optional.of(resolved.url()));
+	}
+	
+	/**
+	 * Forget the spade url if it is the given one, so that it is fetched again on next resolution.
+	 *
+	 * @param spadeUrl The spade url that failed.
+	 */
+	public synchronized void invalidate(@NotNull URL spadeUrl){
+		if(Objects.nonNull(resolved) && Objects.equals(resolved.url().toString(), spadeUrl.toString())){
+			log.info("Invalidating spade url {}", spadeUrl);
+			resolved = null;
+		}
+	}
+	
+	@NotNull
+	private CompletableFuture<Optional<URL>> fetch(@NotNull Supplier<CompletableFuture<Optional<URL>>> fetcher){
+		if(Objects.nonNull(pending)){
+			return pending;
+		}
+		
+		var future = fetcher.get();
+		pending = future;
+		future.whenComplete((spadeUrl, throwable) -> onFetched(future, spadeUrl));
+		return future;
+	}
+	
+	private synchronized void onFetched(@NotNull CompletableFuture<Optional<URL>> future, @Nullable Optional<URL> spadeUrl){
+		if(pending == future){
+			pending = null;
+		}
+		if(Objects.nonNull(spadeUrl)){
+			spadeUrl.ifPresent(url -> resolved = new ResolvedSpadeUrl(url, TimeFactory.now()));
+		}
+	}
+	
+	private record ResolvedSpadeUrl(@NotNull URL url, @NotNull Instant resolvedAt){
+	}
+}
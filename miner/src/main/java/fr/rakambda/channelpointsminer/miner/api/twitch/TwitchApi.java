@@ -3,19 +3,27 @@ package fr.rakambda.channelpointsminer.miner.api.twitch;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import fr.rakambda.channelpointsminer.miner.api.twitch.data.PlayerEvent;
 import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
-import kong.unirest.core.UnirestException;
+import kong.unirest.core.HttpResponse;
+import kong.unirest.core.RawResponse;
 import kong.unirest.core.UnirestInstance;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.http.HttpConnectTimeoutException;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Pattern;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -26,53 +34,86 @@ public class TwitchApi{
 	private static final Pattern SPADE_URL_PATTERN = Pattern.compile("\"spade(Url|_url)\":\"(.*?)\"");
 	private static final Pattern M3U8_STREAM_PATTERN = Pattern.compile("(https://[/\\-.:\\\\,\"=\\w]+\\.m3u8)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
 	private static final Pattern M3U8_CHUNK_PATTERN = Pattern.compile("^(https://[/\\-.:\\\\,\"=\\w]+\\.(ts|mp4)(\\?[.\\w\\-/=&]+)?)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+	private static final String M3U8_MEDIA_SEQUENCE_TAG = "#EXT-X-MEDIA-SEQUENCE:";
 	
 	private final UnirestInstance unirest;
+	private final SpadeUrlResolver spadeUrlResolver;
+	
+	public TwitchApi(@NotNull UnirestInstance unirest){
+		this(unirest, new SpadeUrlResolver(SpadeUrlResolver.DEFAULT_TIME_TO_LIVE));
+	}
 	
 	@NotNull
 	public Optional<URL> getSpadeUrl(@NotNull URL streamerUrl){
-		return getStreamerPageContent(streamerUrl).flatMap(this::getSpadeUrlFromContent);
+		return await(getSpadeUrlAsync(streamerUrl));
 	}
 	
-	private Optional<URL> getSpadeUrlFromContent(@NotNull String content){
-		var result = extractUrl(SPADE_URL_PATTERN, 2, content).or(() -> extractSpadeFromSettings(content));
-		if(result.isEmpty()){
-			log.error("Failed to get Spade URL, content was : {}", content);
-		}
-		return result;
+	/**
+	 * Get the spade url. It is only scraped from the streamer page if it isn't already known by the resolver.
+	 *
+	 * @param streamerUrl The page of a streamer to get it from if needed.
+	 *
+	 * @return The spade url.
+	 */
+	@NotNull
+	public CompletableFuture<Optional<URL>> getSpadeUrlAsync(@NotNull URL streamerUrl){
+		return spadeUrlResolver.resolve(() -> fetchSpadeUrl(streamerUrl));
 	}
 	
 	@NotNull
-	private Optional<String> getStreamerPageContent(@NotNull URL streamerUrl){
-		var response = unirest.get(streamerUrl.toString()).asString();
-		
-		if(!response.isSuccess()){
-			log.warn("Failed to get streamer page content");
-			return Optional.empty();
-		}
-		
-		return Optional.of(response.getBody());
+	private CompletableFuture<Optional<URL>> fetchSpadeUrl(@NotNull URL streamerUrl){
+		return getStreamerPageContent(streamerUrl).thenCompose(content -> content
+				.map(this::getSpadeUrlFromContent)
+				.orElseGet(() -> CompletableFuture.completedFuture(Optional.empty())));
 	}
 	
 	@NotNull
-	private Optional<URL> extractSpadeFromSettings(@NotNull String content){
-		var settings = extractUrl(SETTINGS_URL_PATTERN, 1, content)
-				.map(settingsUrl -> {
-					var response = unirest.get(settingsUrl.toString()).asString();
+	private CompletableFuture<Optional<URL>> getSpadeUrlFromContent(@NotNull String content){
+		var spadeUrl = extractUrl(SPADE_URL_PATTERN, 2, content);
+		if(spadeUrl.isPresent()){
+			return CompletableFuture.completedFuture(spadeUrl);
+		}
 					
-					if(!response.isSuccess()){
-						log.warn("Failed to get spade settings from {}", settingsUrl);
-						return null;
-					}
+		return extractSpadeFromSettings(content).thenApply(result -> {
+			if(result.isEmpty()){
+				log.error("Failed to get Spade URL, content was : {}", content);
+			}
+			return result;
+		});
+	}
 					
-					return response.getBody();
-				});
-		var result = settings.flatMap(c -> extractUrl(SPADE_URL_PATTERN, 2, c));
+	@NotNull
+	private CompletableFuture<Optional<String>> getStreamerPageContent(@NotNull URL streamerUrl){
+		return unirest.get(streamerUrl.toString()).asStringAsync().thenApply(response -> {
+			if(!response.isSuccess()){
+				log.warn("Failed to get streamer page content");
+				return Optional.empty();
+			}
 		
-		if(result.isEmpty()){
-			log.info("Spade settings : {}", settings);
+			return Optional.of(response.getBody());
+		});
+	}
+	
+	@NotNull
+	private CompletableFuture<Optional<URL>> extractSpadeFromSettings(@NotNull String content){
+		var settingsUrl = extractUrl(SETTINGS_URL_PATTERN, 1, content);
+		if(settingsUrl.isEmpty()){
+			return CompletableFuture.completedFuture(Optional.empty());
 		}
-		return result;
+		
+		return unirest.get(settingsUrl.get().toString()).asStringAsync().thenApply(response -> {
+			if(!response.isSuccess()){
+				log.warn("Failed to get spade settings from {}", settingsUrl.get());
+				return Optional.empty();
+			}
+			
+			var settings = response.getBody();
+			var result = extractUrl(SPADE_URL_PATTERN, 2, settings);
+			if(result.isEmpty()){
+				log.info("Spade settings : {}", settings);
+			}
+			return result;
+		});
 	}
 	
 	@NotNull
@@ -108,26 +149,62 @@ public class TwitchApi{
 	}
 	
 	public boolean sendPlayerEvents(@NotNull URL spadeUrl, @NotNull PlayerEvent... events){
+		return await(sendPlayerEventsAsync(spadeUrl, events));
+	}
+	
+	@NotNull
+	public CompletableFuture<Boolean> sendPlayerEventsAsync(@NotNull URL spadeUrl, @NotNull PlayerEvent... events){
 		try{
-			var requestStr = JacksonUtils.writeAsString(events);
-			var requestBase64 = new String(Base64.getEncoder().encode(requestStr.getBytes(UTF_8)), UTF_8);
-			var data = "data=" + requestBase64;
-			
-			var response = unirest.post(spadeUrl.toString())
-					.body(data)
-					.asEmpty();
-			
-			return response.isSuccess();
+			return postPlayerEvents(spadeUrl, JacksonUtils.writeAsString(events));
 		}
 		catch(JsonProcessingException e){
 			log.error("Failed to send minute watched", e);
-			return false;
+			return CompletableFuture.completedFuture(false);
 		}
 	}
 	
+	/**
+	 * Send events that were already serialized, all in the same request.
+	 *
+	 * @param spadeUrl The spade url to send to.
+	 * @param events   JSON representation of each event.
+	 *
+	 * @return True if the request succeeded.
+	 */
+	public boolean sendSerializedPlayerEvents(@NotNull URL spadeUrl, @NotNull Collection<String> events){
+		return await(sendSerializedPlayerEventsAsync(spadeUrl, events));
+	}
+	
+	@NotNull
+	public CompletableFuture<Boolean> sendSerializedPlayerEventsAsync(@NotNull URL spadeUrl, @NotNull Collection<String> events){
+		return postPlayerEvents(spadeUrl, "[" + String.join(",", events) + "]");
+	}
+	
+	@NotNull
+	private CompletableFuture<Boolean> postPlayerEvents(@NotNull URL spadeUrl, @NotNull String requestStr){
+		var requestBase64 = new String(Base64.getEncoder().encode(requestStr.getBytes(UTF_8)), UTF_8);
+		var data = "data=" + requestBase64;
+		
+		return unirest.post(spadeUrl.toString())
+				.body(data)
+				.asEmptyAsync()
+				.thenApply(response -> {
+					if(!response.isSuccess()){
+						spadeUrlResolver.invalidate(spadeUrl);
+						return false;
+					}
+					return true;
+				});
+	}
+	
 	@NotNull
 	public Optional<URL> getM3u8Url(@NotNull String login, @NotNull String signature, @NotNull String value){
-		var response = unirest.get("https://usher.ttvnw.net/api/channel/hls/%s.m3u8".formatted(login.toLowerCase(Locale.ROOT)))
+		return await(getM3u8UrlAsync(login, signature, value));
+	}
+	
+	@NotNull
+	public CompletableFuture<Optional<URL>> getM3u8UrlAsync(@NotNull String login, @NotNull String signature, @NotNull String value){
+		return unirest.get("https://usher.ttvnw.net/api/channel/hls/%s.m3u8".formatted(login.toLowerCase(Locale.ROOT)))
 				.queryString("sig", signature)
 				.queryString("token", value)
 				.queryString("cdm", "wv")
@@ -137,47 +214,160 @@ public class TwitchApi{
 				.queryString("playlist_include_framerate", "true")
 				.queryString("allow_source", "true")
 				.queryString("transcode_mode", "cbr_v1")
-				.asString();
+				.asStringAsync()
+				.thenApply(response -> {
+					if(!response.isSuccess()){
+						if(response.getStatus() == 403){
+							log.trace("Got 403 response for m3u8 content, is streamer region locked? (#783)");
+							return Optional.empty();
+						}
 		
-		if(!response.isSuccess()){
-			if(response.getStatus() == 403){
-				log.trace("Got 403 response for m3u8 content, is streamer region locked? (#783)");
-				return Optional.empty();
-			}
+						log.error("Failed to get streamer M3U8 content");
+						return Optional.empty();
+					}
 			
-			log.error("Failed to get streamer M3U8 content");
-			return Optional.empty();
+					return extractUrl(M3U8_STREAM_PATTERN, 1, response.getBody(), true);
+				});
+	}
+	
+	public boolean openM3u8LastChunk(@NotNull URL m3u8Url){
+		return await(openM3u8LastChunkAsync(m3u8Url));
+	}
+	
+	public boolean openM3u8LastChunk(@NotNull URL m3u8Url, @NotNull M3u8PlaylistState state){
+		return await(openM3u8LastChunkAsync(m3u8Url, state));
+	}
+	
+	@NotNull
+	public CompletableFuture<Boolean> openM3u8LastChunkAsync(@NotNull URL m3u8Url){
+		return openM3u8LastChunkAsync(m3u8Url, new M3u8PlaylistState());
+	}
+	
+	/**
+	 * Open the last chunk of a media playlist.
+	 * The playlist is requested conditionally and read line by line, only segments newer than the ones already known from the state are considered.
+	 *
+	 * @param m3u8Url The media playlist url.
+	 * @param state   What is known from previous reads of this playlist, updated by this call.
+	 *
+	 * @return True if the chunk was opened.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> openM3u8LastChunkAsync(@NotNull URL m3u8Url, @NotNull M3u8PlaylistState state){
+		var request = unirest.get(m3u8Url.toString());
+		if(Objects.nonNull(state.getEtag())){
+			request = request.header("If-None-Match", state.getEtag());
+		}
+		if(Objects.nonNull(state.getLastModified())){
+			request = request.header("If-Modified-Since", state.getLastModified());
 		}
 		
-		return extractUrl(M3U8_STREAM_PATTERN, 1, response.getBody(), true);
+		var knownSequence = state.getMediaSequence();
+		return request.asObjectAsync(raw -> raw.getStatus() == 200 ? readLastNewSegment(raw, knownSequence) : null)
+				.thenCompose(playlistResponse -> {
+					if(playlistResponse.getStatus() != 304){
+						if(!playlistResponse.isSuccess()){
+							if(playlistResponse.getStatus() == 403){
+								log.trace("Got 403 response for m3u8 playlist, is streamer region locked? (#783)");
+								return CompletableFuture.completedFuture(false);
+							}
+							
+							log.error("Failed to get streamer M3U8 playlist");
+							return CompletableFuture.completedFuture(false);
+						}
+						
+						var segment = playlistResponse.getBody();
+						if(Objects.nonNull(segment) && segment.sequence() < knownSequence){
+							log.debug("M3U8 playlist media sequence went backwards, resetting its state");
+							state.reset();
+						}
+						
+						state.setEtag(getHeader(playlistResponse, "ETag"));
+						state.setLastModified(getHeader(playlistResponse, "Last-Modified"));
+						
+						if(Objects.nonNull(segment)){
+							var segmentUrl = extractUrl(M3U8_CHUNK_PATTERN, 1, segment.uri());
+							if(segmentUrl.isPresent()){
+								state.setMediaSequence(segment.sequence());
+								state.setLastChunkUrl(segmentUrl.get());
+							}
+						}
+					}
+					
+					var chunkUrl = state.getLastChunkUrl();
+					if(Objects.isNull(chunkUrl)){
+						log.error("Failed to get streamer M3U8 chunk from playlist");
+						return CompletableFuture.completedFuture(false);
+					}
+					
+					return unirest.head(chunkUrl.toString()).asBytesAsync().thenApply(HttpResponse::isSuccess);
+				})
+				.exceptionally(e -> {
+					log.error("Failed to get streamer M3U8", e);
+					return false;
+				});
 	}
 	
-	public boolean openM3u8LastChunk(@NotNull URL m3u8Url){
-		try{
-			var playlistResponse = unirest.get(m3u8Url.toString()).asString();
+	/**
+	 * Read a media playlist line by line, keeping only the last segment with a sequence number greater than the known one.
+	 * If every segment of the playlist is older than the known one, the media sequence went backwards (the playlist restarted), and its last segment is considered new.
+	 *
+	 * @param response      The playlist response.
+	 * @param knownSequence Sequence number of the last segment already known.
+	 *
+	 * @return The last new segment, null if there's none.
+	 */
+	@Nullable
+	private M3u8Segment readLastNewSegment(@NotNull RawResponse response, long knownSequence){
+		try(var reader = new BufferedReader(new InputStreamReader(response.getContent(), UTF_8))){
+			var sequence = 0L;
+			M3u8Segment lastSegment = null;
+			M3u8Segment lastNewSegment = null;
 			
-			if(!playlistResponse.isSuccess()){
-				if(playlistResponse.getStatus() == 403){
-					log.trace("Got 403 response for m3u8 playlist, is streamer region locked? (#783)");
-					return false;
+			String line;
+			while(Objects.nonNull(line = reader.readLine())){
+				if(line.startsWith(M3U8_MEDIA_SEQUENCE_TAG)){
+					sequence = Long.parseLong(line.substring(M3U8_MEDIA_SEQUENCE_TAG.length()).trim());
+				}
+				else if(!line.isBlank() && !line.startsWith("#")){
+					lastSegment = new M3u8Segment(sequence, line);
+					if(sequence > knownSequence){
+						lastNewSegment = lastSegment;
+					}
+					sequence++;
 				}
-				
-				log.error("Failed to get streamer M3U8 playlist");
-				return false;
 			}
 			
-			var chunkUrl = extractUrl(M3U8_CHUNK_PATTERN, 1, playlistResponse.getBody(), true);
-			if(chunkUrl.isEmpty()){
-				log.error("Failed to get streamer M3U8 chunk from playlist");
-				return false;
+			if(Objects.isNull(lastNewSegment) && Objects.nonNull(lastSegment) && lastSegment.sequence() < knownSequence){
+				return lastSegment;
 			}
-			
-			var chunkRequest = unirest.head(chunkUrl.get().toString()).asBytes();
-			return chunkRequest.isSuccess();
+			return lastNewSegment;
 		}
-		catch(UnirestException e){
-			log.error("Failed to get streamer M3U8", e);
-			return false;
+		catch(IOException | NumberFormatException e){
+			log.error("Failed to read streamer M3U8 playlist", e);
+			return null;
 		}
 	}
+	
+	@Nullable
+	private static String getHeader(@NotNull HttpResponse<?> response, @NotNull String name){
+		var value = response.getHeaders().getFirst(name);
+		return Objects.isNull(value) || value.isBlank() ? null : value;
+	}
+	
+	@NotNull
+	private static <T> T await(@NotNull CompletableFuture<T> future){
+		try{
+			return future.join();
+		}
+		catch(CompletionException e){
+			if(e.getCause() instanceof RuntimeException runtimeException){
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+	
+	private record M3u8Segment(long sequence, @NotNull String uri){
+	}
 }
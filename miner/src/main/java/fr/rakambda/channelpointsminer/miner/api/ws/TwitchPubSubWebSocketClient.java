@@ -33,13 +33,16 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import static org.java_websocket.framing.CloseFrame.GOING_AWAY;
 
 @Log4j2
 public class TwitchPubSubWebSocketClient extends WebSocketClient{
-	@Getter
-	private final Set<Topics> topics;
+	private final Map<Topic, Topics> listenedTopics;
+	private final AtomicInteger topicCount;
 	private final Collection<ITwitchPubSubWebSocketListener> listeners;
 	@Getter
 	private final String uuid;
@@ -47,6 +50,11 @@ public class TwitchPubSubWebSocketClient extends WebSocketClient{
 	
 	@Getter
 	private Instant lastPong;
+	/**
+	 * Whether the connection was closed because Twitch rejected its credentials.
+	 */
+	@Getter
+	private volatile boolean invalidCredentials;
 	
 	public TwitchPubSubWebSocketClient(@NotNull URI uri){
 		super(uri);
@@ -54,7 +62,8 @@ public class TwitchPubSubWebSocketClient extends WebSocketClient{
 		listenRequests = new HashMap<>();
 		
 		setConnectionLostTimeout(0);
-		topics = new HashSet<>();
+		listenedTopics = new ConcurrentHashMap<>();
+		topicCount = new AtomicInteger(0);
 		listeners = new ConcurrentLinkedQueue<>();
 		lastPong = Instant.EPOCH;
 	}
@@ -80,6 +89,7 @@ public class TwitchPubSubWebSocketClient extends WebSocketClient{
 						log.error("Received error response {}", responseMessage);
 						if(Objects.equals("ERR_BADAUTH", responseMessage.getError())){
 							Optional.ofNullable(listenRequests.get(responseMessage.getNonce())).ifPresent(req -> log.error("Request that had bad auth: {}", req));
+							invalidCredentials = true;
 							close(GOING_AWAY, "Invalid credentials");
 						}
 					}
@@ -138,35 +148,44 @@ public class TwitchPubSubWebSocketClient extends WebSocketClient{
 	}
 	
 	public boolean isTopicListened(@NotNull Topic topic){
-		return topics.stream()
-				.flatMap(t -> t.getTopics().stream())
-				.anyMatch(t -> Objects.equals(t, topic));
+		return listenedTopics.containsKey(topic);
 	}
 	
 	public void listenTopic(@NotNull Topics topics){
 		try(var ignored = LogContext.empty().withSocketId(uuid)){
-			if(this.topics.add(topics)){
-				var request = new ListenTopicRequest(topics);
-				listenRequests.put(request.getNonce(), request);
-				send(request);
+			var newTopics = topics.getTopics().stream()
+					.filter(topic -> Objects.isNull(listenedTopics.putIfAbsent(topic, new Topics(topic, topics.getAuthToken()))))
+					.collect(Collectors.toSet());
+			if(newTopics.isEmpty()){
+				return;
 			}
+			topicCount.addAndGet(newTopics.size());
+				
+			var request = new ListenTopicRequest(newTopics.size() == topics.getTopicCount() ? topics : new Topics(newTopics, topics.getAuthToken()));
+			listenRequests.put(request.getNonce(), request);
+			send(request);
 		}
 	}
 	
 	public void removeTopic(@NotNull Topic topic){
 		try(var ignored = LogContext.empty().withSocketId(uuid)){
-			var topics = this.topics.stream()
-					.filter(t -> t.getTopics().contains(topic))
-					.toList();
-			
-			topics.forEach(t -> {
-				send(new UnlistenTopicRequest(t));
-				this.topics.remove(t);
-			});
+			var topics = listenedTopics.remove(topic);
+			if(Objects.nonNull(topics)){
+				topicCount.decrementAndGet();
+				send(new UnlistenTopicRequest(topics));
+			}
 		}
 	}
+			
+	/**
+	 * @return The listened topics, one per {@link Topics}.
+	 */
+	@NotNull
+	public Set<Topics> getTopics(){
+		return new HashSet<>(listenedTopics.values());
+	}
 	
 	public int getTopicCount(){
-		return topics.stream().mapToInt(Topics::getTopicCount).sum();
+		return topicCount.get();
 	}
 }
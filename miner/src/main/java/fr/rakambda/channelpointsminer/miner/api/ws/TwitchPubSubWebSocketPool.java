@@ -4,16 +4,36 @@ import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topic;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topics;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.response.ITwitchWebSocketResponse;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.response.MessageResponse;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.response.ResponseResponse;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TwitchWebSocketClientFactory;
+import fr.rakambda.channelpointsminer.miner.util.SleepHandler;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.java_websocket.client.WebSocketClient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static org.java_websocket.framing.CloseFrame.ABNORMAL_CLOSE;
 import static org.java_websocket.framing.CloseFrame.NORMAL;
@@ -21,17 +41,46 @@ import static org.java_websocket.framing.CloseFrame.NORMAL;
 @Log4j2
 public class TwitchPubSubWebSocketPool implements AutoCloseable, ITwitchPubSubWebSocketListener{
 	private static final int SOCKET_TIMEOUT_MINUTES = 5;
+	private static final Duration RECONNECT_INITIAL_DELAY = Duration.ofMillis(500);
+	private static final Duration RECONNECT_MAX_DELAY = Duration.ofSeconds(30);
 	
 	private final Collection<TwitchPubSubWebSocketClient> clients;
 	private final Collection<ITwitchPubSubMessageListener> listeners;
 	private final Queue<Topics> pendingTopics;
+	private final Queue<Topics> rejectedTopics;
+	private final Map<Topic, TwitchPubSubWebSocketClient> topicClients;
 	private final int maxTopicPerClient;
+	private final Executor executor;
+	private final AtomicBoolean reconnecting;
+	private final AtomicInteger reconnectAttempts;
+	private final AtomicReference<Instant> disconnectedSince;
+	
+	/**
+	 * Duration between the last connection closing abnormally and its topics being listened again.
+	 */
+	@Getter
+	@Nullable
+	private volatile Duration lastReconnectionGap;
 	
 	public TwitchPubSubWebSocketPool(int maxTopicPerClient){
+		this(maxTopicPerClient, runnable -> Thread.ofVirtual().name("pubsub-reconnect").start(runnable));
+	}
+	
+	/**
+	 * @param maxTopicPerClient Maximum number of topics listened by a connection.
+	 * @param executor          Executor used to reconnect in the background and open connections in parallel.
+	 */
+	public TwitchPubSubWebSocketPool(int maxTopicPerClient, @NotNull Executor executor){
 		this.maxTopicPerClient = maxTopicPerClient;
+		this.executor = executor;
 		clients = new ConcurrentLinkedQueue<>();
 		listeners = new ConcurrentLinkedQueue<>();
 		pendingTopics = new ConcurrentLinkedQueue<>();
+		rejectedTopics = new ConcurrentLinkedQueue<>();
+		topicClients = new ConcurrentHashMap<>();
+		reconnecting = new AtomicBoolean(false);
+		reconnectAttempts = new AtomicInteger(0);
+		disconnectedSince = new AtomicReference<>();
 	}
 	
 	public void ping(){
@@ -50,9 +99,10 @@ public class TwitchPubSubWebSocketPool implements AutoCloseable, ITwitchPubSubWe
 	}
 	
 	public void removeTopic(@NotNull Topic topic){
-		clients.stream()
-				.filter(client -> client.isTopicListened(topic))
-				.forEach(client -> client.removeTopic(topic));
+		var client = topicClients.remove(topic);
+		if(Objects.nonNull(client) && client.isTopicListened(topic)){
+			client.removeTopic(topic);
+		}
 	}
 	
 	public void addListener(@NotNull ITwitchPubSubMessageListener listener){
@@ -61,51 +111,281 @@ public class TwitchPubSubWebSocketPool implements AutoCloseable, ITwitchPubSubWe
 	
 	@Override
 	public void onWebSocketMessage(@NotNull ITwitchWebSocketResponse response){
+		if(response instanceof ResponseResponse r && !r.hasError()){
+			reconnectAttempts.set(0);
+			return;
+		}
+		
 		if(response instanceof MessageResponse m){
-			var topic = m.getData().getTopic();
-			var message = m.getData().getMessage();
-			listeners.forEach(l -> l.onTwitchMessage(topic, message));
+			var data = m.getData();
+			var topic = data.getTopic();
+			if(!data.isDecodable()){
+				log.trace("Ignoring message of type {} on topic {}", data.getMessageType(), topic);
+				return;
+			}
+			
+			var message = data.getMessage();
+			if(Objects.nonNull(message)){
+				listeners.forEach(l -> l.onTwitchMessage(topic, message));
+			}
 		}
 	}
 	
 	@Override
 	public void onWebSocketClosed(@NotNull TwitchPubSubWebSocketClient client, int code, @Nullable String reason, boolean remote){
 		clients.remove(client);
+		var topics = client.getTopics();
+		topics.stream()
+				.flatMap(t -> t.getTopics().stream())
+				.forEach(topic -> topicClients.remove(topic, client));
+		if(client.isInvalidCredentials()){
+			log.warn("PubSub connection closed because of invalid credentials, its topics will be listened again once the auth token changes");
+			rejectedTopics.addAll(topics);
+			return;
+		}
 		if(code != NORMAL){
-			pendingTopics.addAll(client.getTopics());
+			pendingTopics.addAll(topics);
+			disconnectedSince.compareAndSet(null, TimeFactory.now());
+			if(reconnecting.compareAndSet(false, true)){
+				executor.execute(this::reconnect);
+			}
+		}
+	}
+	
+	/**
+	 * Listen again to the topics of connections that closed abnormally, until it succeeds.
+	 * The first attempt is immediate, following ones wait with a jittered exponential backoff until Twitch successfully answers a request,
+	 * so that connections closed again by Twitch aren't reopened in a loop.
+	 */
+	private void reconnect(){
+		do{
+			do{
+				if(!awaitReconnectDelay()){
+					reconnecting.set(false);
+					return;
+				}
+			}
+			while(!reconnectPendingTopics());
+			
+			var since = disconnectedSince.getAndSet(null);
+			if(Objects.nonNull(since)){
+				lastReconnectionGap = Duration.between(since, TimeFactory.now());
+				log.info("PubSub topics listened again after a gap of {}", lastReconnectionGap);
+			}
+			reconnecting.set(false);
+		}
+		while(!pendingTopics.isEmpty() && reconnecting.compareAndSet(false, true));
+	}
+	
+	/**
+	 * Wait before the next reconnection attempt if the previous ones weren't followed by a successful response.
+	 *
+	 * @return False if interrupted while waiting.
+	 */
+	private boolean awaitReconnectDelay(){
+		var attempt = reconnectAttempts.getAndIncrement();
+		if(attempt <= 0){
+			return true;
+		}
+		
+		var delay = getReconnectDelay(attempt - 1);
+		log.warn("PubSub topics weren't listened successfully since the last reconnection, retrying in {}", delay);
+		try{
+			SleepHandler.sleep(delay.toMillis());
+			return true;
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	private boolean reconnectPendingTopics(){
+		var topics = pollPendingTopics();
+		if(topics.isEmpty()){
+			return true;
+		}
+		
+		try{
+			openClients(getMissingClientCount(topics));
+		}
+		catch(RuntimeException e){
+			log.error("Failed to open PubSub connections", e);
+			pendingTopics.addAll(topics);
+			return false;
+		}
+		
+		try{
+			listenTopics(topics);
+			return true;
+		}
+		catch(RuntimeException e){
+			log.error("Failed to reconnect PubSub topics", e);
+			return false;
 		}
 	}
 	
+	private int getMissingClientCount(@NotNull Collection<Topics> topics){
+		var topicCount = topics.stream()
+				.flatMap(t -> t.getTopics().stream())
+				.distinct()
+				.filter(topic -> !isTopicListened(topic))
+				.count();
+		var room = clients.stream()
+				.filter(client -> !client.isClosing() && !client.isClosed())
+				.mapToLong(client -> Math.max(0, maxTopicPerClient - client.getTopicCount()))
+				.sum();
+		return (int) Math.ceilDiv(Math.max(0, topicCount - room), maxTopicPerClient);
+	}
+	
+	private void openClients(int count){
+		if(count <= 1){
+			return;
+		}
+		
+		log.debug("Opening {} pubsub websocket clients", count);
+		var futures = IntStream.range(0, count)
+				.mapToObj(i -> CompletableFuture.runAsync(this::createNewClient, executor))
+				.toArray(CompletableFuture[]::new);
+		CompletableFuture.allOf(futures).join();
+	}
+	
+	@VisibleForTesting
+	@NotNull
+	static Duration getReconnectDelay(int attempt){
+		var delay = Math.min(RECONNECT_INITIAL_DELAY.toMillis() << Math.min(attempt, 16), RECONNECT_MAX_DELAY.toMillis());
+		return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+	}
+	
+	/**
+	 * Queue topics to be listened on the next call to {@link #listenPendingTopics()}, so that they get sent with others in the same requests.
+	 *
+	 * @param topics The topics to listen to.
+	 */
+	public void queueTopic(@NotNull Topics topics){
+		pendingTopics.add(topics);
+	}
+	
 	public void listenPendingTopics(){
+		var topics = pollPendingTopics();
+		if(topics.isEmpty()){
+			return;
+		}
+		
 		try{
-			Topics topic;
-			while(Objects.nonNull(topic = pendingTopics.poll())){
-				listenTopic(topic);
-			}
+			listenTopics(topics);
 		}
 		catch(RuntimeException e){
-			log.error("Failed to join pending chats", e);
+			log.error("Failed to listen pending topics", e);
 		}
 	}
 	
+	@NotNull
+	private List<Topics> pollPendingTopics(){
+		var topics = new ArrayList<Topics>();
+		Topics topic;
+		while(Objects.nonNull(topic = pendingTopics.poll())){
+			topics.add(topic);
+		}
+		return topics;
+	}
+	
 	public void listenTopic(@NotNull Topics topics){
-		var isListened = topics.getTopics().stream().anyMatch(this::isTopicListened);
-		if(isListened){
-			log.debug("Topic {} is already being listened", topics);
-			return;
+		listenTopics(List.of(topics));
+	}
+	
+	/**
+	 * Listen to topics that aren't listened yet. Topics sharing the same auth token are sent together in as few requests as possible,
+	 * each client receiving at most as many topics as it has room for.
+	 * Calls are serialized as they may come from the miner and the reconnection at the same time, and the room left on clients must not change while filling them.
+	 * Topics rejected for invalid credentials are listened again once topics come with another auth token.
+	 *
+	 * @param topics The topics to listen to.
+	 */
+	public synchronized void listenTopics(@NotNull Collection<Topics> topics){
+		var allTopics = new ArrayList<>(topics);
+		allTopics.addAll(takeRejectedTopics(topics));
+		
+		var topicsByAuthToken = new LinkedHashMap<String, Set<Topic>>();
+		for(var t : allTopics){
+			for(var topic : t.getTopics()){
+				if(isTopicListened(topic)){
+					log.debug("Topic {} is already being listened", topic);
+					continue;
+				}
+				topicsByAuthToken.computeIfAbsent(t.getAuthToken(), key -> new LinkedHashSet<>()).add(topic);
+			}
 		}
 		
+		var groups = new ArrayList<>(topicsByAuthToken.entrySet());
+		for(var i = 0; i < groups.size(); i++){
+			try{
+				listenTopics(new ArrayList<>(groups.get(i).getValue()), groups.get(i).getKey());
+			}
+			catch(RuntimeException e){
+				groups.subList(i + 1, groups.size()).forEach(group -> pendingTopics.add(new Topics(group.getValue(), group.getKey())));
+				throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Take the topics rejected for invalid credentials back if the given topics use another auth token, which is assumed to replace the rejected one.
+	 *
+	 * @param topics The topics about to be listened.
+	 *
+	 * @return The rejected topics, using the new auth token.
+	 */
+	@NotNull
+	private List<Topics> takeRejectedTopics(@NotNull Collection<Topics> topics){
+		if(rejectedTopics.isEmpty()){
+			return List.of();
+		}
+		
+		var authToken = topics.stream()
+				.map(Topics::getAuthToken)
+				.filter(Objects::nonNull)
+				.reduce((first, second) -> second);
+		if(authToken.isEmpty()){
+			return List.of();
+		}
+		
+		var retried = new ArrayList<Topics>();
+		rejectedTopics.removeIf(rejected -> {
+			if(Objects.equals(rejected.getAuthToken(), authToken.get())){
+				return false;
+			}
+			retried.add(new Topics(rejected.getTopics(), authToken.get()));
+			return true;
+		});
+		if(!retried.isEmpty()){
+			log.info("Auth token changed, listening again to topics rejected for invalid credentials");
+		}
+		return retried;
+	}
+	
+	private void listenTopics(@NotNull List<Topic> topics, @Nullable String authToken){
+		var sent = 0;
 		try{
-			getAvailableClient().listenTopic(topics);
+			while(sent < topics.size()){
+				var client = getAvailableClient();
+				var batchSize = Math.min(topics.size() - sent, Math.max(1, maxTopicPerClient - client.getTopicCount()));
+				var batch = Set.copyOf(topics.subList(sent, sent + batchSize));
+				
+				client.listenTopic(new Topics(batch, authToken));
+				batch.forEach(topic -> topicClients.put(topic, client));
+				sent += batchSize;
+			}
 		}
 		catch(RuntimeException e){
-			pendingTopics.add(topics);
+			pendingTopics.add(new Topics(Set.copyOf(topics.subList(sent, topics.size())), authToken));
 			throw e;
 		}
 	}
 	
 	private boolean isTopicListened(@NotNull Topic topic){
-		return clients.stream().anyMatch(client -> client.isTopicListened(topic));
+		var client = topicClients.get(topic);
+		return Objects.nonNull(client) && client.isTopicListened(topic);
 	}
 	
 	@NotNull
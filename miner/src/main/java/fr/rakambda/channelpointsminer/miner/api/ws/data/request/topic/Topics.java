@@ -23,7 +23,11 @@ public class Topics{
 	}
 	
 	public Topics(@NotNull Topic topic, @Nullable String authToken){
-		topics = Set.of(topic);
+		this(Set.of(topic), authToken);
+	}
+	
+	public Topics(@NotNull Set<Topic> topics, @Nullable String authToken){
+		this.topics = topics;
 		this.authToken = authToken;
 	}
 	
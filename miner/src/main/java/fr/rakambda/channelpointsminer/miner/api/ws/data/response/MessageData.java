@@ -2,18 +2,36 @@ package fr.rakambda.channelpointsminer.miner.api.ws.data.response;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.message.IPubSubMessage;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topic;
 import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * Data of a PubSub message.
+ * <p>
+ * The message itself is only decoded when first requested. Its type is read beforehand without decoding the whole message, so that messages nobody cares about can be
+ * dropped cheaply.
+ */
+@Log4j2
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,14 +39,90 @@ import java.io.IOException;
 @EqualsAndHashCode
 @ToString
 public class MessageData{
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final Set<String> KNOWN_TYPES = Arrays.stream(IPubSubMessage.class.getAnnotation(JsonSubTypes.class).value())
+			.map(JsonSubTypes.Type::name)
+			.collect(Collectors.toUnmodifiableSet());
+	
 	@JsonProperty("topic")
 	private Topic topic;
 	
 	@JsonIgnore
-	private IPubSubMessage message;
+	@Getter(AccessLevel.NONE)
+	private volatile IPubSubMessage message;
+	@JsonIgnore
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private volatile String rawMessage;
+	@JsonIgnore
+	@EqualsAndHashCode.Exclude
+	private String messageType;
 	
 	@JsonProperty("message")
-	public void setMessage(String value) throws IOException{
-		message = JacksonUtils.read(value, new TypeReference<>(){});
+	public void setMessage(String value){
+		rawMessage = value;
+		messageType = peekType(value);
+	}
+	
+	/**
+	 * @return The decoded message, null if its type is unknown or it couldn't be decoded.
+	 */
+	@Nullable
+	public IPubSubMessage getMessage(){
+		if(Objects.isNull(message) && Objects.nonNull(rawMessage)){
+			synchronized(this){
+				var value = rawMessage;
+				if(Objects.nonNull(value)){
+					message = decode(value);
+					rawMessage = null;
+				}
+			}
+		}
+		return message;
+	}
+	
+	/**
+	 * @return True if the message is already decoded or is of a type that can be decoded.
+	 */
+	public boolean isDecodable(){
+		return Objects.nonNull(message) || Objects.nonNull(messageType) && KNOWN_TYPES.contains(messageType);
+	}
+	
+	@Nullable
+	private IPubSubMessage decode(@NotNull String value){
+		try{
+			return JacksonUtils.read(value, new TypeReference<>(){});
+		}
+		catch(IOException e){
+			log.error("Failed to decode PubSub message {}", value, e);
+			return null;
+		}
+	}
+	
+	@Nullable
+	private static String peekType(@Nullable String value){
+		if(Objects.isNull(value)){
+			return null;
+		}
+		
+		try(var parser = JSON_FACTORY.createParser(value)){
+			if(parser.nextToken() != JsonToken.START_OBJECT){
+				return null;
+			}
+			while(parser.nextToken() == JsonToken.FIELD_NAME){
+				var name = parser.currentName();
+				parser.nextToken();
+				if(Objects.equals("type", name)){
+					return parser.getValueAsString();
+				}
+				parser.skipChildren();
+			}
+			return null;
+		}
+		catch(IOException e){
+			log.debug("Failed to read PubSub message type", e);
+			return null;
+		}
 	}
 }
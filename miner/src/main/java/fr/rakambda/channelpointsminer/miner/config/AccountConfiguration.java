@@ -11,6 +11,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -75,4 +78,42 @@ public class AccountConfiguration{
 	@JsonPropertyDescription("Method used to get twitch version. Default: WEBPAGE")
 	@Builder.Default
 	private VersionProvider versionProvider = VersionProvider.WEBPAGE;
+	@JsonProperty("streamerRefresh")
+	@NotNull
+	@JsonPropertyDescription("Streamer information refresh settings.")
+	@Builder.Default
+	private StreamerRefreshConfiguration streamerRefresh = new StreamerRefreshConfiguration();
+	@JsonProperty("gqlBatch")
+	@NotNull
+	@JsonPropertyDescription("GQL requests batching settings.")
+	@Builder.Default
+	private GQLBatchConfiguration gqlBatch = new GQLBatchConfiguration();
+	@JsonProperty("gqlCircuitBreaker")
+	@NotNull
+	@JsonPropertyDescription("GQL requests circuit breaker settings.")
+	@Builder.Default
+	private GQLCircuitBreakerConfiguration gqlCircuitBreaker = new GQLCircuitBreakerConfiguration();
+	@JsonProperty("gqlMetricsReportEvery")
+	@JsonPropertyDescription("Log GQL latency, size and error metrics of each operation every x minutes. Zero or negative value disables it. Default: 15")
+	@Builder.Default
+	private int gqlMetricsReportEvery = 15;
+	@JsonProperty("streamerIdCache")
+	@NotNull
+	@JsonPropertyDescription("Streamer ids cache settings.")
+	@Builder.Default
+	private StreamerIdCacheConfiguration streamerIdCache = new StreamerIdCacheConfiguration();
+	@JsonProperty("versionCacheDirectory")
+	@Nullable
+	@JsonPropertyDescription("Path to a directory where the last resolved twitch version is kept between restarts, in a client-version-<versionProvider>.json file. Accounts using the same directory and provider share it. If null, the version is only kept in memory. Default: .")
+	@Builder.Default
+	private Path versionCacheDirectory = Paths.get(".");
+	@JsonProperty("threadMode")
+	@NotNull
+	@JsonPropertyDescription("Kind of threads used to run scheduled tasks, PubSub handlers and events. Default: PLATFORM")
+	@Builder.Default
+	private ThreadMode threadMode = ThreadMode.PLATFORM;
+	@JsonProperty("httpVersion")
+	@Nullable
+	@JsonPropertyDescription("HTTP version used for GQL and Twitch requests. HTTP_2 sends concurrent requests over a single connection. If null, the HTTP client's default is used. Default: null")
+	private HttpVersion httpVersion;
 }
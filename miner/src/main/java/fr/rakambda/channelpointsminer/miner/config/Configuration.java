@@ -22,4 +22,9 @@ public class Configuration{
 	@JsonProperty(value = "accounts", required = true)
 	@JsonPropertyDescription("List of account configurations.")
 	private List<AccountConfiguration> accounts;
+	@NotNull
+	@JsonProperty("runtime")
+	@JsonPropertyDescription("Runtime settings, shared by all accounts.")
+	@Builder.Default
+	private RuntimeConfiguration runtime = new RuntimeConfiguration();
 }
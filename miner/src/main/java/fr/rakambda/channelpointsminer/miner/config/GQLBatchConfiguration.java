@@ -0,0 +1,27 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@JsonClassDescription("Settings of GQL requests batching.")
+public class GQLBatchConfiguration{
+	@JsonProperty("window")
+	@JsonPropertyDescription("Time in milliseconds to wait for other GQL operations to send them in the same request. Zero or negative value disables batching. Default: 25")
+	@Builder.Default
+	private int window = 25;
+	@JsonProperty("maxSize")
+	@JsonPropertyDescription("Maximum number of GQL operations sent in the same request. Default: 20")
+	@Builder.Default
+	private int maxSize = 20;
+}
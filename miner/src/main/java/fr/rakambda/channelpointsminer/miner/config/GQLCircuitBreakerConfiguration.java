@@ -0,0 +1,39 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@JsonClassDescription("Settings to slow down GQL requests when Twitch fails to answer them.")
+public class GQLCircuitBreakerConfiguration{
+	@JsonProperty("enabled")
+	@JsonPropertyDescription("If set to false, GQL requests are always sent. Default: true")
+	@Builder.Default
+	private boolean enabled = true;
+	@JsonProperty("failureThreshold")
+	@JsonPropertyDescription("Number of consecutive failures of a GQL operation before it is suspended. Default: 5")
+	@Builder.Default
+	private int failureThreshold = 5;
+	@JsonProperty("openDuration")
+	@JsonPropertyDescription("Time in seconds a GQL operation is first suspended for. It is doubled each time the operation keeps failing after a suspension. Default: 30")
+	@Builder.Default
+	private int openDuration = 30;
+	@JsonProperty("maxOpenDuration")
+	@JsonPropertyDescription("Maximum time in seconds a GQL operation can be suspended for. Default: 600")
+	@Builder.Default
+	private int maxOpenDuration = 600;
+	@JsonProperty("maxConcurrency")
+	@JsonPropertyDescription("Maximum number of requests in flight for the same GQL operation. The limit is halved on each failure and slowly raised back on success. Default: 16")
+	@Builder.Default
+	private int maxConcurrency = 16;
+}
@@ -0,0 +1,9 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+
+@JsonClassDescription("HTTP protocol version used to talk to Twitch's APIs.")
+public enum HttpVersion{
+	HTTP_1_1,
+	HTTP_2
+}
@@ -0,0 +1,35 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@JsonClassDescription("Settings of the threads and pools used to run the accounts.")
+public class RuntimeConfiguration{
+	@JsonProperty("shared")
+	@JsonPropertyDescription("If true, all accounts share the same scheduler, worker pool and database pools instead of having their own. Default: false")
+	@Builder.Default
+	private boolean shared = false;
+	@JsonProperty("schedulerThreads")
+	@JsonPropertyDescription("Number of threads of the shared scheduler. Default: 4")
+	@Builder.Default
+	private int schedulerThreads = 4;
+	@JsonProperty("workerThreads")
+	@JsonPropertyDescription("Number of threads of the shared worker pool running PubSub handlers and events. Default: 16")
+	@Builder.Default
+	private int workerThreads = 16;
+	@JsonProperty("accountConcurrency")
+	@JsonPropertyDescription("Maximum number of tasks of a single account running at the same time in the shared worker pool. Default: 4")
+	@Builder.Default
+	private int accountConcurrency = 4;
+}
@@ -0,0 +1,31 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@JsonClassDescription("Settings of the cache of streamer ids.")
+public class StreamerIdCacheConfiguration{
+	@Nullable
+	@JsonProperty("file")
+	@JsonPropertyDescription(value = "Path to a file where resolved streamer ids are kept between restarts. If null, ids are only kept in memory. Default: ./streamer-ids.json")
+	@Builder.Default
+	private Path file = Paths.get("streamer-ids.json");
+	@JsonProperty("unknownRetryDelay")
+	@JsonPropertyDescription("Delay in minutes before trying again to resolve a streamer that wasn't found. Default: 60")
+	@Builder.Default
+	private int unknownRetryDelay = 60;
+}
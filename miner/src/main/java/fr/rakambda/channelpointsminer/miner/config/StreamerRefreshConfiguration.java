@@ -0,0 +1,27 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@JsonClassDescription("Settings of the periodic streamer information refresh.")
+public class StreamerRefreshConfiguration{
+	@JsonProperty("concurrency")
+	@JsonPropertyDescription("Maximum number of streamers being refreshed at the same time. Default: 4")
+	@Builder.Default
+	private int concurrency = 4;
+	@JsonProperty("refreshPerSecond")
+	@JsonPropertyDescription("Maximum number of streamer refreshes started per second. Default: 4")
+	@Builder.Default
+	private double refreshPerSecond = 4;
+}
@@ -0,0 +1,9 @@
+package fr.rakambda.channelpointsminer.miner.config;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+
+@JsonClassDescription("Kind of threads used to run the miner's tasks.")
+public enum ThreadMode{
+	PLATFORM,
+	VIRTUAL
+}
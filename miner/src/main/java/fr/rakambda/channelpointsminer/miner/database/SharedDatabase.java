@@ -0,0 +1,86 @@
+package fr.rakambda.channelpointsminer.miner.database;
+
+import fr.rakambda.channelpointsminer.miner.database.model.prediction.OutcomeStatistic;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.subtype.Event;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Database used by several accounts. Closing it does nothing, the underlying database is closed by its owner once every account is done.
+ */
+@RequiredArgsConstructor
+public class SharedDatabase implements IDatabase{
+	@NotNull
+	private final IDatabase delegate;
+	
+	@Override
+	public void initDatabase() throws SQLException{
+		delegate.initDatabase();
+	}
+	
+	@Override
+	public void close(){
+	}
+	
+	@Override
+	public void createChannel(@NotNull String channelId, @NotNull String username) throws SQLException{
+		delegate.createChannel(channelId, username);
+	}
+	
+	@Override
+	public void updateChannelStatusTime(@NotNull String channelId, @NotNull Instant instant) throws SQLException{
+		delegate.updateChannelStatusTime(channelId, instant);
+	}
+	
+	@NotNull
+	@Override
+	public Optional<String> getStreamerIdFromName(@NotNull String channelName) throws SQLException{
+		return delegate.getStreamerIdFromName(channelName);
+	}
+	
+	@Override
+	public void addBalance(@NotNull String channelId, int balance, @Nullable String reason, @NotNull Instant instant) throws SQLException{
+		delegate.addBalance(channelId, balance, reason, instant);
+	}
+	
+	@Override
+	public void addPrediction(@NotNull String channelId, @NotNull String eventId, @NotNull String type, @NotNull String description, @NotNull Instant instant) throws SQLException{
+		delegate.addPrediction(channelId, eventId, type, description, instant);
+	}
+	
+	@Override
+	public int addUserPrediction(@NotNull String username, @NotNull String streamerId, @NotNull String badge) throws SQLException{
+		return delegate.addUserPrediction(username, streamerId, badge);
+	}
+	
+	@Override
+	public void cancelPrediction(@NotNull Event event) throws SQLException{
+		delegate.cancelPrediction(event);
+	}
+	
+	@Override
+	public void resolvePrediction(@NotNull Event event, @NotNull String outcome, @NotNull String badge, double returnOnInvestment) throws SQLException{
+		delegate.resolvePrediction(event, outcome, badge, returnOnInvestment);
+	}
+	
+	@Override
+	public void deleteAllUserPredictions() throws SQLException{
+		delegate.deleteAllUserPredictions();
+	}
+	
+	@Override
+	public void deleteUserPredictionsForChannel(@NotNull String channelId) throws SQLException{
+		delegate.deleteUserPredictionsForChannel(channelId);
+	}
+	
+	@NotNull
+	@Override
+	public Collection<OutcomeStatistic> getOutcomeStatisticsForChannel(@NotNull String channelId, int minBetsPlacedByUser) throws SQLException{
+		return delegate.getOutcomeStatisticsForChannel(channelId, minBetsPlacedByUser);
+	}
+}
@@ -2,11 +2,13 @@ package fr.rakambda.channelpointsminer.miner.factory;
 
 import fr.rakambda.channelpointsminer.miner.api.discord.DiscordApi;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLApi;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLCircuitBreaker;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.browser.BrowserIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.http.HttpIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.http.MobileIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.http.NoIntegrityProvider;
+import fr.rakambda.channelpointsminer.miner.api.gql.version.CachedVersionProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.version.IVersionProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.version.manifest.ManifestVersionProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.version.webpage.WebpageVersionProvider;
@@ -18,7 +20,11 @@ import fr.rakambda.channelpointsminer.miner.api.passport.browser.BrowserLoginPro
 import fr.rakambda.channelpointsminer.miner.api.passport.http.HttpLoginProvider;
 import fr.rakambda.channelpointsminer.miner.api.passport.oauth.OauthLoginProvider;
 import fr.rakambda.channelpointsminer.miner.api.telegram.TelegramApi;
+import fr.rakambda.channelpointsminer.miner.api.twitch.SpadeUrlResolver;
 import fr.rakambda.channelpointsminer.miner.api.twitch.TwitchApi;
+import fr.rakambda.channelpointsminer.miner.config.GQLBatchConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.GQLCircuitBreakerConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.HttpVersion;
 import fr.rakambda.channelpointsminer.miner.config.VersionProvider;
 import fr.rakambda.channelpointsminer.miner.config.login.BrowserConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.login.HttpLoginMethod;
@@ -39,8 +45,14 @@ import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import static kong.unirest.core.HeaderNames.USER_AGENT;
 import static lombok.AccessLevel.PRIVATE;
 
@@ -55,6 +67,9 @@ public class ApiFactory{
 	private static final String X_APP_VERSION = "13.4.1";
 	
 	private static final String xDeviceId = CommonUtils.randomAlphanumeric(32);
+	private static final SpadeUrlResolver spadeUrlResolver = new SpadeUrlResolver(SpadeUrlResolver.DEFAULT_TIME_TO_LIVE);
+	private static final Duration VERSION_TIME_TO_LIVE = Duration.ofHours(1);
+	private static final Map<VersionProviderKey, IVersionProvider> versionProviders = new ConcurrentHashMap<>();
 	
 	private static UnirestInstance createUnirestInstance(@Nullable TwitchClient twitchClient){
 		var unirest = Unirest.spawnInstance();
@@ -80,10 +95,21 @@ public class ApiFactory{
 				.setDefaultHeader(X_APP_VERSION_HEADER, X_APP_VERSION);
 	}
 	
+	private static void setHttpVersion(@NotNull UnirestInstance unirest, @Nullable HttpVersion httpVersion){
+		if(Objects.isNull(httpVersion)){
+			return;
+		}
+		unirest.config().version(switch(httpVersion){
+			case HTTP_1_1 -> HttpClient.Version.HTTP_1_1;
+			case HTTP_2 -> HttpClient.Version.HTTP_2;
+		});
+	}
+	
 	@NotNull
-	public static GQLApi createGqlApi(@NotNull TwitchLogin twitchLogin, @NotNull IIntegrityProvider integrityProvider){
+	public static GQLApi createGqlApi(@NotNull TwitchLogin twitchLogin, @NotNull IIntegrityProvider integrityProvider, @NotNull GQLBatchConfiguration batchConfiguration, @NotNull GQLCircuitBreakerConfiguration circuitBreakerConfiguration, @Nullable HttpVersion httpVersion){
 		var unirest = createUnirestInstance(twitchLogin.getTwitchClient());
 		twitchLogin.getCookies().forEach(unirest.config()::addDefaultCookie);
+		setHttpVersion(unirest, httpVersion);
 		
 		if(twitchLogin.getTwitchClient() == TwitchClient.MOBILE){
 			addMobileHeaders(unirest);
@@ -92,15 +118,28 @@ public class ApiFactory{
 			unirest.config().setDefaultHeader(DEVICE_ID, xDeviceId);
 		}
 		
-		return new GQLApi(twitchLogin, unirest, integrityProvider);
+		return new GQLApi(twitchLogin, unirest, integrityProvider, batchConfiguration.getWindow(), batchConfiguration.getMaxSize(), createGqlCircuitBreaker(circuitBreakerConfiguration));
+	}
+	
+	@Nullable
+	private static GQLCircuitBreaker createGqlCircuitBreaker(@NotNull GQLCircuitBreakerConfiguration configuration){
+		if(!configuration.isEnabled()){
+			return null;
+		}
+		return new GQLCircuitBreaker(
+				configuration.getFailureThreshold(),
+				Duration.ofSeconds(configuration.getOpenDuration()),
+				Duration.ofSeconds(configuration.getMaxOpenDuration()),
+				configuration.getMaxConcurrency());
 	}
 	
 	@NotNull
-	public static TwitchApi createTwitchApi(@NotNull TwitchLogin twitchLogin){
+	public static TwitchApi createTwitchApi(@NotNull TwitchLogin twitchLogin, @Nullable HttpVersion httpVersion){
 		var unirest = createUnirestInstance(twitchLogin.getTwitchClient());
 		twitchLogin.getCookies().forEach(unirest.config()::addDefaultCookie);
+		setHttpVersion(unirest, httpVersion);
 		
-		return new TwitchApi(unirest);
+		return new TwitchApi(unirest, spadeUrlResolver);
 	}
 	
 	@NotNull
@@ -188,12 +227,33 @@ public class ApiFactory{
 		return new BrowserIntegrityProvider(configuration, eventManager);
 	}
 	
+	/**
+	 * Get the version provider of a kind. Providers are shared between accounts so that the client version is only resolved once for all of them,
+	 * and the last resolved version can be kept on disk to be available right after a restart.
+	 *
+	 * @param versionProvider The kind of provider.
+	 * @param cacheDirectory  Directory to keep the last resolved version into, null to keep it in memory only.
+	 *
+	 * @return The version provider.
+	 */
 	@NotNull
-	public static IVersionProvider createVersionProvider(@NotNull VersionProvider versionProvider){
+	public static IVersionProvider createVersionProvider(@NotNull VersionProvider versionProvider, @Nullable Path cacheDirectory){
+		var file = Optional.ofNullable(cacheDirectory)
+				.map(directory -> directory.resolve("client-version-%s.json".formatted(versionProvider.name().toLowerCase(Locale.ROOT))).toAbsolutePath().normalize())
+				.orElse(null);
+		return versionProviders.computeIfAbsent(new VersionProviderKey(versionProvider, file),
+				key -> new CachedVersionProvider(createUncachedVersionProvider(key.versionProvider()), VERSION_TIME_TO_LIVE, key.file()));
+	}
+	
+	@NotNull
+	private static IVersionProvider createUncachedVersionProvider(@NotNull VersionProvider versionProvider){
 		var unirest = createUnirestInstance(null);
 		return switch(versionProvider){
 			case WEBPAGE -> new WebpageVersionProvider(unirest);
 			case MANIFEST -> new ManifestVersionProvider(unirest);
 		};
 	}
+	
+	private record VersionProviderKey(@NotNull VersionProvider versionProvider, @Nullable Path file){
+	}
 }
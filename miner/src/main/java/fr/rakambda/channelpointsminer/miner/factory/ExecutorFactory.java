@@ -0,0 +1,46 @@
+package fr.rakambda.channelpointsminer.miner.factory;
+
+import fr.rakambda.channelpointsminer.miner.config.ThreadMode;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ExecutorFactory{
+	private static final int SCHEDULER_POOL_SIZE = 4;
+	
+	/**
+	 * Create the executor running scheduled tasks.
+	 * In {@link ThreadMode#VIRTUAL} mode, scheduled tasks are run on virtual threads so that their blocking calls do not hold a platform thread.
+	 *
+	 * @param threadMode Kind of threads to use.
+	 *
+	 * @return A scheduled executor.
+	 */
+	@NotNull
+	public static ScheduledExecutorService createScheduledExecutor(@NotNull ThreadMode threadMode){
+		return switch(threadMode){
+			case PLATFORM -> Executors.newScheduledThreadPool(SCHEDULER_POOL_SIZE);
+			case VIRTUAL -> Executors.newScheduledThreadPool(SCHEDULER_POOL_SIZE, Thread.ofVirtual().name("scheduled-", 0).factory());
+		};
+	}
+	
+	/**
+	 * Create an executor running short-lived tasks (PubSub handlers, events, ...).
+	 * In {@link ThreadMode#VIRTUAL} mode, a new virtual thread is started for each task.
+	 *
+	 * @param threadMode Kind of threads to use.
+	 *
+	 * @return An executor.
+	 */
+	@NotNull
+	public static ExecutorService createTaskExecutor(@NotNull ThreadMode threadMode){
+		return switch(threadMode){
+			case PLATFORM -> Executors.newCachedThreadPool();
+			case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+		};
+	}
+}
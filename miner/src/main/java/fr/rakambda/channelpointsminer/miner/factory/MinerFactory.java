@@ -3,8 +3,10 @@ package fr.rakambda.channelpointsminer.miner.factory;
 import com.zaxxer.hikari.pool.HikariPool;
 import fr.rakambda.channelpointsminer.miner.api.ws.TwitchPubSubWebSocketPool;
 import fr.rakambda.channelpointsminer.miner.config.AccountConfiguration;
+import fr.rakambda.channelpointsminer.miner.database.IDatabase;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.miner.Miner;
+import fr.rakambda.channelpointsminer.miner.miner.SharedRuntime;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.NotNull;
@@ -12,23 +14,54 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.Objects;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class MinerFactory{
 	@NotNull
 	public static Miner create(@NotNull AccountConfiguration config, @NotNull IEventManager eventManager){
+		try{
+			var database = DatabaseFactory.createDatabase(config.getAnalytics().getDatabase());
+			return create(config, eventManager, ExecutorFactory.createScheduledExecutor(config.getThreadMode()), ExecutorFactory.createTaskExecutor(config.getThreadMode()), database);
+		}
+		catch(SQLException | HikariPool.PoolInitializationException e){
+			throw new IllegalStateException("Failed to set up database", e);
+		}
+	}
+	
+	/**
+	 * Create a miner using the resources of a shared runtime.
+	 *
+	 * @param config       The account configuration.
+	 * @param eventManager The event manager of the account.
+	 * @param runtime      The runtime shared between accounts.
+	 *
+	 * @return The miner.
+	 */
+	@NotNull
+	public static Miner create(@NotNull AccountConfiguration config, @NotNull IEventManager eventManager, @NotNull SharedRuntime runtime){
+		try{
+			var database = runtime.getDatabase(config.getAnalytics().getDatabase());
+			return create(config, eventManager, runtime.createScheduledExecutor(), runtime.getTaskExecutor(config.getUsername()), database);
+		}
+		catch(SQLException | HikariPool.PoolInitializationException e){
+			throw new IllegalStateException("Failed to set up database", e);
+		}
+	}
+	
+	@NotNull
+	private static Miner create(@NotNull AccountConfiguration config, @NotNull IEventManager eventManager, @NotNull ScheduledExecutorService scheduledExecutor, @NotNull ExecutorService handlerExecutor, @NotNull IDatabase database){
 		try{
 			var dbConfig = config.getAnalytics().getDatabase();
-			var database = DatabaseFactory.createDatabase(dbConfig);
 			
 			var miner = new Miner(
 					config,
 					ApiFactory.createLoginProvider(config.getUsername(), config.getLoginMethod(), eventManager),
 					new StreamerSettingsFactory(config),
 					new TwitchPubSubWebSocketPool(50),
-					Executors.newScheduledThreadPool(4),
-					Executors.newCachedThreadPool(),
+					scheduledExecutor,
+					handlerExecutor,
 					database,
 					eventManager);
 			
@@ -1,22 +1,28 @@
 package fr.rakambda.channelpointsminer.miner.factory;
 
+import fr.rakambda.channelpointsminer.miner.config.StreamerRefreshConfiguration;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
+import fr.rakambda.channelpointsminer.miner.runnable.ReportGQLMetrics;
 import fr.rakambda.channelpointsminer.miner.runnable.SendM3u8MinutesWatched;
 import fr.rakambda.channelpointsminer.miner.runnable.SendSpadeMinutesWatched;
 import fr.rakambda.channelpointsminer.miner.runnable.StreamerConfigurationReload;
 import fr.rakambda.channelpointsminer.miner.runnable.SyncInventory;
 import fr.rakambda.channelpointsminer.miner.runnable.UpdateStreamInfo;
 import fr.rakambda.channelpointsminer.miner.runnable.WebSocketPing;
+import fr.rakambda.channelpointsminer.miner.util.RateLimiter;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import java.util.concurrent.Executor;
 import static lombok.AccessLevel.PRIVATE;
 
 @NoArgsConstructor(access = PRIVATE)
 public class MinerRunnableFactory{
 	@NotNull
-	public static UpdateStreamInfo createUpdateStreamInfo(@NotNull IMiner miner){
-		return new UpdateStreamInfo(miner);
+	public static UpdateStreamInfo createUpdateStreamInfo(@NotNull IMiner miner, @NotNull StreamerRefreshConfiguration configuration){
+		var rateLimiter = new RateLimiter(configuration.getRefreshPerSecond(), configuration.getConcurrency());
+		Executor executor = runnable -> Thread.ofVirtual().name("stream-info-update").start(runnable);
+		return new UpdateStreamInfo(miner, executor, rateLimiter, configuration.getConcurrency());
 	}
 	
 	@NotNull
@@ -33,6 +39,11 @@ public class MinerRunnableFactory{
 		return new WebSocketPing(miner);
 	}
 	
+	@NotNull
+	public static ReportGQLMetrics createReportGQLMetrics(@NotNull IMiner miner){
+		return new ReportGQLMetrics(miner);
+	}
+	
 	@NotNull
 	public static SyncInventory createSyncInventory(@NotNull IMiner miner, @NotNull IEventManager eventManager){
 		return new SyncInventory(miner, eventManager);
@@ -0,0 +1,93 @@
+package fr.rakambda.channelpointsminer.miner.handler;
+
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.IPubSubMessage;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topic;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Routes PubSub messages to the handlers handling their type.
+ * <p>
+ * The types handled by a {@link PubSubMessageHandlerAdapter} are resolved when it is added, from the {@code on*} methods it overrides. Any other handler receives every message.
+ */
+@Log4j2
+public class PubSubMessageRouter{
+	private final Collection<Route> routes = new ConcurrentLinkedQueue<>();
+	private final Map<Class<?>, List<IPubSubMessageHandler>> handlersByType = new ConcurrentHashMap<>();
+	
+	public void addHandler(@NotNull IPubSubMessageHandler handler){
+		var handledTypes = getHandledTypes(handler);
+		log.debug("Handler {} handles messages {}", handler.getClass().getSimpleName(), handledTypes.stream().map(Class::getSimpleName).toList());
+		routes.add(new Route(handler, handledTypes));
+		handlersByType.clear();
+	}
+	
+	/**
+	 * @param messageType The type of the message.
+	 *
+	 * @return The handlers handling this type of message.
+	 */
+	@NotNull
+	@Unmodifiable
+	public List<IPubSubMessageHandler> getHandlers(@NotNull Class<? extends IPubSubMessage> messageType){
+		return handlersByType.computeIfAbsent(messageType, type -> routes.stream()
+				.filter(route -> route.handles(type))
+				.map(Route::handler)
+				.toList());
+	}
+	
+	@NotNull
+	@Unmodifiable
+	public List<IPubSubMessageHandler> getHandlers(){
+		return routes.stream().map(Route::handler).toList();
+	}
+	
+	@NotNull
+	private static Set<Class<?>> getHandledTypes(@NotNull IPubSubMessageHandler handler){
+		if(!(handler instanceof PubSubMessageHandlerAdapter) || isOverridden(handler.getClass(), "handle", Topic.class, IPubSubMessage.class)){
+			return Set.of(IPubSubMessage.class);
+		}
+		
+		return Arrays.stream(PubSubMessageHandlerAdapter.class.getDeclaredMethods())
+				.filter(PubSubMessageRouter::isMessageMethod)
+				.filter(method -> isOverridden(handler.getClass(), method.getName(), method.getParameterTypes()))
+				.map(method -> method.getParameterTypes()[1])
+				.collect(Collectors.toUnmodifiableSet());
+	}
+	
+	private static boolean isMessageMethod(@NotNull Method method){
+		var parameters = method.getParameterTypes();
+		return Modifier.isPublic(method.getModifiers())
+				&& method.getName().startsWith("on")
+				&& parameters.length == 2
+				&& parameters[0] == Topic.class
+				&& IPubSubMessage.class.isAssignableFrom(parameters[1]);
+	}
+	
+	private static boolean isOverridden(@NotNull Class<?> clazz, @NotNull String name, @NotNull Class<?>... parameters){
+		try{
+			return !Objects.equals(clazz.getMethod(name, parameters).getDeclaringClass(), PubSubMessageHandlerAdapter.class);
+		}
+		catch(NoSuchMethodException e){
+			return false;
+		}
+	}
+	
+	private record Route(@NotNull IPubSubMessageHandler handler, @NotNull Set<Class<?>> handledTypes){
+		private boolean handles(@NotNull Class<?> messageType){
+			return handledTypes.stream().anyMatch(type -> type.isAssignableFrom(messageType));
+		}
+	}
+}
@@ -57,6 +57,9 @@ public class StreamStartEndHandler extends PubSubMessageHandlerAdapter{
 				return;
 			}
 			
+			//Status is known to have changed, get back to the regular refresh rate
+			streamer.resetUpdateDelay();
+			
 			//Wait that the API updates
 			miner.schedule(() -> miner.updateStreamerInfos(streamer), 15, SECONDS);
 		}
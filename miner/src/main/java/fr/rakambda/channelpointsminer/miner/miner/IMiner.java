@@ -7,6 +7,8 @@ import fr.rakambda.channelpointsminer.miner.api.twitch.TwitchApi;
 import fr.rakambda.channelpointsminer.miner.api.ws.TwitchPubSubWebSocketPool;
 import fr.rakambda.channelpointsminer.miner.database.IDatabase;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIdCache;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import java.util.Collection;
@@ -50,6 +52,18 @@ public interface IMiner{
 	@NotNull
 	Collection<Streamer> getStreamers();
 	
+	/**
+	 * @return Views of the mined streamers, kept up to date with their state.
+	 */
+	@NotNull
+	StreamerIndex getStreamerIndex();
+	
+	/**
+	 * @return Cache of streamer ids by username.
+	 */
+	@NotNull
+	StreamerIdCache getStreamerIdCache();
+	
 	@Nullable
 	TwitchApi getTwitchApi();
 	
@@ -24,10 +24,13 @@ import fr.rakambda.channelpointsminer.miner.factory.StreamerSettingsFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TwitchChatFactory;
 import fr.rakambda.channelpointsminer.miner.handler.IPubSubMessageHandler;
+import fr.rakambda.channelpointsminer.miner.handler.PubSubMessageRouter;
 import fr.rakambda.channelpointsminer.miner.log.LogContext;
 import fr.rakambda.channelpointsminer.miner.runnable.SyncInventory;
 import fr.rakambda.channelpointsminer.miner.runnable.UpdateStreamInfo;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIdCache;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIndex;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -36,16 +39,17 @@ import org.apache.logging.log4j.ThreadContext;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.annotations.VisibleForTesting;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.COMMUNITY_MOMENTS_CHANNEL_V1;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.COMMUNITY_POINTS_USER_V1;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.ONSITE_NOTIFICATIONS;
@@ -54,32 +58,35 @@ import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Top
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.RAID;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.USER_DROP_EVENTS;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.VIDEO_PLAYBACK_BY_ID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @Log4j2
 public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListener{
+	private static final long TOPICS_BATCH_DELAY_MS = 500;
+	
 	private final AccountConfiguration accountConfiguration;
 	private final ILoginProvider passportApi;
 	
 	private final Map<String, Streamer> streamers;
 	@Getter
+	private final StreamerIndex streamerIndex;
+	@Getter
 	private final TwitchPubSubWebSocketPool pubSubWebSocketPool;
 	private final ScheduledExecutorService scheduledExecutor;
 	private final ExecutorService handlerExecutor;
 	@Getter
 	private final IDatabase database;
 	private final StreamerSettingsFactory streamerSettingsFactory;
-	@Getter(value = AccessLevel.PUBLIC, onMethod_ = {
-			@TestOnly,
-			@VisibleForTesting
-	})
-	private final Collection<IPubSubMessageHandler> pubSubMessageHandlers;
+	private final PubSubMessageRouter pubSubMessageRouter;
 	private final IEventManager eventManager;
 	@Getter
 	private final MinerData minerData;
+	private final AtomicBoolean topicsListenScheduled;
 	
 	private UpdateStreamInfo updateStreamInfo;
+	private StreamerIdCache streamerIdCache;
 	@Setter
 	@Getter(value = AccessLevel.PUBLIC, onMethod_ = {@TestOnly})
 	private SyncInventory syncInventory;
@@ -111,8 +118,10 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 		this.eventManager = eventManager;
 		
 		streamers = new ConcurrentHashMap<>();
-		pubSubMessageHandlers = new ConcurrentLinkedQueue<>();
+		streamerIndex = new StreamerIndex();
+		pubSubMessageRouter = new PubSubMessageRouter();
 		minerData = new MinerData();
+		topicsListenScheduled = new AtomicBoolean(false);
 	}
 	
 	/**
@@ -132,6 +141,10 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 			scheduledExecutor.scheduleWithFixedDelay(MinerRunnableFactory.createSendM3u8MinutesWatched(this), 0, 15, SECONDS);
 			scheduledExecutor.scheduleAtFixedRate(MinerRunnableFactory.createWebSocketPing(this), 25, 25, SECONDS);
 			scheduledExecutor.scheduleAtFixedRate(syncInventory, 1, 15, MINUTES);
+			if(accountConfiguration.getGqlMetricsReportEvery() > 0){
+				var reportEvery = accountConfiguration.getGqlMetricsReportEvery();
+				scheduledExecutor.scheduleAtFixedRate(MinerRunnableFactory.createReportGQLMetrics(this), reportEvery, reportEvery, MINUTES);
+			}
 			
 			var streamerConfigurationReload = MinerRunnableFactory.createStreamerConfigurationReload(this, eventManager, streamerSettingsFactory, accountConfiguration.isLoadFollows());
 			if(accountConfiguration.getReloadEvery() > 0){
@@ -164,10 +177,10 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 				throw new IllegalStateException("Failed to log in, expected account %s but was %s".formatted(accountConfiguration.getUsername(), twitchLogin.getUsername()));
 			}
 			
-			var versionProvider = ApiFactory.createVersionProvider(accountConfiguration.getVersionProvider());
+			var versionProvider = ApiFactory.createVersionProvider(accountConfiguration.getVersionProvider(), accountConfiguration.getVersionCacheDirectory());
 			var integrityProvider = ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, accountConfiguration.getLoginMethod(), eventManager);
-			gqlApi = ApiFactory.createGqlApi(twitchLogin, integrityProvider);
-			twitchApi = ApiFactory.createTwitchApi(twitchLogin);
+			gqlApi = ApiFactory.createGqlApi(twitchLogin, integrityProvider, accountConfiguration.getGqlBatch(), accountConfiguration.getGqlCircuitBreaker(), accountConfiguration.getHttpVersion());
+			twitchApi = ApiFactory.createTwitchApi(twitchLogin, accountConfiguration.getHttpVersion());
 			chatClient = TwitchChatFactory.createChat(this, accountConfiguration.getChatMode(), listenMessages);
 			chatClient.addChatMessageListener(new TwitchChatEventProducer(eventManager));
 		}
@@ -182,13 +195,31 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 	@NotNull
 	private UpdateStreamInfo getUpdateStreamInfo(){
 		if(Objects.isNull(updateStreamInfo)){
-			updateStreamInfo = MinerRunnableFactory.createUpdateStreamInfo(this);
+			updateStreamInfo = MinerRunnableFactory.createUpdateStreamInfo(this, accountConfiguration.getStreamerRefresh());
 		}
 		return updateStreamInfo;
 	}
 	
+	@Override
+	@NotNull
+	public synchronized StreamerIdCache getStreamerIdCache(){
+		if(Objects.isNull(streamerIdCache)){
+			var cacheConfiguration = accountConfiguration.getStreamerIdCache();
+			streamerIdCache = new StreamerIdCache(cacheConfiguration.getFile(), Duration.ofMinutes(cacheConfiguration.getUnknownRetryDelay()));
+		}
+		return streamerIdCache;
+	}
+	
 	private void listenTopic(@NotNull TopicName name, @NotNull String target){
-		pubSubWebSocketPool.listenTopic(Topics.buildFromName(name, target, twitchLogin.getAccessToken()));
+		pubSubWebSocketPool.queueTopic(Topics.buildFromName(name, target, twitchLogin.getAccessToken()));
+		if(topicsListenScheduled.compareAndSet(false, true)){
+			schedule(this::listenPendingTopics, TOPICS_BATCH_DELAY_MS, MILLISECONDS);
+		}
+	}
+	
+	private void listenPendingTopics(){
+		topicsListenScheduled.set(false);
+		pubSubWebSocketPool.listenPendingTopics();
 	}
 	
 	@Override
@@ -208,6 +239,7 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 			updateStreamerInfos(streamer);
 			
 			streamers.put(streamer.getId(), streamer);
+			streamerIndex.add(streamer);
 			eventManager.onEvent(new StreamerAddedEvent(streamer, TimeFactory.now()));
 			updateStreamer(streamer);
 		}
@@ -269,6 +301,7 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 			chatClient.leave(streamer.getUsername());
 			
 			eventManager.onEvent(new StreamerRemovedEvent(streamer, TimeFactory.now()));
+			streamerIndex.remove(streamer);
 			return streamers.remove(streamer.getId()) != null;
 		}
 	}
@@ -323,10 +356,15 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 	
 	@Override
 	public void onTwitchMessage(@NotNull Topic topic, @NotNull IPubSubMessage message){
+		var handlers = pubSubMessageRouter.getHandlers(message.getClass());
+		if(handlers.isEmpty()){
+			return;
+		}
+		
 		var values = ThreadContext.getImmutableContext();
 		var messages = ThreadContext.getImmutableStack().asList();
 		
-		pubSubMessageHandlers.forEach(handler -> handlerExecutor.submit(() -> {
+		handlers.forEach(handler -> handlerExecutor.submit(() -> {
 			try(var ignored = LogContext.restore(values, messages)){
 				handler.handle(topic, message);
 			}
@@ -334,7 +372,7 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 	}
 	
 	public void addPubSubHandler(@NotNull IPubSubMessageHandler handler){
-		pubSubMessageHandlers.add(handler);
+		pubSubMessageRouter.addHandler(handler);
 	}
 	
 	@Override
@@ -348,6 +386,13 @@ public class Miner implements AutoCloseable, IMiner, ITwitchPubSubMessageListene
 		eventManager.close();
 	}
 	
+	@NotNull
+	@VisibleForTesting
+	@TestOnly
+	public Collection<IPubSubMessageHandler> getPubSubMessageHandlers(){
+		return pubSubMessageRouter.getHandlers();
+	}
+	
 	@NotNull
 	@VisibleForTesting
 	@TestOnly
@@ -0,0 +1,99 @@
+package fr.rakambda.channelpointsminer.miner.miner;
+
+import com.zaxxer.hikari.pool.HikariPool;
+import fr.rakambda.channelpointsminer.miner.config.DatabaseConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.RuntimeConfiguration;
+import fr.rakambda.channelpointsminer.miner.database.IDatabase;
+import fr.rakambda.channelpointsminer.miner.database.SharedDatabase;
+import fr.rakambda.channelpointsminer.miner.factory.DatabaseFactory;
+import fr.rakambda.channelpointsminer.miner.util.concurrent.ConcurrencyLimitedExecutorService;
+import fr.rakambda.channelpointsminer.miner.util.concurrent.SharedScheduledExecutorService;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Resources shared by all the accounts running in the same JVM: a scheduler, a bounded worker pool and the database pools.
+ * Each account gets its own views of the executors, which can be shut down independently, and can't use more than its share of the worker pool.
+ * The miner and the event manager of an account use the same view of the worker pool, so that the limit applies to the account as a whole.
+ */
+@Log4j2
+public class SharedRuntime implements AutoCloseable{
+	private final ScheduledExecutorService scheduler;
+	private final ExecutorService workers;
+	private final int accountConcurrency;
+	private final Map<String, ExecutorService> taskExecutors;
+	private final Map<String, IDatabase> databases;
+	
+	public SharedRuntime(@NotNull RuntimeConfiguration configuration){
+		scheduler = Executors.newScheduledThreadPool(Math.max(1, configuration.getSchedulerThreads()));
+		workers = Executors.newFixedThreadPool(Math.max(1, configuration.getWorkerThreads()));
+		accountConcurrency = configuration.getAccountConcurrency();
+		taskExecutors = new HashMap<>();
+		databases = new HashMap<>();
+	}
+	
+	@NotNull
+	public ScheduledExecutorService createScheduledExecutor(){
+		return new SharedScheduledExecutorService(scheduler);
+	}
+	
+	/**
+	 * Get the view of the worker pool of an account. The same view is returned for an account so that all its tasks count towards the same concurrency limit.
+	 *
+	 * @param account The name of the account.
+	 *
+	 * @return The executor.
+	 */
+	@NotNull
+	public synchronized ExecutorService getTaskExecutor(@NotNull String account){
+		return taskExecutors.computeIfAbsent(account, key -> new ConcurrencyLimitedExecutorService(workers, accountConcurrency));
+	}
+	
+	/**
+	 * Get the database for a configuration. Accounts using the same JDBC URL share the same database, and thus the same connection pool.
+	 *
+	 * @param configuration The database configuration.
+	 *
+	 * @return The database.
+	 *
+	 * @throws SQLException If the database failed to be initialized.
+	 */
+	@NotNull
+	public synchronized IDatabase getDatabase(@Nullable DatabaseConfiguration configuration) throws SQLException, HikariPool.PoolInitializationException{
+		if(Objects.isNull(configuration)){
+			return DatabaseFactory.createDatabase(null);
+		}
+		
+		var database = databases.get(configuration.getJdbcUrl());
+		if(Objects.isNull(database)){
+			database = DatabaseFactory.createDatabase(configuration);
+			databases.put(configuration.getJdbcUrl(), database);
+		}
+		return new SharedDatabase(database);
+	}
+	
+	@Override
+	public synchronized void close(){
+		scheduler.shutdown();
+		workers.shutdown();
+		for(var database : databases.values()){
+			try{
+				database.close();
+			}
+			catch(IOException e){
+				log.error("Failed to close database", e);
+			}
+		}
+		databases.clear();
+		taskExecutors.clear();
+	}
+}
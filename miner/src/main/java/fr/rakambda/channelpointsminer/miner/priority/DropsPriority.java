@@ -54,6 +54,11 @@ public class DropsPriority extends IStreamerPriority{
 		return true;
 	}
 	
+	@Override
+	public boolean isTimeDependent(){
+		return true;
+	}
+	
 	private boolean hasCampaigns(@NotNull IMiner miner, @NotNull Streamer streamer){
 		return Optional.ofNullable(streamer.getDropsHighlightServiceAvailableDrops())
 				.map(DropsHighlightServiceAvailableDropsData::getChannel)
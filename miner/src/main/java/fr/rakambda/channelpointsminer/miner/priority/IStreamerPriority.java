@@ -43,4 +43,11 @@ public abstract class IStreamerPriority{
 	public boolean isDropsRelated(){
 		return false;
 	}
+	
+	/**
+	 * @return true if the score may change over time without any change of the streamer, in which case it won't be cached.
+	 */
+	public boolean isTimeDependent(){
+		return false;
+	}
 }
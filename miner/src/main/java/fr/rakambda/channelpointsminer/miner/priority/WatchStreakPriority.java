@@ -23,4 +23,9 @@ public class WatchStreakPriority extends IStreamerPriority{
 	public int getScore(@NotNull IMiner miner, @NotNull Streamer streamer){
 		return streamer.mayClaimStreak() ? getScore() : 0;
 	}
+
+	@Override
+	public boolean isTimeDependent(){
+		return true;
+	}
 }
@@ -0,0 +1,40 @@
+package fr.rakambda.channelpointsminer.miner.runnable;
+
+import fr.rakambda.channelpointsminer.miner.log.LogContext;
+import fr.rakambda.channelpointsminer.miner.miner.IMiner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+
+@Log4j2
+@RequiredArgsConstructor
+public class ReportGQLMetrics implements Runnable{
+	@NotNull
+	private final IMiner miner;
+	
+	@Override
+	public void run(){
+		try(var ignored = LogContext.with(miner)){
+			var snapshot = miner.getGqlApi().getMetrics().getSnapshot();
+			if(snapshot.isEmpty()){
+				return;
+			}
+			
+			log.info("GQL metrics since start:");
+			snapshot.forEach((operationName, metrics) -> log.info("{}: {} requests, {} errors {}, latency avg {}ms p50 {}ms p95 {}ms max {}ms, payload avg {}B, statuses {}",
+					operationName,
+					metrics.requests(),
+					metrics.errorCount(),
+					metrics.errors(),
+					metrics.averageLatency(),
+					metrics.latencyPercentile(0.5),
+					metrics.latencyPercentile(0.95),
+					metrics.maxLatency(),
+					metrics.averagePayloadSize(),
+					metrics.statuses()));
+		}
+		catch(Exception e){
+			log.error("Failed to report GQL metrics", e);
+		}
+	}
+}
@@ -1,15 +1,26 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
+import fr.rakambda.channelpointsminer.miner.api.twitch.M3u8PlaylistState;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.priority.IStreamerPriority;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Log4j2
 public class SendM3u8MinutesWatched extends SendMinutesWatched{
+	private static final Predicate<IStreamerPriority> PRIORITY_FILTER = IStreamerPriority::isDropsRelated;
+	
+	private final Map<String, M3u8PlaylistState> playlists = new ConcurrentHashMap<>();
+	
 	public SendM3u8MinutesWatched(@NotNull IMiner miner){
 		super(miner);
 	}
@@ -19,14 +30,40 @@ public class SendM3u8MinutesWatched extends SendMinutesWatched{
 		return "M3U8";
 	}
 	
+	@NotNull
+	@Override
+	protected Collection<Streamer> getCandidates(){
+		return miner.getStreamerIndex().getLiveWithM3u8Url();
+	}
+	
 	@Override
 	protected boolean checkStreamer(@NotNull Streamer streamer){
 		return Objects.nonNull(streamer.getM3u8Url());
 	}
 	
+	@Override
+	@NotNull
+	protected Collection<Streamer> sendAll(@NotNull List<Streamer> streamers){
+		var sent = super.sendAll(streamers);
+		
+		var currentUrls = streamers.stream()
+				.map(Streamer::getM3u8Url)
+				.filter(Objects::nonNull)
+				.map(URL::toString)
+				.collect(Collectors.toSet());
+		playlists.keySet().retainAll(currentUrls);
+		return sent;
+	}
+	
 	@Override
 	protected boolean send(@NotNull Streamer streamer){
-		var result = miner.getTwitchApi().openM3u8LastChunk(streamer.getM3u8Url());
+		var m3u8Url = streamer.getM3u8Url();
+		if(Objects.isNull(m3u8Url)){
+			return false;
+		}
+		
+		var state = playlists.computeIfAbsent(m3u8Url.toString(), key -> new M3u8PlaylistState());
+		var result = miner.getTwitchApi().openM3u8LastChunk(m3u8Url, state);
 		if(!result){
 			log.warn("Got an error from m3u8 for streamer, disabling it until next stream data refresh");
 			streamer.setM3u8Url(null);
@@ -42,7 +79,7 @@ public class SendM3u8MinutesWatched extends SendMinutesWatched{
 	@Override
 	@NotNull
 	protected Predicate<IStreamerPriority> getPriorityFilter(){
-		return IStreamerPriority::isDropsRelated;
+		return PRIORITY_FILTER;
 	}
 	
 	@Override
@@ -11,9 +11,12 @@ import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
@@ -37,29 +40,24 @@ public abstract class SendMinutesWatched implements Runnable{
 	
 	protected abstract int getWatchLimit();
 	
+	/**
+	 * @return Streamers that may be watched.
+	 */
+	@NotNull
+	protected Collection<Streamer> getCandidates(){
+		return miner.getStreamerIndex().getLive();
+	}
+	
 	@Override
 	public void run(){
 		log.debug("Starting sending {} minutes watched", getType());
 		
 		try(var ignored = LogContext.with(miner)){
-			var toSendMinutesWatched = miner.getStreamers().stream()
-					.filter(Streamer::isStreaming)
-					.filter(streamer -> !streamer.isChatBanned())
-					.filter(this::checkStreamer)
-					.map(streamer -> Map.entry(streamer, streamer.getScore(miner, getPriorityFilter())))
-					.sorted(this::compare)
-					.limit(getWatchLimit())
-					.map(Map.Entry::getKey)
-					.toList();
+			var toSendMinutesWatched = selectStreamers();
 			
-			for(var streamer : toSendMinutesWatched){
-				try(var ignored2 = LogContext.empty().withStreamer(streamer)){
-					log.debug("Sending {} minutes watched", getType());
-					if(send(streamer) && shouldUpdateWatchedMinutes()){
-						updateWatchedMinutes(streamer);
-					}
-					CommonUtils.randomSleep(100, 50);
-				}
+			var sent = sendAll(toSendMinutesWatched);
+			if(shouldUpdateWatchedMinutes()){
+				sent.forEach(this::updateWatchedMinutes);
 			}
 			
 			removeLastSend(toSendMinutesWatched);
@@ -71,6 +69,59 @@ public abstract class SendMinutesWatched implements Runnable{
 		}
 	}
 	
+	/**
+	 * Send minutes watched for the given streamers.
+	 *
+	 * @param streamers Streamers to send minutes for.
+	 *
+	 * @return Streamers for which the minutes were sent successfully.
+	 */
+	@NotNull
+	protected Collection<Streamer> sendAll(@NotNull List<Streamer> streamers){
+		var sent = new ArrayList<Streamer>();
+		for(var streamer : streamers){
+			try(var ignored = LogContext.empty().withStreamer(streamer)){
+				log.debug("Sending {} minutes watched", getType());
+				if(send(streamer)){
+					sent.add(streamer);
+				}
+				CommonUtils.randomSleep(100, 50);
+			}
+		}
+		return sent;
+	}
+	
+	/**
+	 * Select the streamers with the best scores, keeping only {@link #getWatchLimit()} of them in a heap instead of sorting every candidate.
+	 *
+	 * @return Streamers to watch, best first.
+	 */
+	@NotNull
+	private List<Streamer> selectStreamers(){
+		var limit = getWatchLimit();
+		if(limit <= 0){
+			return List.of();
+		}
+		
+		var priorityFilter = getPriorityFilter();
+		var best = new PriorityQueue<Map.Entry<Streamer, Integer>>(limit + 1, (e1, e2) -> compare(e2, e1));
+		for(var streamer : getCandidates()){
+			if(!streamer.isStreaming() || streamer.isChatBanned() || !checkStreamer(streamer)){
+				continue;
+			}
+			
+			best.add(Map.entry(streamer, streamer.getScore(miner, priorityFilter)));
+			if(best.size() > limit){
+				best.poll();
+			}
+		}
+		
+		return best.stream()
+				.sorted(this::compare)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+	
 	private int compare(@NotNull Map.Entry<Streamer, Integer> e1, @NotNull Map.Entry<Streamer, Integer> e2){
 		var compareScore = Integer.compare(e2.getValue(), e1.getValue());
 		if(compareScore != 0){
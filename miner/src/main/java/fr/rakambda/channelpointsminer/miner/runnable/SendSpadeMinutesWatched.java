@@ -1,18 +1,33 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.Game;
 import fr.rakambda.channelpointsminer.miner.api.twitch.data.MinuteWatchedEvent;
 import fr.rakambda.channelpointsminer.miner.api.twitch.data.MinuteWatchedProperties;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.priority.IStreamerPriority;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Log4j2
 public class SendSpadeMinutesWatched extends SendMinutesWatched{
+	private static final Predicate<IStreamerPriority> PRIORITY_FILTER = Predicate.not(IStreamerPriority::isDropsRelated);
+	
+	private final Map<String, SerializedEvent> serializedEvents = new ConcurrentHashMap<>();
+	
 	public SendSpadeMinutesWatched(@NotNull IMiner miner){
 		super(miner);
 	}
@@ -22,6 +37,12 @@ public class SendSpadeMinutesWatched extends SendMinutesWatched{
 		return "Spade";
 	}
 	
+	@NotNull
+	@Override
+	protected Collection<Streamer> getCandidates(){
+		return miner.getStreamerIndex().getLiveWithSpadeUrl();
+	}
+	
 	@Override
 	protected boolean checkStreamer(@NotNull Streamer streamer){
 		return Objects.nonNull(streamer.getSpadeUrl());
@@ -29,25 +50,99 @@ public class SendSpadeMinutesWatched extends SendMinutesWatched{
 	
 	@Override
 	protected boolean send(@NotNull Streamer streamer){
+		var spadeUrl = streamer.getSpadeUrl();
+		if(Objects.isNull(spadeUrl)){
+			return false;
+		}
+		return !sendGroup(spadeUrl, List.of(streamer)).isEmpty();
+	}
+	
+	/**
+	 * Send minutes of all streamers sharing the same spade url in a single request.
+	 */
+	@Override
+	@NotNull
+	protected Collection<Streamer> sendAll(@NotNull List<Streamer> streamers){
+		var groups = streamers.stream()
+				.filter(streamer -> Objects.nonNull(streamer.getSpadeUrl()))
+				.collect(Collectors.groupingBy(streamer -> streamer.getSpadeUrl().toString(), LinkedHashMap::new, Collectors.toList()));
+		
+		var sent = new ArrayList<Streamer>();
+		for(var group : groups.values()){
+			var spadeUrl = group.getFirst().getSpadeUrl();
+			if(Objects.nonNull(spadeUrl)){
+				sent.addAll(sendGroup(spadeUrl, group));
+			}
+		}
+		
+		var currentIds = streamers.stream().map(Streamer::getId).collect(Collectors.toSet());
+		serializedEvents.keySet().retainAll(currentIds);
+		return sent;
+	}
+	
+	@NotNull
+	private Collection<Streamer> sendGroup(@NotNull URL spadeUrl, @NotNull List<Streamer> streamers){
+		var events = new ArrayList<String>();
+		var included = new ArrayList<Streamer>();
+		for(var streamer : streamers){
+			getSerializedEvent(streamer).ifPresent(event -> {
+				events.add(event);
+				included.add(streamer);
+			});
+		}
+		
+		if(events.isEmpty()){
+			return List.of();
+		}
+		
+		log.debug("Sending {} minutes watched for {} streamers", getType(), events.size());
+		if(!miner.getTwitchApi().sendSerializedPlayerEvents(spadeUrl, events)){
+			log.warn("Got an error from spade, disabling it for {} streamers until next stream data refresh", included.size());
+			included.forEach(streamer -> streamer.setSpadeUrl(null));
+			return List.of();
+		}
+		return included;
+	}
+	
+	/**
+	 * Get the serialized event of a streamer. The serialized form is kept as long as the properties of the event don't change.
+	 *
+	 * @param streamer The streamer.
+	 *
+	 * @return The JSON representation of the event, empty if it cannot be built.
+	 */
+	@NotNull
+	private Optional<String> getSerializedEvent(@NotNull Streamer streamer){
 		var streamId = streamer.getStreamId();
 		if(streamId.isEmpty()){
-			return false;
+			return Optional.empty();
 		}
 		
-		var request = MinuteWatchedEvent.builder()
-				.properties(MinuteWatchedProperties.builder()
-						.channelId(streamer.getId())
-						.channel(streamer.getUsername())
-						.broadcastId(streamId.get())
-						.player("site")
-						.userId(miner.getTwitchLogin().getUserIdAsInt(miner.getGqlApi()))
-						.gameId(streamer.getGame().map(Game::getId).orElse(null))
-						.game(streamer.getGame().map(Game::getName).orElse(null))
-						.live(true)
-						.build())
+		var properties = MinuteWatchedProperties.builder()
+				.channelId(streamer.getId())
+				.channel(streamer.getUsername())
+				.broadcastId(streamId.get())
+				.player("site")
+				.userId(miner.getTwitchLogin().getUserIdAsInt(miner.getGqlApi()))
+				.gameId(streamer.getGame().map(Game::getId).orElse(null))
+				.game(streamer.getGame().map(Game::getName).orElse(null))
+				.live(true)
 				.build();
 		
-		return miner.getTwitchApi().sendPlayerEvents(streamer.getSpadeUrl(), request);
+		var cached = serializedEvents.get(streamer.getId());
+		if(Objects.nonNull(cached) && cached.properties().equals(properties)){
+			return Optional.of(cached.json());
+		}
+		
+		try{
+			var json = JacksonUtils.writeAsString(MinuteWatchedEvent.builder().properties(properties).build());
+			serializedEvents.put(streamer.getId(), new SerializedEvent(properties, json));
+			return Optional.of(json);
+		}
+		catch(JsonProcessingException e){
+			log.error("Failed to serialize minute watched", e);
+			return Optional.empty();
+		}
 	}
 	
 	@Override
@@ -58,11 +153,14 @@ public class SendSpadeMinutesWatched extends SendMinutesWatched{
 	@Override
 	@NotNull
 	protected Predicate<IStreamerPriority> getPriorityFilter(){
-		return Predicate.not(IStreamerPriority::isDropsRelated);
+		return PRIORITY_FILTER;
 	}
 	
 	@Override
 	protected int getWatchLimit(){
 		return 2;
 	}
+	
+	private record SerializedEvent(@NotNull MinuteWatchedProperties properties, @NotNull String json){
+	}
 }
@@ -1,7 +1,6 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
-import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.reportmenuitem.ReportMenuItemData;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.User;
 import fr.rakambda.channelpointsminer.miner.event.impl.StreamerUnknownEvent;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
@@ -15,19 +14,31 @@ import fr.rakambda.channelpointsminer.miner.streamer.StreamerSettings;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Log4j2
 @RequiredArgsConstructor
 public class StreamerConfigurationReload implements Runnable {
+    private static final Duration FULL_FOLLOWS_RELOAD_DELAY = Duration.ofHours(1);
+
     @NotNull
     private final IMiner miner;
     @NotNull
@@ -36,21 +47,33 @@ public class StreamerConfigurationReload implements Runnable {
     private final StreamerSettingsFactory streamerSettingsFactory;
     private final boolean loadFollows;
 
+    @NotNull
+    private List<User> knownFollows = List.of();
+    @Nullable
+    private Instant lastFullFollowsLoad;
+
     @Override
     public void run() {
         try (var ignored = LogContext.with(miner)) {
             log.debug("Updating streamer list");
-            var streamers = getAllStreamers();
-            removeStreamers(streamers);
-            updateStreamers(streamers);
-            addStreamers(streamers);
+            var added = new HashSet<String>();
+            try {
+                var streamers = getAllStreamers(added);
+                removeStreamers(streamers);
+                updateStreamers(streamers, added);
+                addStreamers(streamers, added);
+            }
+            finally {
+                // Ids of configured streamers are only resolved when they are added or updated
+                miner.getStreamerIdCache().flush();
+            }
         }
     }
 
     @NotNull
-    private Map<String, StreamerResult> getAllStreamers() {
+    private Map<String, StreamerResult> getAllStreamers(@NotNull Set<String> added) {
         var streamers = new HashMap<String, StreamerResult>();
-        streamers.putAll(getStreamersFromFollows(streamers.keySet()));
+        streamers.putAll(getStreamersFromFollows(streamers.keySet(), added));
         streamers.putAll(getStreamersFromConfiguration(streamers.keySet()));
         return streamers;
     }
@@ -74,8 +97,9 @@ public class StreamerConfigurationReload implements Runnable {
         return streamerResult.getStreamerSupplier().apply(settings);
     }
 
-    private void updateStreamers(@NotNull Map<String, StreamerResult> newStreamers) {
+    private void updateStreamers(@NotNull Map<String, StreamerResult> newStreamers, @NotNull Set<String> added) {
         miner.getStreamers().stream()
+                .filter(oldStreamer -> !added.contains(oldStreamer.getUsername().toLowerCase(Locale.ROOT)))
                 .map(oldStreamer -> newStreamers.entrySet().stream()
                         .filter(entry -> Objects.equals(entry.getKey(), oldStreamer.getUsername().toLowerCase(Locale.ROOT)))
                         .findAny()
@@ -99,38 +123,60 @@ public class StreamerConfigurationReload implements Runnable {
                 });
     }
 
-    private void addStreamers(@NotNull Map<String, StreamerResult> newStreamers) {
+    /**
+     * Add the streamers that aren't mined yet.
+     *
+     * @param newStreamers Streamers to add.
+     * @param added        Names of the streamers already added during this reload, updated with the ones added by this call.
+     */
+    private void addStreamers(@NotNull Map<String, StreamerResult> newStreamers, @NotNull Set<String> added) {
         var currentMinerNames = miner.getStreamers().stream()
                 .map(Streamer::getUsername)
                 .map(String::toLowerCase)
                 .toList();
         newStreamers.entrySet().stream()
-                .filter(entry -> !currentMinerNames.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .map(result -> {
+                .filter(entry -> !currentMinerNames.contains(entry.getKey()) && !added.contains(entry.getKey()))
+                .forEach(entry -> {
+                    var result = entry.getValue();
                     var settings = result.getStreamerSettingsSupplier().get();
                     if (!settings.isEnabled()) {
-                        return Optional.<Streamer>empty();
+                        return;
                     }
-                    return result.getStreamerSupplier().apply(settings);
-                })
-                .flatMap(Optional::stream)
-                .forEach(miner::addStreamer);
+                    result.getStreamerSupplier().apply(settings).ifPresent(streamer -> {
+                        added.add(entry.getKey());
+                        miner.addStreamer(streamer);
+                    });
+                });
     }
 
+    /**
+     * Get the streamers from the follows. New follows are added to the miner as soon as their page is received, so that they don't wait for the whole list to be loaded.
+     *
+     * @param excludedNames Names of the streamers to ignore.
+     * @param added         Names of the streamers added during this reload, updated with the ones added while loading the follows.
+     *
+     * @return The streamers of all the follows.
+     */
     @NotNull
-    private Map<String, StreamerResult> getStreamersFromFollows(@NotNull Collection<String> excludedNames) {
+    private Map<String, StreamerResult> getStreamersFromFollows(@NotNull Collection<String> excludedNames, @NotNull Set<String> added) {
         if (!loadFollows) {
             return Map.of();
         }
 
+        log.debug("Loading streamers from follow list");
+        var follows = getFollows(page -> addStreamers(toStreamerResults(page, excludedNames), added));
+        return toStreamerResults(follows, excludedNames);
+    }
+
+    @NotNull
+    private Map<String, StreamerResult> toStreamerResults(@NotNull Collection<User> follows, @NotNull Collection<String> excludedNames) {
         Function<String, StreamerSettings> settingsFunction = streamerSettingsFactory::createStreamerSettings;
 
-        log.debug("Loading streamers from follow list");
-        return miner.getGqlApi().allChannelFollows().stream()
+        return follows.stream()
                 .filter(user -> !excludedNames.contains(user.getLogin().toLowerCase(Locale.ROOT)))
                 .collect(Collectors.toMap(user -> user.getLogin().toLowerCase(Locale.ROOT), user -> {
                     var streamerName = user.getLogin();
+                    miner.getStreamerIdCache().put(streamerName, user.getId());
                     return new StreamerResult(
                             streamerName,
                             () -> settingsFunction.apply(streamerName),
@@ -138,6 +184,54 @@ public class StreamerConfigurationReload implements Runnable {
                 }));
     }
 
+    /**
+     * Get the follows of the user. As follows are received most recent first, loading stops at the first known follow and previously known follows are reused.
+     * The whole list is loaded again from time to time to notice channels that were unfollowed.
+     *
+     * @param newFollowsConsumer Consumer of the follows that weren't known yet, called on this thread for each page as it is received.
+     *
+     * @return The follows, most recent first.
+     */
+    @NotNull
+    private List<User> getFollows(@NotNull Consumer<List<User>> newFollowsConsumer) {
+        var now = TimeFactory.now();
+        var fullLoad = knownFollows.isEmpty()
+                || Objects.isNull(lastFullFollowsLoad)
+                || !now.isBefore(lastFullFollowsLoad.plus(FULL_FOLLOWS_RELOAD_DELAY));
+        var knownIds = fullLoad ? Set.<String>of() : knownFollows.stream().map(User::getId).collect(Collectors.toSet());
+
+        var loaded = new LinkedHashMap<String, User>();
+        var reachedKnown = new AtomicBoolean(false);
+        var completed = miner.getGqlApi().channelFollowsPages(page -> {
+            var newFollows = new ArrayList<User>();
+            for (var user : page) {
+                if (knownIds.contains(user.getId())) {
+                    reachedKnown.set(true);
+                    break;
+                }
+                if (Objects.isNull(loaded.putIfAbsent(user.getId(), user))) {
+                    newFollows.add(user);
+                }
+            }
+            if (!newFollows.isEmpty()) {
+                newFollowsConsumer.accept(newFollows);
+            }
+            return !reachedKnown.get();
+        });
+
+        if (completed && !reachedKnown.get()) {
+            log.debug("Loaded all {} follows", loaded.size());
+            knownFollows = List.copyOf(loaded.values());
+            lastFullFollowsLoad = now;
+        }
+        else {
+            log.debug("Loaded {} new follows", loaded.size());
+            knownFollows.forEach(user -> loaded.putIfAbsent(user.getId(), user));
+            knownFollows = List.copyOf(loaded.values());
+        }
+        return knownFollows;
+    }
+
     @NotNull
     private Map<String, StreamerResult> getStreamersFromConfiguration(@NotNull Collection<String> excludedNames) {
         log.debug("Loading streamers from configuration");
@@ -160,13 +254,23 @@ public class StreamerConfigurationReload implements Runnable {
 
     @NotNull
     private Optional<String> getStreamerId(@NotNull String username) {
-        var id = miner.getGqlApi().reportMenuItem(username)
-                .map(GQLResponse::getData)
-                .map(ReportMenuItemData::getUser)
-                .map(User::getId);
+        var id = miner.getStreamerIdCache().getId(username, this::fetchStreamerId);
         if (id.isEmpty()) {
 	        eventManager.onEvent(new StreamerUnknownEvent(username, TimeFactory.now()));
         }
         return id;
     }
+
+    /**
+     * @return The id of the streamer, empty if Twitch answered that it doesn't exist.
+     *
+     * @throws IllegalStateException If no answer was received.
+     */
+    @NotNull
+    private Optional<String> fetchStreamerId(@NotNull String username) {
+        var data = miner.getGqlApi().reportMenuItem(username)
+                .map(GQLResponse::getData)
+                .orElseThrow(() -> new IllegalStateException("Failed to get id of streamer " + username));
+        return Optional.ofNullable(data.getUser()).map(User::getId);
+    }
 }
@@ -11,7 +11,6 @@ import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.log.LogContext;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
-import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
@@ -53,7 +52,7 @@ public class SyncInventory implements Runnable{
 	}
 	
 	private boolean needUpdate(){
-		return miner.getStreamers().stream().anyMatch(Streamer::isParticipateCampaigns);
+		return !miner.getStreamerIndex().getParticipatingCampaigns().isEmpty();
 	}
 	
 	private void claimDrops(@NotNull InventoryData inventory){
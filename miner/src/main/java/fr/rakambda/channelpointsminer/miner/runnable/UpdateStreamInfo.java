@@ -1,5 +1,6 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLRequestRejectedException;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.chatroombanstatus.ChatRoomBanStatusData;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.dropshighlightserviceavailabledrops.DropsHighlightServiceAvailableDropsData;
@@ -11,150 +12,296 @@ import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.log.LogContext;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
-import fr.rakambda.channelpointsminer.miner.util.CommonUtils;
-import lombok.RequiredArgsConstructor;
+import fr.rakambda.channelpointsminer.miner.util.RateLimiter;
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.ThreadContext;
 import org.jetbrains.annotations.NotNull;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Log4j2
-@RequiredArgsConstructor
 public class UpdateStreamInfo implements Runnable{
 	@NotNull
 	private final IMiner miner;
+	@NotNull
+	private final Executor executor;
+	@NotNull
+	private final RateLimiter rateLimiter;
+	@NotNull
+	private final Semaphore concurrencyLimiter;
+	private final AtomicBoolean updating = new AtomicBoolean(false);
+	
+	/**
+	 * @param miner       The miner.
+	 * @param executor    Executor on which passes updating all streamers are run. As a pass mostly waits on the rate limiter, it shouldn't be a bounded pool shared with other tasks.
+	 * @param rateLimiter Rate limiter applied before starting each streamer refresh.
+	 * @param concurrency Maximum number of streamers being refreshed at the same time.
+	 */
+	public UpdateStreamInfo(@NotNull IMiner miner, @NotNull Executor executor, @NotNull RateLimiter rateLimiter, int concurrency){
+		this.miner = miner;
+		this.executor = executor;
+		this.rateLimiter = rateLimiter;
+		concurrencyLimiter = new Semaphore(Math.max(1, concurrency));
+	}
 	
+	/**
+	 * Start updating all the streamers needing it.
+	 * The pass is handed to the executor, so that waiting on the rate limiter doesn't hold the calling scheduler thread, and is skipped if the previous one is still running.
+	 * Streamer updates are asynchronous, so no other thread is held while they wait for responses.
+	 */
 	@Override
 	public void run(){
 		try(var ignored = LogContext.with(miner)){
-			log.debug("Updating all stream info");
+			if(!updating.compareAndSet(false, true)){
+				log.debug("Previous stream info update is still running, skipping");
+				return;
+			}
+			
+			var values = ThreadContext.getImmutableContext();
+			var messages = ThreadContext.getImmutableStack().asList();
 			try{
-				miner.getStreamers().stream()
-						.filter(Streamer::needUpdate)
-						.forEach(streamer -> {
-							run(streamer);
-							CommonUtils.randomSleep(500, 100);
-						});
-				log.debug("Done updating all stream info");
+				executor.execute(() -> {
+					try(var context = LogContext.restore(values, messages)){
+						updateAll(values, messages);
+					}
+					finally{
+						updating.set(false);
+					}
+				});
 			}
-			catch(Exception e){
-				log.error("Failed to update all stream info", e);
+			catch(RejectedExecutionException e){
+				updating.set(false);
+				log.warn("Failed to start updating all stream info", e);
 			}
 		}
 	}
 	
+	private void updateAll(@NotNull Map<String, String> values, @NotNull List<String> messages){
+		log.debug("Updating all stream info");
+		try{
+			var updates = new ArrayList<CompletableFuture<Void>>();
+			for(var streamer : miner.getStreamers()){
+				if(!streamer.needUpdate()){
+					continue;
+				}
+				
+				rateLimiter.acquire();
+				concurrencyLimiter.acquire();
+				updates.add(startUpdate(streamer, values, messages));
+			}
+			
+			CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).join();
+			log.debug("Done updating all stream info");
+		}
+		catch(InterruptedException e){
+			log.warn("Interrupted while updating all stream info");
+			Thread.currentThread().interrupt();
+		}
+		catch(Exception e){
+			log.error("Failed to update all stream info", e);
+		}
+	}
+	
+	@NotNull
+	private CompletableFuture<Void> startUpdate(@NotNull Streamer streamer, @NotNull Map<String, String> values, @NotNull List<String> messages){
+		CompletableFuture<Void> future;
+		try{
+			future = update(streamer);
+		}
+		catch(RuntimeException e){
+			future = CompletableFuture.failedFuture(e);
+		}
+		return future
+				.exceptionally(e -> {
+					try(var ignored = LogContext.restore(values, messages)){
+						log.error("Failed to update stream info of {}", streamer, e);
+					}
+					return null;
+				})
+				.whenComplete((result, throwable) -> concurrencyLimiter.release());
+	}
+	
 	public void run(@NotNull Streamer streamer){
+		update(streamer).join();
+	}
+	
+	/**
+	 * Update the information of a streamer. Requests are composed so that no thread is held while waiting for responses.
+	 *
+	 * @param streamer The streamer to update.
+	 *
+	 * @return A future completed once every information is updated.
+	 */
+	@NotNull
+	public CompletableFuture<Void> update(@NotNull Streamer streamer){
 		try(var ignored = LogContext.empty().withStreamer(streamer)){
+			var values = ThreadContext.getImmutableContext();
+			var messages = ThreadContext.getImmutableStack().asList();
 			var wasStreaming = streamer.isStreaming();
 			
-			updateVideoInfo(streamer);
-			updateSpadeUrl(streamer);
-			updateM3u8Url(streamer);
-			updateBanStatus(streamer);
-			updatePointsContext(streamer);
-			updateCampaigns(streamer);
-			
-			var now = TimeFactory.now();
-			streamer.setLastUpdated(now);
-			if(wasStreaming && !streamer.isStreaming()){
-				if(streamer.hasStreamedEnoughTime()){
-					streamer.setLastOffline(now);
-				}
-				streamer.resetWatchedDuration();
-			}
+			return updateVideoInfo(streamer)
+					.thenCompose(v -> inContext(values, messages, () -> CompletableFuture.allOf(
+							updateSpadeUrl(streamer),
+							updateM3u8Url(streamer),
+							updateBanStatus(streamer),
+							updatePointsContext(streamer),
+							updateCampaigns(streamer))))
+					.thenRun(() -> {
+						var now = TimeFactory.now();
+						streamer.markUpdated(now);
+						if(wasStreaming && !streamer.isStreaming()){
+							if(streamer.hasStreamedEnoughTime()){
+								streamer.setLastOffline(now);
+							}
+							streamer.resetWatchedDuration();
+						}
+					});
 		}
 	}
 	
-	private void updateVideoInfo(@NotNull Streamer streamer){
+	@NotNull
+	private CompletableFuture<Void> updateVideoInfo(@NotNull Streamer streamer){
 		log.trace("Updating video info");
 		
-		miner.getGqlApi().videoPlayerStreamInfoOverlayChannel(streamer.getUsername())
-				.map(GQLResponse::getData)
-				.ifPresentOrElse(
-						streamer::setVideoPlayerStreamInfoOverlayChannel,
-						() -> streamer.setVideoPlayerStreamInfoOverlayChannel(null));
+		return keepStateIfRejected(miner.getGqlApi().videoPlayerStreamInfoOverlayChannelAsync(streamer.getUsername())
+				.thenAccept(response -> response
+						.map(GQLResponse::getData)
+						.ifPresentOrElse(
+								streamer::setVideoPlayerStreamInfoOverlayChannel,
+								() -> streamer.setVideoPlayerStreamInfoOverlayChannel(null))));
 	}
 	
-	private void updateSpadeUrl(@NotNull Streamer streamer){
+	@NotNull
+	private CompletableFuture<Void> updateSpadeUrl(@NotNull Streamer streamer){
 		log.trace("Updating spade url");
 		if(streamer.isStreaming()){
-			if(Objects.isNull(streamer.getSpadeUrl())){
-				Optional.ofNullable(streamer.getChannelUrl())
-						.flatMap(miner.getTwitchApi()::getSpadeUrl)
-						.ifPresent(streamer::setSpadeUrl);
+			var channelUrl = streamer.getChannelUrl();
+			if(Objects.isNull(streamer.getSpadeUrl()) && Objects.nonNull(channelUrl)){
+				return miner.getTwitchApi().getSpadeUrlAsync(channelUrl)
+						.thenAccept(spadeUrl -> spadeUrl.ifPresent(streamer::setSpadeUrl));
 			}
 		}
 		else{
 			streamer.setSpadeUrl(null);
 		}
+		return done();
 	}
 	
-	private void updateM3u8Url(@NotNull Streamer streamer){
+	@NotNull
+	private CompletableFuture<Void> updateM3u8Url(@NotNull Streamer streamer){
 		log.trace("Updating m3u8 url");
 		if(streamer.isParticipateCampaigns() && streamer.isStreaming()){
 			if(Objects.isNull(streamer.getM3u8Url())){
-				var accessToken = miner.getGqlApi().playbackAccessToken(streamer.getUsername());
-				if(accessToken.isEmpty()){
-					log.warn("Failed to get playback access token for {}", streamer);
-					return;
-				}
-				var token = accessToken.get().getData().getStreamPlaybackAccessToken();
+				return keepStateIfRejected(miner.getGqlApi().playbackAccessTokenAsync(streamer.getUsername()).thenCompose(accessToken -> {
+					if(accessToken.isEmpty()){
+						log.warn("Failed to get playback access token for {}", streamer);
+						return done();
+					}
+					var token = accessToken.get().getData().getStreamPlaybackAccessToken();
 				
-				miner.getTwitchApi().getM3u8Url(streamer.getUsername(), token.getSignature(), token.getValue())
-						.ifPresent(streamer::setM3u8Url);
+					return miner.getTwitchApi().getM3u8UrlAsync(streamer.getUsername(), token.getSignature(), token.getValue())
+							.thenAccept(m3u8Url -> m3u8Url.ifPresent(streamer::setM3u8Url));
+				}));
 			}
 		}
 		else{
 			streamer.setM3u8Url(null);
 		}
+		return done();
 	}
 	
-	private void updateBanStatus(@NotNull Streamer streamer){
+	@NotNull
+	private CompletableFuture<Void> updateBanStatus(@NotNull Streamer streamer){
 		log.trace("Updating ban status");
 		if(streamer.isStreaming()){
-			var banned = miner.getGqlApi().chatRoomBanStatus(streamer.getId(), miner.getTwitchLogin().fetchUserId(miner.getGqlApi()))
-					.map(GQLResponse::getData)
-					.map(ChatRoomBanStatusData::getChatRoomBanStatus)
-					.isPresent();
-			streamer.setChatBanned(banned);
+			// Already resolved when the miner started, failing to resolve it only fails this step
+			String userId;
+			try{
+				userId = miner.getTwitchLogin().fetchUserId(miner.getGqlApi());
+			}
+			catch(RuntimeException e){
+				return CompletableFuture.failedFuture(e);
+			}
+			return keepStateIfRejected(miner.getGqlApi().chatRoomBanStatusAsync(streamer.getId(), userId)
+					.thenAccept(response -> {
+						var banned = response
+								.map(GQLResponse::getData)
+								.map(ChatRoomBanStatusData::getChatRoomBanStatus)
+								.isPresent();
+						streamer.setChatBanned(banned);
+					}));
 		}
+		return done();
 	}
 	
-	private void updatePointsContext(@NotNull Streamer streamer){
+	@NotNull
+	private CompletableFuture<Void> updatePointsContext(@NotNull Streamer streamer){
 		log.trace("Updating channel points context");
 		
-		miner.getGqlApi().channelPointsContext(streamer.getUsername())
-				.map(GQLResponse::getData)
-				.ifPresentOrElse(
-						streamer::setChannelPointsContext,
-						() -> streamer.setChannelPointsContext(null));
+		return keepStateIfRejected(miner.getGqlApi().channelPointsContextAsync(streamer.getUsername())
+				.thenCompose(response -> {
+					response.map(GQLResponse::getData)
+							.ifPresentOrElse(
+									streamer::setChannelPointsContext,
+									() -> streamer.setChannelPointsContext(null));
 		
-		streamer.getClaimId().ifPresent(claimId -> miner.getGqlApi().claimCommunityPoints(streamer.getId(), claimId));
+					return streamer.getClaimId()
+							.map(claimId -> miner.getGqlApi().claimCommunityPointsAsync(streamer.getId(), claimId).thenAccept(claimResponse -> {}))
+							.orElseGet(UpdateStreamInfo::done);
+				}));
 	}
 	
-	private void updateCampaigns(@NotNull Streamer streamer){
+	@NotNull
+	private CompletableFuture<Void> updateCampaigns(@NotNull Streamer streamer){
 		log.trace("Updating campaigns");
 		if(streamer.isParticipateCampaigns() && streamer.isStreaming() && streamer.isStreamingGame()){
-			var dropsHighlightServiceAvailableDropsData = miner.getGqlApi().dropsHighlightServiceAvailableDrops(streamer.getId())
-					.map(GQLResponse::getData);
-			
-			dropsHighlightServiceAvailableDropsData.ifPresentOrElse(
-					streamer::setDropsHighlightServiceAvailableDrops,
-					() -> streamer.setDropsHighlightServiceAvailableDrops(null));
-			
-			if(streamer.isDismissKnownGlobalCampaigns()){
-				dropsHighlightServiceAvailableDropsData.stream()
-						.map(DropsHighlightServiceAvailableDropsData::getChannel)
-						.map(Channel::getViewerDropCampaigns)
-						.flatMap(Collection::stream)
-						.filter(this::isDismissibleGlobalCompaign)
-						.forEach(dropCampaign -> dismissCampaign(miner, streamer, dropCampaign));
-			}
-		}
-		else{
-			streamer.setDropsHighlightServiceAvailableDrops(null);
+			return keepStateIfRejected(fetchCampaigns(streamer)
+					.thenCompose(dropsHighlightServiceAvailableDropsData -> {
+						if(!streamer.isDismissKnownGlobalCampaigns()){
+							return done();
+						}
+						
+						var dismisses = dropsHighlightServiceAvailableDropsData.stream()
+								.map(DropsHighlightServiceAvailableDropsData::getChannel)
+								.map(Channel::getViewerDropCampaigns)
+								.flatMap(Collection::stream)
+								.filter(this::isDismissibleGlobalCompaign)
+								.map(dropCampaign -> dismissCampaign(miner, streamer, dropCampaign))
+								.toArray(CompletableFuture[]::new);
+						if(dismisses.length == 0){
+							return done();
+						}
+						
+						// Refresh campaigns once dismissed, without dismissing again so that a campaign that stays visible doesn't loop
+						return CompletableFuture.allOf(dismisses).thenCompose(v -> fetchCampaigns(streamer)).thenAccept(data -> {});
+					}));
 		}
+		
+		streamer.setDropsHighlightServiceAvailableDrops(null);
+		return done();
+	}
+	
+	@NotNull
+	private CompletableFuture<Optional<DropsHighlightServiceAvailableDropsData>> fetchCampaigns(@NotNull Streamer streamer){
+		return miner.getGqlApi().dropsHighlightServiceAvailableDropsAsync(streamer.getId())
+				.thenApply(response -> {
+					var dropsHighlightServiceAvailableDropsData = response.map(GQLResponse::getData);
+					dropsHighlightServiceAvailableDropsData.ifPresentOrElse(
+							streamer::setDropsHighlightServiceAvailableDrops,
+							() -> streamer.setDropsHighlightServiceAvailableDrops(null));
+					return dropsHighlightServiceAvailableDropsData;
+				});
 	}
 	
 	private boolean isDismissibleGlobalCompaign(@NotNull DropCampaign dropCampaign){
@@ -163,15 +310,43 @@ public class UpdateStreamInfo implements Runnable{
 				.orElse(false);
 	}
 	
-	private void dismissCampaign(@NotNull IMiner miner, @NotNull Streamer streamer, @NotNull DropCampaign dropCampaign){
-		var result = miner.getGqlApi().setDropsCommunityHighlightToHidden(streamer.getId(), dropCampaign.getId());
-		var isHidden = result
-				.map(GQLResponse::getData)
-				.map(SetDropsCommunityHighlightToHiddenData::getSetDropsCommunityHighlightToHiddenPayload)
-				.map(SetDropsCommunityHighlightToHiddenPayload::isHidden)
-				.orElse(false);
+	@NotNull
+	private CompletableFuture<Void> dismissCampaign(@NotNull IMiner miner, @NotNull Streamer streamer, @NotNull DropCampaign dropCampaign){
+		return miner.getGqlApi().setDropsCommunityHighlightToHiddenAsync(streamer.getId(), dropCampaign.getId())
+				.thenAccept(result -> {
+					var isHidden = result
+							.map(GQLResponse::getData)
+							.map(SetDropsCommunityHighlightToHiddenData::getSetDropsCommunityHighlightToHiddenPayload)
+							.map(SetDropsCommunityHighlightToHiddenPayload::isHidden)
+							.orElse(false);
 		
-		log.info("Dismissed campaign {} on streamer {}, result {}", dropCampaign, streamer, isHidden);
-		miner.updateStreamerInfos(streamer);
+					log.info("Dismissed campaign {} on streamer {}, result {}", dropCampaign, streamer, isHidden);
+				});
+	}
+	
+	/**
+	 * Keep the last known information when a request is rejected because its operation is currently suspended, instead of considering it as missing.
+	 */
+	@NotNull
+	private static CompletableFuture<Void> keepStateIfRejected(@NotNull CompletableFuture<Void> future){
+		return future.exceptionally(throwable -> {
+			if(GQLRequestRejectedException.isRejection(throwable)){
+				log.debug("Request rejected, keeping last known information");
+				return null;
+			}
+			throw throwable instanceof CompletionException completionException ? completionException : new CompletionException(throwable);
+		});
+	}
+	
+	@NotNull
+	private static CompletableFuture<Void> inContext(@NotNull Map<String, String> values, @NotNull List<String> messages, @NotNull Supplier<CompletableFuture<Void>> supplier){
+		try(var ignored = LogContext.restore(values, messages)){
+			return supplier.get();
+		}
+	}
+	
+	@NotNull
+	private static CompletableFuture<Void> done(){
+		return CompletableFuture.completedFuture(null);
 	}
 }
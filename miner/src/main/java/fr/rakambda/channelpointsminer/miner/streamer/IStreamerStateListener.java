@@ -0,0 +1,12 @@
+package fr.rakambda.channelpointsminer.miner.streamer;
+
+import org.jetbrains.annotations.NotNull;
+
+public interface IStreamerStateListener{
+	/**
+	 * Called when a state of the streamer used to select it (live status, campaigns participation, urls, ...) may have changed.
+	 *
+	 * @param streamer The streamer.
+	 */
+	void onStreamerStateChanged(@NotNull Streamer streamer);
+}
@@ -2,6 +2,7 @@ package fr.rakambda.channelpointsminer.miner.streamer;
 
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.channelpointscontext.ChannelPointsContextData;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.dropshighlightserviceavailabledrops.DropsHighlightServiceAvailableDropsData;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.inventory.InventoryData;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.BroadcastSettings;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.Channel;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.ChannelSelfEdge;
@@ -31,8 +32,11 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Predicate;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.util.Optional.ofNullable;
@@ -43,6 +47,8 @@ import static java.util.Optional.ofNullable;
 @Log4j2
 public class Streamer{
 	public static final Duration SEVEN_MINUTES = Duration.ofMinutes(7);
+	public static final Duration UPDATE_DELAY = Duration.ofMinutes(5);
+	public static final Duration MAX_OFFLINE_UPDATE_DELAY = Duration.ofHours(2);
 	
 	@NotNull
 	@Getter
@@ -54,38 +60,80 @@ public class Streamer{
 	private final String username;
 	@NotNull
 	@Getter
-	@Setter
 	private StreamerSettings settings;
 	@Setter
 	private Instant lastUpdated = Instant.EPOCH;
 	@Setter
 	private Instant lastOffline = Instant.EPOCH;
 	@Getter
+	private Duration updateDelay = UPDATE_DELAY;
+	@Getter
 	private Duration watchedDuration = Duration.ZERO;
 	
 	private URL channelUrl;
+	private final Collection<IStreamerStateListener> stateListeners = new ConcurrentLinkedQueue<>();
+	private final Map<Predicate<IStreamerPriority>, CachedScore> scoreCache = new ConcurrentHashMap<>();
 	
 	@Nullable
-	@Setter
 	private ChannelPointsContextData channelPointsContext;
 	@Nullable
-	@Setter
 	private VideoPlayerStreamInfoOverlayChannelData videoPlayerStreamInfoOverlayChannel;
 	@Nullable
-	@Setter
 	@Getter
 	private DropsHighlightServiceAvailableDropsData dropsHighlightServiceAvailableDrops;
 	@Nullable
-	@Setter
 	@Getter
 	private URL spadeUrl;
 	@Getter
 	private boolean chatBanned;
 	@Nullable
-	@Setter
 	@Getter
 	private URL m3u8Url;
 	
+	public void addStateListener(@NotNull IStreamerStateListener listener){
+		stateListeners.add(listener);
+	}
+	
+	public void removeStateListener(@NotNull IStreamerStateListener listener){
+		stateListeners.remove(listener);
+	}
+	
+	private void notifyStateChanged(){
+		stateListeners.forEach(listener -> listener.onStreamerStateChanged(this));
+	}
+	
+	public void setSettings(@NotNull StreamerSettings settings){
+		this.settings = settings;
+		invalidateScores();
+		notifyStateChanged();
+	}
+	
+	public void setVideoPlayerStreamInfoOverlayChannel(@Nullable VideoPlayerStreamInfoOverlayChannelData videoPlayerStreamInfoOverlayChannel){
+		this.videoPlayerStreamInfoOverlayChannel = videoPlayerStreamInfoOverlayChannel;
+		invalidateScores();
+		notifyStateChanged();
+	}
+	
+	public void setChannelPointsContext(@Nullable ChannelPointsContextData channelPointsContext){
+		this.channelPointsContext = channelPointsContext;
+		invalidateScores();
+	}
+	
+	public void setDropsHighlightServiceAvailableDrops(@Nullable DropsHighlightServiceAvailableDropsData dropsHighlightServiceAvailableDrops){
+		this.dropsHighlightServiceAvailableDrops = dropsHighlightServiceAvailableDrops;
+		invalidateScores();
+	}
+	
+	public void setSpadeUrl(@Nullable URL spadeUrl){
+		this.spadeUrl = spadeUrl;
+		notifyStateChanged();
+	}
+	
+	public void setM3u8Url(@Nullable URL m3u8Url){
+		this.m3u8Url = m3u8Url;
+		notifyStateChanged();
+	}
+	
 	public void addWatchedDuration(@NotNull Duration duration){
 		watchedDuration = watchedDuration.plus(duration);
 	}
@@ -108,24 +156,69 @@ public class Streamer{
 	}
 	
 	public boolean needUpdate(){
-		return TimeFactory.now().isAfter(lastUpdated.plus(5, MINUTES));
+		return TimeFactory.now().isAfter(lastUpdated.plus(updateDelay));
+	}
+	
+	/**
+	 * Mark the streamer as updated and compute when the next update should happen.
+	 * Live streamers keep being updated every {@link #UPDATE_DELAY}. Offline ones are updated less and less often, up to {@link #MAX_OFFLINE_UPDATE_DELAY},
+	 * as going live is notified through PubSub.
+	 *
+	 * @param updateTime Time of the update.
+	 */
+	public void markUpdated(@NotNull Instant updateTime){
+		lastUpdated = updateTime;
+		if(isStreaming()){
+			updateDelay = UPDATE_DELAY;
+		}
+		else{
+			var nextDelay = updateDelay.multipliedBy(2);
+			updateDelay = nextDelay.compareTo(MAX_OFFLINE_UPDATE_DELAY) > 0 ? MAX_OFFLINE_UPDATE_DELAY : nextDelay;
+		}
 	}
 	
+	public void resetUpdateDelay(){
+		updateDelay = UPDATE_DELAY;
+	}
+	
+	/**
+	 * Get the score of this streamer.
+	 * The part of the score coming from priorities that don't depend on time is cached for each filter, until one of its inputs changes
+	 * (settings, stream info, channel points context, drops or inventory). Time dependent priorities are evaluated on each call.
+	 *
+	 * @param miner          The miner.
+	 * @param filterPriority Filter of the priorities to consider. Should be the same instance between calls to benefit from the cache.
+	 *
+	 * @return The score.
+	 */
 	public int getScore(@NotNull IMiner miner, Predicate<IStreamerPriority> filterPriority){
-		try(var ignored = LogContext.with(miner).withStreamer(this)){
-			var score = settings.getPriorities().stream()
-					.filter(filterPriority)
-					.mapToInt(p -> {
-						var s = p.getScore(miner, this);
-						if(s != 0){
-							log.trace("Obtained score of {} from {}", s, p);
-						}
-						return s;
-					})
-					.sum();
-			log.debug("Calculated score of {}", score);
-			return score;
+		var inventory = miner.getMinerData().getInventory();
+		var cached = scoreCache.get(filterPriority);
+		if(Objects.isNull(cached) || cached.inventory() != inventory){
+			try(var ignored = LogContext.with(miner).withStreamer(this)){
+				cached = new CachedScore(computeScore(miner, filterPriority.and(Predicate.not(IStreamerPriority::isTimeDependent))), inventory);
+				log.debug("Calculated cached score of {}", cached.score());
+			}
+			scoreCache.put(filterPriority, cached);
 		}
+		return cached.score() + computeScore(miner, filterPriority.and(IStreamerPriority::isTimeDependent));
+	}
+	
+	private int computeScore(@NotNull IMiner miner, @NotNull Predicate<IStreamerPriority> filterPriority){
+		return settings.getPriorities().stream()
+				.filter(filterPriority)
+				.mapToInt(p -> {
+					var s = p.getScore(miner, this);
+					if(s != 0){
+						log.trace("Obtained score of {} from {}", s, p);
+					}
+					return s;
+				})
+				.sum();
+	}
+	
+	private void invalidateScores(){
+		scoreCache.clear();
 	}
 	
 	public Collection<CommunityPointsMultiplier> getActiveMultipliers(){
@@ -231,4 +324,7 @@ public class Streamer{
 	public boolean hasStreamedEnoughTime(){
 		return getWatchedDuration().compareTo(Streamer.SEVEN_MINUTES) > 0;
 	}
+	
+	private record CachedScore(int score, @Nullable InventoryData inventory){
+	}
 }
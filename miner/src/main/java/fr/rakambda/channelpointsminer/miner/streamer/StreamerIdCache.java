@@ -0,0 +1,119 @@
+package fr.rakambda.channelpointsminer.miner.streamer;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache of streamer ids by username, optionally persisted to a file so that known channels don't need to be resolved again after a restart.
+ * The file is only written when {@link #flush()} is called.
+ * Unknown usernames are remembered too and only resolved again once the retry delay elapsed. Failures to resolve a username aren't remembered.
+ */
+@Log4j2
+public class StreamerIdCache{
+	@NotNull
+	private final StreamerIdStore store;
+	@NotNull
+	private final Duration unknownRetryDelay;
+	
+	/**
+	 * @param file              File to persist ids into, null to keep them in memory only. Caches using the same file share their ids.
+	 * @param unknownRetryDelay Delay before resolving again a username that wasn't found.
+	 */
+	public StreamerIdCache(@Nullable Path file, @NotNull Duration unknownRetryDelay){
+		this(StreamerIdStore.forFile(file), unknownRetryDelay);
+	}
+	
+	StreamerIdCache(@NotNull StreamerIdStore store, @NotNull Duration unknownRetryDelay){
+		this.store = store;
+		this.unknownRetryDelay = unknownRetryDelay;
+	}
+	
+	/**
+	 * Get the id of a streamer, resolving it only if it isn't known yet.
+	 *
+	 * @param username The username of the streamer.
+	 * @param resolver Function to resolve the id of a username, empty if the username doesn't exist. It throws if it couldn't tell, in which case nothing is cached.
+	 *
+	 * @return The id of the streamer, empty if it doesn't exist or couldn't be resolved.
+	 */
+	@NotNull
+	public synchronized Optional<String> getId(@NotNull String username, @NotNull Function<String, Optional<String>> resolver){
+		var key = getKey(username);
+		var cached = store.get(key);
+		if(Objects.nonNull(cached)){
+			if(Objects.nonNull(cached.getId())){
+				return Optional.of(cached.getId());
+			}
+			if(TimeFactory.now().toEpochMilli() - cached.getResolvedAt() < unknownRetryDelay.toMillis()){
+				log.debug("Streamer {} is known to not exist, not resolving it again yet", username);
+				return Optional.empty();
+			}
+		}
+		
+		Optional<String> id;
+		try{
+			id = resolver.apply(username);
+		}
+		catch(RuntimeException e){
+			log.warn("Failed to resolve id of streamer {}", username, e);
+			return Optional.empty();
+		}
+		store.put(key, new CachedId(id.orElse(null), TimeFactory.now().toEpochMilli()));
+		return id;
+	}
+	
+	/**
+	 * Record the id of a streamer that was obtained by other means.
+	 *
+	 * @param username The username of the streamer.
+	 * @param id       The id of the streamer.
+	 */
+	public synchronized void put(@NotNull String username, @NotNull String id){
+		var key = getKey(username);
+		var cached = store.get(key);
+		if(Objects.nonNull(cached) && Objects.equals(cached.getId(), id)){
+			return;
+		}
+		
+		store.put(key, new CachedId(id, TimeFactory.now().toEpochMilli()));
+	}
+	
+	/**
+	 * Persist the ids that changed since the last call. Changes are kept in memory until then.
+	 */
+	public void flush(){
+		store.flush();
+	}
+	
+	@NotNull
+	private static String getKey(@NotNull String username){
+		return username.toLowerCase(Locale.ROOT);
+	}
+	
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	@ToString
+	public static class CachedId{
+		@JsonProperty("id")
+		@Nullable
+		private String id;
+		@JsonProperty("resolvedAt")
+		private long resolvedAt;
+	}
+}
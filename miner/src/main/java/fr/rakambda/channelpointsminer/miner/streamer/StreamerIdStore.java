@@ -0,0 +1,115 @@
+package fr.rakambda.channelpointsminer.miner.streamer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIdCache.CachedId;
+import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
+import lombok.extern.log4j.Log4j2;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streamer ids, optionally persisted to a file.
+ * <p>
+ * The file is read once and only written when {@link #flush()} is called. It is replaced atomically so that it is never seen half written.
+ */
+@Log4j2
+class StreamerIdStore{
+	private static final TypeReference<Map<String, CachedId>> TYPE = new TypeReference<>(){};
+	private static final Map<Path, StreamerIdStore> STORES = new ConcurrentHashMap<>();
+	
+	@Nullable
+	private final Path file;
+	private final Map<String, CachedId> ids;
+	
+	private boolean loaded;
+	private boolean dirty;
+	
+	/**
+	 * @param file File to persist ids into, null to keep them in memory only.
+	 */
+	StreamerIdStore(@Nullable Path file){
+		this.file = file;
+		ids = new HashMap<>();
+	}
+	
+	/**
+	 * Get the store of a file, shared by every account using the same file so that they don't overwrite each other's ids.
+	 *
+	 * @param file File to persist ids into, null to keep them in memory only.
+	 *
+	 * @return The store.
+	 */
+	@NotNull
+	static StreamerIdStore forFile(@Nullable Path file){
+		if(Objects.isNull(file)){
+			return new StreamerIdStore(null);
+		}
+		return STORES.computeIfAbsent(file.toAbsolutePath().normalize(), StreamerIdStore::new);
+	}
+	
+	@Nullable
+	synchronized CachedId get(@NotNull String key){
+		load();
+		return ids.get(key);
+	}
+	
+	synchronized void put(@NotNull String key, @NotNull CachedId value){
+		load();
+		ids.put(key, value);
+		dirty = true;
+	}
+	
+	/**
+	 * Write the ids to the file if any changed since the last write.
+	 */
+	synchronized void flush(){
+		if(!dirty || Objects.isNull(file)){
+			return;
+		}
+		
+		// Merge with what is currently in the file as it may be written by another process
+		var values = readFile();
+		values.putAll(ids);
+		
+		try{
+			JacksonUtils.writeAtomically(file, values);
+			dirty = false;
+			log.debug("Saved {} streamer ids", values.size());
+		}
+		catch(IOException e){
+			log.warn("Failed to save streamer ids to {}", file, e);
+		}
+	}
+	
+	private void load(){
+		if(loaded){
+			return;
+		}
+		loaded = true;
+		
+		readFile().forEach(ids::putIfAbsent);
+		log.debug("Loaded {} cached streamer ids", ids.size());
+	}
+	
+	@NotNull
+	private Map<String, CachedId> readFile(){
+		if(Objects.isNull(file) || !Files.exists(file)){
+			return new HashMap<>();
+		}
+		
+		try(var is = Files.newInputStream(file)){
+			return new HashMap<>(JacksonUtils.read(is, TYPE));
+		}
+		catch(IOException e){
+			log.warn("Failed to read streamer ids from {}", file, e);
+			return new HashMap<>();
+		}
+	}
+}
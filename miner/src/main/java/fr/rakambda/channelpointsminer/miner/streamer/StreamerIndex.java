@@ -0,0 +1,85 @@
+package fr.rakambda.channelpointsminer.miner.streamer;
+
+import org.jetbrains.annotations.NotNull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Views of the mined streamers, kept up to date as their state changes.
+ * This allows periodic tasks to only go through the streamers they are interested in instead of filtering all of them each time.
+ * <p>
+ * Changes of a streamer are applied while holding its lock, so that concurrent changes can't leave it in a view based on an outdated state.
+ */
+public class StreamerIndex implements IStreamerStateListener{
+	private final Set<Streamer> indexed = ConcurrentHashMap.newKeySet();
+	private final Set<Streamer> live = ConcurrentHashMap.newKeySet();
+	private final Set<Streamer> participatingCampaigns = ConcurrentHashMap.newKeySet();
+	private final Set<Streamer> liveWithSpadeUrl = ConcurrentHashMap.newKeySet();
+	private final Set<Streamer> liveWithM3u8Url = ConcurrentHashMap.newKeySet();
+	
+	public void add(@NotNull Streamer streamer){
+		synchronized(streamer){
+			indexed.add(streamer);
+			streamer.addStateListener(this);
+			onStreamerStateChanged(streamer);
+		}
+	}
+	
+	public void remove(@NotNull Streamer streamer){
+		synchronized(streamer){
+			streamer.removeStateListener(this);
+			indexed.remove(streamer);
+			live.remove(streamer);
+			participatingCampaigns.remove(streamer);
+			liveWithSpadeUrl.remove(streamer);
+			liveWithM3u8Url.remove(streamer);
+		}
+	}
+	
+	@Override
+	public void onStreamerStateChanged(@NotNull Streamer streamer){
+		synchronized(streamer){
+			if(!indexed.contains(streamer)){
+				return;
+			}
+			
+			var streaming = streamer.isStreaming();
+			update(live, streamer, streaming);
+			update(participatingCampaigns, streamer, streamer.isParticipateCampaigns());
+			update(liveWithSpadeUrl, streamer, streaming && Objects.nonNull(streamer.getSpadeUrl()));
+			update(liveWithM3u8Url, streamer, streaming && Objects.nonNull(streamer.getM3u8Url()));
+		}
+	}
+	
+	private static void update(@NotNull Set<Streamer> view, @NotNull Streamer streamer, boolean member){
+		if(member){
+			view.add(streamer);
+		}
+		else{
+			view.remove(streamer);
+		}
+	}
+	
+	@NotNull
+	public Collection<Streamer> getLive(){
+		return Collections.unmodifiableSet(live);
+	}
+	
+	@NotNull
+	public Collection<Streamer> getParticipatingCampaigns(){
+		return Collections.unmodifiableSet(participatingCampaigns);
+	}
+	
+	@NotNull
+	public Collection<Streamer> getLiveWithSpadeUrl(){
+		return Collections.unmodifiableSet(liveWithSpadeUrl);
+	}
+	
+	@NotNull
+	public Collection<Streamer> getLiveWithM3u8Url(){
+		return Collections.unmodifiableSet(liveWithM3u8Url);
+	}
+}
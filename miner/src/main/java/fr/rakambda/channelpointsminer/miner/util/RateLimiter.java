@@ -0,0 +1,67 @@
+package fr.rakambda.channelpointsminer.miner.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.annotations.VisibleForTesting;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter.
+ * Tokens are refilled continuously at the given rate, up to the bucket capacity.
+ * A caller that finds the bucket empty reserves the next token and sleeps until it becomes available.
+ */
+public class RateLimiter{
+	private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+	
+	private final double nanosPerPermit;
+	private final double capacity;
+	private final LongSupplier clock;
+	
+	private double tokens;
+	private long lastRefill;
+	
+	/**
+	 * @param permitsPerSecond Number of tokens added to the bucket every second.
+	 * @param burst            Maximum number of tokens the bucket can hold.
+	 */
+	public RateLimiter(double permitsPerSecond, int burst){
+		this(permitsPerSecond, burst, System::nanoTime);
+	}
+	
+	@VisibleForTesting
+	@TestOnly
+	RateLimiter(double permitsPerSecond, int burst, @NotNull LongSupplier clock){
+		if(permitsPerSecond <= 0){
+			throw new IllegalArgumentException("Permits per second must be positive");
+		}
+		this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+		this.capacity = Math.max(1, burst);
+		this.clock = clock;
+		
+		tokens = capacity;
+		lastRefill = clock.getAsLong();
+	}
+	
+	/**
+	 * Take one token, waiting for it to be available if needed.
+	 *
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public void acquire() throws InterruptedException{
+		var waitNanos = reserve();
+		SleepHandler.sleep((waitNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+	}
+	
+	private synchronized long reserve(){
+		var now = clock.getAsLong();
+		tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerPermit);
+		lastRefill = now;
+		
+		tokens -= 1;
+		if(tokens >= 0){
+			return 0;
+		}
+		return Math.round(-tokens * nanosPerPermit);
+	}
+}
@@ -0,0 +1,113 @@
+package fr.rakambda.channelpointsminer.miner.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor service running its tasks on a shared executor, with at most a given number of them running at the same time.
+ * Tasks exceeding the limit are queued locally, so that a single user of the shared executor cannot fill it and starve the others.
+ * Shutting this service down doesn't affect the shared executor.
+ */
+public class ConcurrencyLimitedExecutorService extends AbstractExecutorService{
+	private final Executor delegate;
+	private final int maxConcurrency;
+	private final Queue<Runnable> queue;
+	
+	private int running;
+	private boolean shutdown;
+	
+	/**
+	 * @param delegate       Shared executor running the tasks.
+	 * @param maxConcurrency Maximum number of tasks of this service running at the same time.
+	 */
+	public ConcurrencyLimitedExecutorService(@NotNull Executor delegate, int maxConcurrency){
+		this.delegate = delegate;
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+		queue = new ArrayDeque<>();
+	}
+	
+	@Override
+	public synchronized void execute(@NotNull Runnable command){
+		if(shutdown){
+			throw new RejectedExecutionException("Executor has been shut down");
+		}
+		queue.add(command);
+		dispatch();
+	}
+	
+	private synchronized void dispatch(){
+		while(running < maxConcurrency && !queue.isEmpty()){
+			var task = queue.poll();
+			running++;
+			try{
+				delegate.execute(() -> runTask(task));
+			}
+			catch(RejectedExecutionException e){
+				running--;
+				throw e;
+			}
+		}
+		if(isTerminated()){
+			notifyAll();
+		}
+	}
+	
+	private void runTask(@NotNull Runnable task){
+		try{
+			task.run();
+		}
+		finally{
+			synchronized(this){
+				running--;
+				dispatch();
+			}
+		}
+	}
+	
+	@Override
+	public synchronized void shutdown(){
+		shutdown = true;
+		if(isTerminated()){
+			notifyAll();
+		}
+	}
+	
+	@NotNull
+	@Override
+	public synchronized List<Runnable> shutdownNow(){
+		shutdown();
+		var pending = new ArrayList<>(queue);
+		queue.clear();
+		return pending;
+	}
+	
+	@Override
+	public synchronized boolean isShutdown(){
+		return shutdown;
+	}
+	
+	@Override
+	public synchronized boolean isTerminated(){
+		return shutdown && running == 0 && queue.isEmpty();
+	}
+	
+	@Override
+	public synchronized boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException{
+		var deadline = System.nanoTime() + unit.toNanos(timeout);
+		while(!isTerminated()){
+			var remaining = deadline - System.nanoTime();
+			if(remaining <= 0){
+				return false;
+			}
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		return true;
+	}
+}
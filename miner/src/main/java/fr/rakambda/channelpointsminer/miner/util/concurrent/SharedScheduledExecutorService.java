@@ -0,0 +1,117 @@
+package fr.rakambda.channelpointsminer.miner.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * View of a shared scheduled executor.
+ * Tasks are scheduled on the shared executor, but shutting this view down only cancels the tasks scheduled through it.
+ */
+public class SharedScheduledExecutorService extends AbstractExecutorService implements ScheduledExecutorService{
+	private final ScheduledExecutorService delegate;
+	private final Set<ScheduledFuture<?>> tasks;
+	
+	private volatile boolean shutdown;
+	
+	/**
+	 * @param delegate Shared scheduled executor.
+	 */
+	public SharedScheduledExecutorService(@NotNull ScheduledExecutorService delegate){
+		this.delegate = delegate;
+		tasks = ConcurrentHashMap.newKeySet();
+	}
+	
+	@NotNull
+	private <T extends ScheduledFuture<?>> T track(@NotNull T future){
+		tasks.removeIf(Future::isDone);
+		tasks.add(future);
+		if(shutdown){
+			future.cancel(false);
+		}
+		return future;
+	}
+	
+	private void checkShutdown(){
+		if(shutdown){
+			throw new RejectedExecutionException("Executor has been shut down");
+		}
+	}
+	
+	@Override
+	public void execute(@NotNull Runnable command){
+		schedule(command, 0, TimeUnit.NANOSECONDS);
+	}
+	
+	@NotNull
+	@Override
+	public ScheduledFuture<?> schedule(@NotNull Runnable command, long delay, @NotNull TimeUnit unit){
+		checkShutdown();
+		return track(delegate.schedule(command, delay, unit));
+	}
+	
+	@NotNull
+	@Override
+	public <V> ScheduledFuture<V> schedule(@NotNull Callable<V> callable, long delay, @NotNull TimeUnit unit){
+		checkShutdown();
+		return track(delegate.schedule(callable, delay, unit));
+	}
+	
+	@NotNull
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable command, long initialDelay, long period, @NotNull TimeUnit unit){
+		checkShutdown();
+		return track(delegate.scheduleAtFixedRate(command, initialDelay, period, unit));
+	}
+	
+	@NotNull
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Runnable command, long initialDelay, long delay, @NotNull TimeUnit unit){
+		checkShutdown();
+		return track(delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit));
+	}
+	
+	@Override
+	public void shutdown(){
+		shutdown = true;
+		tasks.forEach(task -> task.cancel(false));
+	}
+	
+	@NotNull
+	@Override
+	public List<Runnable> shutdownNow(){
+		shutdown = true;
+		tasks.forEach(task -> task.cancel(true));
+		return List.of();
+	}
+	
+	@Override
+	public boolean isShutdown(){
+		return shutdown;
+	}
+	
+	@Override
+	public boolean isTerminated(){
+		return shutdown && tasks.stream().allMatch(Future::isDone);
+	}
+	
+	@Override
+	public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException{
+		var deadline = System.nanoTime() + unit.toNanos(timeout);
+		while(!isTerminated()){
+			if(System.nanoTime() >= deadline){
+				return false;
+			}
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		return true;
+	}
+}
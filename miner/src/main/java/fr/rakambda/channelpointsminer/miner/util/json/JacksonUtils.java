@@ -9,6 +9,9 @@ import org.jetbrains.annotations.NotNull;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
@@ -25,6 +28,8 @@ import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_IGNO
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 import static com.fasterxml.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS;
 import static com.fasterxml.jackson.databind.MapperFeature.SORT_PROPERTIES_ALPHABETICALLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static lombok.AccessLevel.PRIVATE;
 
 @NoArgsConstructor(access = PRIVATE)
@@ -74,4 +79,32 @@ public class JacksonUtils{
 	public static String writeAsString(@NotNull Object value) throws JsonProcessingException{
 		return getMapper().writeValueAsString(value);
 	}
+	
+	/**
+	 * Write a value to a file through a temporary file that then replaces it, so that the file is never seen half written.
+	 *
+	 * @param file  The file to write.
+	 * @param value The value to write.
+	 *
+	 * @throws IOException If the file couldn't be written.
+	 */
+	public static void writeAtomically(@NotNull Path file, @NotNull Object value) throws IOException{
+		var parent = file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		var temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try{
+			try(var os = Files.newOutputStream(temp)){
+				write(os, value);
+			}
+			try{
+				Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+			}
+			catch(AtomicMoveNotSupportedException e){
+				Files.move(temp, file, REPLACE_EXISTING);
+			}
+		}
+		finally{
+			Files.deleteIfExists(temp);
+		}
+	}
 }
@@ -9,6 +9,7 @@ import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import fr.rakambda.channelpointsminer.miner.tests.TestUtils;
 import fr.rakambda.channelpointsminer.miner.tests.UnirestMock;
 import fr.rakambda.channelpointsminer.miner.tests.UnirestMockExtension;
+import kong.unirest.core.UnirestInstance;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
@@ -109,6 +110,10 @@ public abstract class AbstractGQLTest{
 		lenient().when(integrityData.getXDeviceId()).thenReturn(X_DEVICE_ID);
 		lenient().when(integrityData.getClientVersion()).thenReturn(DEFAULT_CLIENT_VERSION);
 		
-		tested = new GQLApi(twitchLogin, unirest.getUnirestInstance(), integrityProvider);
+		tested = createTested(twitchLogin, unirest.getUnirestInstance(), integrityProvider);
+	}
+	
+	protected GQLApi createTested(TwitchLogin twitchLogin, UnirestInstance unirestInstance, IIntegrityProvider integrityProvider){
+		return new GQLApi(twitchLogin, unirestInstance, integrityProvider);
 	}
 }
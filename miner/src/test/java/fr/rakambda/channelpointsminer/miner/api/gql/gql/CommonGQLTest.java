@@ -1,11 +1,13 @@
 package fr.rakambda.channelpointsminer.miner.api.gql.gql;
 
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLMetrics.ErrorClass;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityException;
 import fr.rakambda.channelpointsminer.miner.tests.UnirestMockExtension;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -51,6 +53,37 @@ public class CommonGQLTest extends AbstractGQLTest{
 		verifyAll();
 	}
 	
+	@Test
+	void metricsRecordError(){
+		expectValidRequestOkWithIntegrityOk("api/gql/gql/error_expected.json");
+		
+		assertThat(tested.joinRaid(RAID_ID)).isEmpty();
+		
+		var metrics = tested.getMetrics().getSnapshot().get("JoinRaid");
+		assertThat(metrics).isNotNull();
+		assertThat(metrics.requests()).isEqualTo(1);
+		assertThat(metrics.payloadSize()).isPositive();
+		assertThat(metrics.statuses()).containsExactly(entry(200, 1L));
+		assertThat(metrics.errors()).containsExactly(entry(ErrorClass.SERVICE, 1L));
+		
+		verifyAll();
+	}
+	
+	@Test
+	void metricsRecordStatus(){
+		expectValidRequestWithIntegrityOk(500, null);
+		
+		assertThat(tested.joinRaid(RAID_ID)).isEmpty();
+		
+		var metrics = tested.getMetrics().getSnapshot().get("JoinRaid");
+		assertThat(metrics).isNotNull();
+		assertThat(metrics.requests()).isEqualTo(1);
+		assertThat(metrics.statuses()).containsExactly(entry(500, 1L));
+		assertThat(metrics.errors()).containsExactly(entry(ErrorClass.HTTP, 1L));
+		
+		verifyAll();
+	}
+	
 	@Test
 	void integrityIsInvalidatedOnError(){
 		setupIntegrityOk();
@@ -0,0 +1,112 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.BroadcastSettings;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.Game;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.User;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.videoplayerstreaminfooverlaychannel.VideoPlayerStreamInfoOverlayChannelData;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.videoplayerstreaminfooverlaychannel.VideoPlayerStreamInfoOverlayChannelOperation;
+import org.junit.jupiter.api.Test;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GQLApiBatchTest extends AbstractGQLTest{
+	private static final String USERNAME_1 = "username1";
+	private static final String USERNAME_2 = "username2";
+	
+	@Test
+	void nominal() throws MalformedURLException{
+		var expected = GQLResponse.<VideoPlayerStreamInfoOverlayChannelData> builder()
+				.extensions(Map.of(
+						"durationMilliseconds", 58,
+						"operationName", "VideoPlayerStreamInfoOverlayChannel",
+						"requestID", "request-id"
+				))
+				.data(VideoPlayerStreamInfoOverlayChannelData.builder()
+						.user(User.builder()
+								.id("123456789")
+								.login("streamer")
+								.profileImageUrl(new URL("https://google.com/streamer/profile"))
+								.broadcastSettings(BroadcastSettings.builder()
+										.game(Game.builder()
+												.id("123")
+												.name("game")
+												.build())
+										.build())
+								.build())
+						.build())
+				.build();
+		
+		expectValidRequestOkWithIntegrityOk("api/gql/gql/batch_videoPlayerStreamInfoOverlayChannel.json");
+		
+		assertThat(tested.postGqlRequests(List.of(
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_1),
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_2)
+		))).containsExactly(Optional.of(expected), Optional.empty());
+		
+		verifyAll();
+	}
+	
+	@Test
+	void missingResponses(){
+		expectValidRequestOkWithIntegrityOk("api/gql/gql/batch_videoPlayerStreamInfoOverlayChannel_partial.json");
+		
+		var result = tested.postGqlRequests(List.of(
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_1),
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_2)
+		));
+		
+		assertThat(result).hasSize(2);
+		assertThat(result.get(0)).isPresent();
+		assertThat(result.get(1)).isEmpty();
+		
+		verifyAll();
+	}
+	
+	@Test
+	void unexpectedBody(){
+		expectBodyRequestOkWithIntegrityOk(getValidRequest(), "api/gql/gql/videoPlayerStreamInfoOverlayChannel_offline.json");
+		
+		assertThat(tested.postGqlRequests(List.of(
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_1),
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_2)
+		))).containsExactly(Optional.empty(), Optional.empty());
+		
+		verifyAll();
+	}
+	
+	@Test
+	void invalidCredentials(){
+		expectValidRequestWithIntegrityOk(401, "api/gql/gql/error_invalidAuth.json");
+		
+		assertThatThrownBy(() -> tested.postGqlRequests(List.of(
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_1),
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_2)
+		))).isInstanceOf(RuntimeException.class);
+		
+		verifyAll();
+	}
+	
+	@Test
+	void invalidRequest(){
+		expectValidRequestWithIntegrityOk(500, null);
+		
+		assertThat(tested.postGqlRequests(List.of(
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_1),
+				new VideoPlayerStreamInfoOverlayChannelOperation(USERNAME_2)
+		))).containsExactly(Optional.empty(), Optional.empty());
+		
+		verifyAll();
+	}
+	
+	@Override
+	protected String getValidRequest(){
+		var operation = "{\"extensions\":{\"persistedQuery\":{\"sha256Hash\":\"a5f2e34d626a9f4f5c0204f910bab2194948a9502089be558bb6e779a9e1b3d2\",\"version\":1}},\"operationName\":\"VideoPlayerStreamInfoOverlayChannel\",\"variables\":{\"channel\":\"%s\"}}";
+		return "[" + operation.formatted(USERNAME_1) + "," + operation.formatted(USERNAME_2) + "]";
+	}
+}
@@ -0,0 +1,133 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IIntegrityProvider;
+import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityException;
+import fr.rakambda.channelpointsminer.miner.api.passport.TwitchLogin;
+import kong.unirest.core.UnirestInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GQLApiCircuitBreakerTest extends AbstractGQLTest{
+	private static final String USERNAME = "username";
+	private static final String PROBE_USERNAME = "probe";
+	private static final String NEXT_USERNAME = "next";
+	private static final String RAID_ID = "raid-id";
+	
+	private final GQLCircuitBreaker circuitBreaker = spy(new GQLCircuitBreaker(1, Duration.ZERO, Duration.ZERO, 4));
+	
+	@Override
+	protected GQLApi createTested(TwitchLogin twitchLogin, UnirestInstance unirestInstance, IIntegrityProvider integrityProvider){
+		return new GQLApi(twitchLogin, unirestInstance, integrityProvider, 0, 1, circuitBreaker);
+	}
+	
+	@BeforeEach
+	void openCircuit(){
+		setupIntegrityOk();
+		expectGqlRequest(getRequest(USERNAME), 500, null);
+		
+		assertThat(tested.reportMenuItem(USERNAME)).isEmpty();
+	}
+	
+	@Test
+	void probeWithClientError(){
+		expectGqlRequest(getRequest(PROBE_USERNAME), 400, null);
+		
+		assertThat(tested.reportMenuItem(PROBE_USERNAME)).isEmpty();
+		
+		assertNextRequestSent();
+	}
+	
+	@Test
+	void probeWithUnexpectedError(){
+		expectGqlRequest(getRequest(PROBE_USERNAME), 200, "api/gql/gql/error_invalidRequest.json");
+		
+		assertThat(tested.reportMenuItem(PROBE_USERNAME)).isEmpty();
+		
+		assertNextRequestSent();
+	}
+	
+	@Test
+	void probeWithIntegrityError(){
+		expectGqlRequest(getRequest(PROBE_USERNAME), 200, "api/gql/gql/error_failedIntegrity.json");
+		
+		assertThat(tested.reportMenuItem(PROBE_USERNAME)).isEmpty();
+		
+		assertNextRequestSent();
+	}
+	
+	@Test
+	void probeWithUndecodableResponse(){
+		expectGqlRequest(getRequest(PROBE_USERNAME), 200, null);
+		
+		assertThat(tested.reportMenuItem(PROBE_USERNAME)).isEmpty();
+		
+		assertNextRequestSent();
+	}
+	
+	@Test
+	void probeWithInvalidCredentials(){
+		expectGqlRequest(getRequest(PROBE_USERNAME), 401, "api/gql/gql/error_invalidAuth.json");
+		
+		assertThrows(RuntimeException.class, () -> tested.reportMenuItem(PROBE_USERNAME));
+		
+		assertNextRequestSent();
+	}
+	
+	@Test
+	void probeWithIntegrityProviderFailure() throws IntegrityException{
+		var integrity = integrityProvider.getIntegrity();
+		when(integrityProvider.getIntegrity()).thenThrow(new IntegrityException(500, "For tests")).thenReturn(integrity);
+		
+		assertThrows(RuntimeException.class, () -> tested.reportMenuItem(PROBE_USERNAME));
+		
+		verify(circuitBreaker).onFailure("ReportMenuItem");
+		assertNextRequestSent();
+	}
+	
+	@Test
+	void rejectedWhenSuspended(){
+		doReturn(CompletableFuture.failedFuture(new GQLRequestRejectedException("ReportMenuItem"))).when(circuitBreaker).acquire("ReportMenuItem");
+		
+		assertThrows(GQLRequestRejectedException.class, () -> tested.reportMenuItem(NEXT_USERNAME));
+		
+		verifyAll();
+	}
+	
+	@Test
+	void mutationsAreNotLimited(){
+		expectGqlRequest("{\"extensions\":{\"persistedQuery\":{\"sha256Hash\":\"c6a332a86d1087fbbb1a8623aa01bd1313d2386e7c63be60fdb2d1901f01a4ae\",\"version\":1}},\"operationName\":\"JoinRaid\",\"variables\":{\"input\":{\"raidID\":\"%s\"}}}".formatted(RAID_ID), 500, null);
+		
+		assertThat(tested.joinRaid(RAID_ID)).isEmpty();
+		assertThat(tested.joinRaid(RAID_ID)).isEmpty();
+		
+		verify(circuitBreaker, never()).acquire("JoinRaid");
+		verify(circuitBreaker, never()).onFailure("JoinRaid");
+		verifyAll();
+	}
+	
+	private void assertNextRequestSent(){
+		expectGqlRequest(getRequest(NEXT_USERNAME), 200, "api/gql/gql/reportMenuItem_online.json");
+		
+		assertThat(tested.reportMenuItem(NEXT_USERNAME)).isPresent();
+		
+		verifyAll();
+	}
+	
+	@Override
+	protected String getValidRequest(){
+		return getRequest(USERNAME);
+	}
+	
+	private static String getRequest(String username){
+		return "{\"extensions\":{\"persistedQuery\":{\"sha256Hash\":\"8f3628981255345ca5e5453dfd844efffb01d6413a9931498836e6268692a30c\",\"version\":1}},\"operationName\":\"ReportMenuItem\",\"variables\":{\"channelLogin\":\"%s\"}}".formatted(username);
+	}
+}
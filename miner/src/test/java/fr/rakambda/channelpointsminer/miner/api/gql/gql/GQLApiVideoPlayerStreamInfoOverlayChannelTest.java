@@ -84,8 +84,38 @@ class GQLApiVideoPlayerStreamInfoOverlayChannelTest extends AbstractGQLTest{
 		verifyAll();
 	}
 	
+	@Test
+	void nominalOfflineAsync(UnirestMock unirest) throws MalformedURLException{
+		var expected = GQLResponse.<VideoPlayerStreamInfoOverlayChannelData> builder()
+				.extensions(Map.of(
+						"durationMilliseconds", 58,
+						"operationName", "VideoPlayerStreamInfoOverlayChannel",
+						"requestID", "request-id"
+				))
+				.data(VideoPlayerStreamInfoOverlayChannelData.builder()
+						.user(User.builder()
+								.id("123456789")
+								.login("streamer")
+								.profileImageUrl(new URL("https://google.com/streamer/profile"))
+								.broadcastSettings(BroadcastSettings.builder()
+										.game(Game.builder()
+												.id("123")
+												.name("game")
+												.build())
+										.build())
+								.build())
+						.build())
+				.build();
+		
+		expectValidRequestOkWithIntegrityOk("api/gql/gql/videoPlayerStreamInfoOverlayChannel_offline.json");
+		
+		assertThat(tested.videoPlayerStreamInfoOverlayChannelAsync(USERNAME).join()).contains(expected);
+		
+		verifyAll();
+	}
+	
 	@Override
 	protected String getValidRequest(){
 		return "{\"extensions\":{\"persistedQuery\":{\"sha256Hash\":\"a5f2e34d626a9f4f5c0204f910bab2194948a9502089be558bb6e779a9e1b3d2\",\"version\":1}},\"operationName\":\"VideoPlayerStreamInfoOverlayChannel\",\"variables\":{\"channel\":\"%s\"}}".formatted(USERNAME);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.IGQLOperation;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.channelpointscontext.ChannelPointsContextOperation;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ParallelizableTest
+class GQLBatcherTest{
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+	
+	private final List<List<IGQLOperation<?>>> sentBatches = new CopyOnWriteArrayList<>();
+	
+	@Test
+	void singleOperation(){
+		var tested = new GQLBatcher(this::send, 10, 5);
+		var operation = new ChannelPointsContextOperation("username");
+		
+		assertThat(tested.submit(operation).join()).isPresent().get()
+				.extracting(GQLResponse::getExtensions)
+				.isEqualTo(Map.of("operationName", operation.getOperationName(), "username", "username"));
+		assertThat(sentBatches).containsExactly(List.of(operation));
+	}
+	
+	@Test
+	void fullBatchIsSentTogether(){
+		var tested = new GQLBatcher(this::send, 60_000, 2);
+		var operation1 = new ChannelPointsContextOperation("username1");
+		var operation2 = new ChannelPointsContextOperation("username2");
+		
+		var result1 = tested.submit(operation1);
+		assertThat(result1).isNotDone();
+		
+		var result2 = tested.submit(operation2);
+		
+		assertThat(result1.join()).isPresent().get()
+				.extracting(GQLResponse::getExtensions)
+				.isEqualTo(Map.of("operationName", operation1.getOperationName(), "username", "username1"));
+		assertThat(result2.join()).isPresent().get()
+				.extracting(GQLResponse::getExtensions)
+				.isEqualTo(Map.of("operationName", operation2.getOperationName(), "username", "username2"));
+		assertThat(sentBatches).hasSize(1);
+		assertThat(sentBatches.getFirst()).containsExactly(operation1, operation2);
+	}
+	
+	@Test
+	void missingResponse(){
+		var tested = new GQLBatcher(operations -> {
+			sentBatches.add(operations);
+			return CompletableFuture.completedFuture(List.of());
+		}, 10, 5);
+		
+		assertThat(tested.submit(new ChannelPointsContextOperation("username")).join()).isEmpty();
+		assertThat(sentBatches).hasSize(1);
+	}
+	
+	@Test
+	void senderFailure(){
+		var exception = new IllegalStateException("For tests");
+		var tested = new GQLBatcher(operations -> CompletableFuture.failedFuture(exception), 10, 5);
+		
+		assertThat(tested.submit(new ChannelPointsContextOperation("username"))).failsWithin(TIMEOUT)
+				.withThrowableOfType(ExecutionException.class)
+				.havingCause().isSameAs(exception);
+	}
+	
+	@Test
+	void senderException(){
+		var exception = new IllegalStateException("For tests");
+		var tested = new GQLBatcher(operations -> {
+			throw exception;
+		}, 10, 5);
+		
+		assertThat(tested.submit(new ChannelPointsContextOperation("username"))).failsWithin(TIMEOUT)
+				.withThrowableOfType(ExecutionException.class)
+				.havingCause().isSameAs(exception);
+	}
+	
+	private CompletableFuture<List<Optional<GQLResponse<?>>>> send(List<IGQLOperation<?>> operations){
+		sentBatches.add(operations);
+		return CompletableFuture.completedFuture(operations.stream()
+				.<Optional<GQLResponse<?>>> map(operation -> Optional.of(GQLResponse.builder()
+						.extensions(Map.of(
+								"operationName", operation.getOperationName(),
+								"username", operation.getVariables().get("channelLogin")
+						))
+						.build()))
+				.toList());
+	}
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -136,6 +137,48 @@ class GQLChannelFollowsTest extends AbstractGQLTest{
 		verifyAll();
 	}
 	
+	@Test
+	void followsPagesStoppedByConsumer(){
+		expectBodyRequestOkWithIntegrityOk(VALID_QUERY.formatted(ALL_LIMIT, ORDER), "api/gql/gql/channelFollows_severalFollows.json");
+		
+		var pages = new ArrayList<List<User>>();
+		assertThat(tested.channelFollowsPages(page -> {
+			pages.add(page);
+			return false;
+		})).isTrue();
+		
+		assertThat(pages).hasSize(1);
+		assertThat(pages.getFirst()).hasSize(2);
+		
+		verifyAll();
+	}
+	
+	@Test
+	void followsPagesAreConsumedOnCallingThread(){
+		expectBodyRequestOkWithIntegrityOk(VALID_QUERY.formatted(ALL_LIMIT, ORDER), "api/gql/gql/channelFollows_severalFollows.json");
+		expectBodyRequestOk(VALID_QUERY_WITH_CURSOR.formatted("cursor-id-2", ALL_LIMIT, ORDER), "api/gql/gql/channelFollows_oneFollow.json");
+		
+		var threads = new ArrayList<Thread>();
+		assertThat(tested.channelFollowsPages(page -> {
+			threads.add(Thread.currentThread());
+			return true;
+		})).isTrue();
+		
+		assertThat(threads).hasSize(2).containsOnly(Thread.currentThread());
+		
+		verifyAll();
+	}
+	
+	@Test
+	void followsPagesEmptyResponse(){
+		setupIntegrityOk();
+		expectGqlRequest(VALID_QUERY.formatted(ALL_LIMIT, ORDER), 403, null);
+		
+		assertThat(tested.channelFollowsPages(page -> true)).isFalse();
+		
+		verifyAll();
+	}
+	
 	@Override
 	protected String getValidRequest(){
 		return VALID_QUERY.formatted(LIMIT, ORDER);
@@ -0,0 +1,247 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockStatic;
+
+@ParallelizableTest
+class GQLCircuitBreakerTest{
+	private static final String OPERATION = "operation";
+	private static final String OTHER_OPERATION = "other-operation";
+	private static final Instant NOW = Instant.parse("2020-05-17T12:14:20.000Z");
+	private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+	private static final Duration MAX_OPEN_DURATION = Duration.ofSeconds(60);
+	
+	private final GQLCircuitBreaker tested = new GQLCircuitBreaker(3, OPEN_DURATION, MAX_OPEN_DURATION, 4);
+	
+	@Test
+	void concurrencyLimit(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			for(var i = 0; i < 4; i++){
+				assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			}
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+			assertThat(tested.tryAcquire(OTHER_OPERATION)).isTrue();
+			
+			tested.release(OPERATION);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void acquireWaitsForPermit(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			for(var i = 0; i < 4; i++){
+				assertThat(tested.acquire(OPERATION)).isCompleted();
+			}
+			var waiting = tested.acquire(OPERATION);
+			assertThat(waiting).isNotDone();
+			
+			tested.release(OPERATION);
+			assertThat(waiting).isCompleted();
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+		}
+	}
+	
+	@Test
+	void acquireRejectedWhenSuspended(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			open();
+			
+			assertThat(tested.acquire(OPERATION)).failsWithin(Duration.ZERO)
+					.withThrowableOfType(ExecutionException.class)
+					.withCauseInstanceOf(GQLRequestRejectedException.class);
+		}
+	}
+	
+	@Test
+	void waitingRequestsRejectedWhenSuspended(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			for(var i = 0; i < 4; i++){
+				assertThat(tested.acquire(OPERATION)).isCompleted();
+			}
+			var waiting = tested.acquire(OPERATION);
+			open();
+			
+			assertThat(waiting).isCompletedExceptionally();
+		}
+	}
+	
+	@Test
+	void failureDecreasesConcurrencyLimit(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			tested.onFailure(OPERATION);
+			
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+		}
+	}
+	
+	@Test
+	void successIncreasesConcurrencyLimit(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			tested.onFailure(OPERATION);
+			tested.onFailure(OPERATION);
+			
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+			
+			tested.onSuccess(OPERATION);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+		}
+	}
+	
+	@Test
+	void opensAfterConsecutiveFailures(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			tested.onFailure(OPERATION);
+			tested.onFailure(OPERATION);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			tested.release(OPERATION);
+			
+			tested.onFailure(OPERATION);
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+			assertThat(tested.tryAcquire(OTHER_OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void successResetsConsecutiveFailures(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			tested.onFailure(OPERATION);
+			tested.onFailure(OPERATION);
+			tested.onSuccess(OPERATION);
+			tested.onFailure(OPERATION);
+			
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void halfOpenAllowsSingleProbe(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			open();
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+		}
+	}
+	
+	@Test
+	void probeSuccessCloses(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			open();
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			tested.onSuccess(OPERATION);
+			tested.release(OPERATION);
+			
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void probeFailureReopensLonger(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			open();
+			
+			var probeTime = NOW.plus(OPEN_DURATION);
+			timeFactory.when(TimeFactory::now).thenReturn(probeTime);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			tested.onFailure(OPERATION);
+			tested.release(OPERATION);
+			
+			timeFactory.when(TimeFactory::now).thenReturn(probeTime.plus(OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+			
+			timeFactory.when(TimeFactory::now).thenReturn(probeTime.plus(MAX_OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void probeWithoutVerdictReopens(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			open();
+			
+			var probeTime = NOW.plus(OPEN_DURATION);
+			timeFactory.when(TimeFactory::now).thenReturn(probeTime);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			tested.release(OPERATION);
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+			
+			timeFactory.when(TimeFactory::now).thenReturn(probeTime.plus(OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void probeWaitsForInFlightRequests(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+			open();
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isFalse();
+			
+			tested.release(OPERATION);
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	@Test
+	void openDurationIsCapped(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			open();
+			
+			var time = NOW;
+			for(var i = 0; i < 3; i++){
+				time = time.plus(MAX_OPEN_DURATION);
+				timeFactory.when(TimeFactory::now).thenReturn(time);
+				assertThat(tested.tryAcquire(OPERATION)).isTrue();
+				tested.onFailure(OPERATION);
+				tested.release(OPERATION);
+			}
+			
+			timeFactory.when(TimeFactory::now).thenReturn(time.plus(MAX_OPEN_DURATION));
+			assertThat(tested.tryAcquire(OPERATION)).isTrue();
+		}
+	}
+	
+	private void open(){
+		for(var i = 0; i < 3; i++){
+			tested.onFailure(OPERATION);
+		}
+		assertThat(tested.tryAcquire(OPERATION)).isFalse();
+	}
+}
@@ -0,0 +1,75 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLMetrics.ErrorClass;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@ParallelizableTest
+class GQLMetricsTest{
+	private static final String OPERATION = "operation";
+	private static final String OTHER_OPERATION = "other-operation";
+	
+	private final GQLMetrics tested = new GQLMetrics();
+	
+	@Test
+	void empty(){
+		assertThat(tested.getSnapshot()).isEmpty();
+	}
+	
+	@Test
+	void recordsByOperation(){
+		tested.record(OPERATION, Duration.ofMillis(40), 200, 100, null);
+		tested.record(OPERATION, Duration.ofMillis(300), 200, 300, ErrorClass.SERVICE);
+		tested.record(OTHER_OPERATION, Duration.ofMillis(20000), 500, 0, ErrorClass.HTTP);
+		
+		var snapshot = tested.getSnapshot();
+		assertThat(snapshot).containsOnlyKeys(OPERATION, OTHER_OPERATION);
+		
+		var operation = snapshot.get(OPERATION);
+		assertThat(operation.requests()).isEqualTo(2);
+		assertThat(operation.totalLatency()).isEqualTo(340);
+		assertThat(operation.maxLatency()).isEqualTo(300);
+		assertThat(operation.averageLatency()).isEqualTo(170);
+		assertThat(operation.latencyBuckets()).containsExactly(1, 0, 0, 1, 0, 0, 0, 0, 0);
+		assertThat(operation.payloadSize()).isEqualTo(400);
+		assertThat(operation.averagePayloadSize()).isEqualTo(200);
+		assertThat(operation.statuses()).containsExactly(entry(200, 2L));
+		assertThat(operation.errors()).containsExactly(entry(ErrorClass.SERVICE, 1L));
+		assertThat(operation.errorCount()).isEqualTo(1);
+		
+		var otherOperation = snapshot.get(OTHER_OPERATION);
+		assertThat(otherOperation.requests()).isEqualTo(1);
+		assertThat(otherOperation.latencyBuckets()).containsExactly(0, 0, 0, 0, 0, 0, 0, 0, 1);
+		assertThat(otherOperation.statuses()).containsExactly(entry(500, 1L));
+		assertThat(otherOperation.errors()).containsExactly(entry(ErrorClass.HTTP, 1L));
+	}
+	
+	@Test
+	void latencyPercentile(){
+		for(var i = 0; i < 90; i++){
+			tested.record(OPERATION, Duration.ofMillis(80), 200, 0, null);
+		}
+		for(var i = 0; i < 10; i++){
+			tested.record(OPERATION, Duration.ofMillis(4000), 200, 0, null);
+		}
+		tested.record(OPERATION, Duration.ofMillis(15000), 200, 0, null);
+		
+		var operation = tested.getSnapshot().get(OPERATION);
+		assertThat(operation.latencyPercentile(0.5)).isEqualTo(100);
+		assertThat(operation.latencyPercentile(0.95)).isEqualTo(5000);
+		assertThat(operation.latencyPercentile(1)).isEqualTo(15000);
+	}
+	
+	@Test
+	void snapshotIsNotUpdated(){
+		tested.record(OPERATION, Duration.ofMillis(40), 200, 100, null);
+		var snapshot = tested.getSnapshot();
+		
+		tested.record(OPERATION, Duration.ofMillis(40), 200, 100, null);
+		
+		assertThat(snapshot.get(OPERATION).requests()).isEqualTo(1);
+	}
+}
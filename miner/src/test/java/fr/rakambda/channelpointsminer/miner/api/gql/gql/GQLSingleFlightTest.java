@@ -0,0 +1,96 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.gql;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.IGQLOperation;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.channelpointscontext.ChannelPointsContextData;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.channelpointscontext.ChannelPointsContextOperation;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ParallelizableTest
+class GQLSingleFlightTest{
+	private final GQLSingleFlight tested = new GQLSingleFlight();
+	private final List<IGQLOperation<?>> sentOperations = new CopyOnWriteArrayList<>();
+	private final CompletableFuture<Optional<GQLResponse<ChannelPointsContextData>>> response = new CompletableFuture<>();
+	
+	@Test
+	void identicalOperationsShareRequest(){
+		var result1 = tested.submit(new ChannelPointsContextOperation("username"), this::send);
+		var result2 = tested.submit(new ChannelPointsContextOperation("username"), this::send);
+		
+		assertThat(result1).isNotDone();
+		assertThat(result2).isNotDone();
+		
+		var expected = Optional.of(GQLResponse.<ChannelPointsContextData> builder().extensions(Map.of("username", "username")).build());
+		response.complete(expected);
+		
+		assertThat(result1.join()).isEqualTo(expected);
+		assertThat(result2.join()).isEqualTo(expected);
+		assertThat(sentOperations).hasSize(1);
+	}
+	
+	@Test
+	void differentOperationsAreSentSeparately(){
+		tested.submit(new ChannelPointsContextOperation("username1"), this::send);
+		tested.submit(new ChannelPointsContextOperation("username2"), this::send);
+		
+		assertThat(sentOperations).hasSize(2);
+	}
+	
+	@Test
+	void completedOperationIsSentAgain(){
+		response.complete(Optional.empty());
+		
+		assertThat(tested.submit(new ChannelPointsContextOperation("username"), this::send).join()).isEmpty();
+		assertThat(tested.submit(new ChannelPointsContextOperation("username"), this::send).join()).isEmpty();
+		assertThat(sentOperations).hasSize(2);
+	}
+	
+	@Test
+	void failureIsShared(){
+		var exception = new IllegalStateException("For tests");
+		
+		var result1 = tested.submit(new ChannelPointsContextOperation("username"), this::send);
+		var result2 = tested.submit(new ChannelPointsContextOperation("username"), this::send);
+		response.completeExceptionally(exception);
+		
+		assertThatThrownBy(result1::join).isInstanceOf(CompletionException.class).hasCause(exception);
+		assertThatThrownBy(result2::join).isInstanceOf(CompletionException.class).hasCause(exception);
+		assertThat(sentOperations).hasSize(1);
+	}
+	
+	@Test
+	void senderException(){
+		var exception = new IllegalStateException("For tests");
+		
+		var result = tested.submit(new ChannelPointsContextOperation("username"), operation -> {
+			throw exception;
+		});
+		
+		assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasCause(exception);
+	}
+	
+	@Test
+	void cancellingCallerDoesNotAffectOthers(){
+		var result1 = tested.submit(new ChannelPointsContextOperation("username"), this::send);
+		var result2 = tested.submit(new ChannelPointsContextOperation("username"), this::send);
+		
+		result1.cancel(true);
+		response.complete(Optional.empty());
+		
+		assertThat(result2.join()).isEmpty();
+	}
+	
+	private CompletableFuture<Optional<GQLResponse<ChannelPointsContextData>>> send(IGQLOperation<ChannelPointsContextData> operation){
+		sentOperations.add(operation);
+		return response;
+	}
+}
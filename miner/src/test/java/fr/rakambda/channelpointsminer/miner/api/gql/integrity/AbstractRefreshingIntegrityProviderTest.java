@@ -0,0 +1,111 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.integrity;
+
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ParallelizableTest
+class AbstractRefreshingIntegrityProviderTest{
+	private static final IntegrityData INTEGRITY = IntegrityData.builder()
+			.token("token")
+			.expiration(Instant.now().plus(1, ChronoUnit.DAYS))
+			.build();
+	
+	@Test
+	void concurrentCallersShareQuery() throws Exception{
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		var tested = new TestProvider(() -> {
+			started.countDown();
+			assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+			return INTEGRITY;
+		});
+		
+		var first = CompletableFuture.supplyAsync(tested::getIntegrityUnchecked);
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		var second = CompletableFuture.supplyAsync(tested::getIntegrityUnchecked);
+		release.countDown();
+		
+		assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(INTEGRITY);
+		assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(INTEGRITY);
+		assertThat(tested.getQueries()).isEqualTo(1);
+	}
+	
+	@Test
+	void integrityIsReused() throws IntegrityException{
+		var tested = new TestProvider(() -> INTEGRITY);
+		
+		assertThat(tested.getIntegrity()).contains(INTEGRITY);
+		assertThat(tested.getIntegrity()).contains(INTEGRITY);
+		assertThat(tested.getQueries()).isEqualTo(1);
+	}
+	
+	@Test
+	void invalidatedIntegrityIsQueriedAgain() throws IntegrityException{
+		var tested = new TestProvider(() -> INTEGRITY);
+		
+		assertThat(tested.getIntegrity()).contains(INTEGRITY);
+		tested.invalidate();
+		assertThat(tested.getIntegrity()).contains(INTEGRITY);
+		assertThat(tested.getQueries()).isEqualTo(2);
+	}
+	
+	@Test
+	void queryErrorIsThrown(){
+		var exception = new IntegrityException("For tests");
+		var tested = new TestProvider(() -> {
+			throw exception;
+		});
+		
+		assertThat(assertThrows(IntegrityException.class, tested::getIntegrity)).isSameAs(exception);
+	}
+	
+	private interface Query{
+		IntegrityData query() throws Exception;
+	}
+	
+	private static class TestProvider extends AbstractRefreshingIntegrityProvider{
+		private final Query query;
+		private final AtomicInteger queries = new AtomicInteger();
+		
+		private TestProvider(Query query){
+			this.query = query;
+		}
+		
+		@Override
+		@NotNull
+		protected IntegrityData queryIntegrity() throws IntegrityException{
+			queries.incrementAndGet();
+			try{
+				return query.query();
+			}
+			catch(IntegrityException e){
+				throw e;
+			}
+			catch(Exception e){
+				throw new IntegrityException("For tests", e);
+			}
+		}
+		
+		private IntegrityData getIntegrityUnchecked(){
+			try{
+				return getIntegrity().orElseThrow();
+			}
+			catch(IntegrityException e){
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		private int getQueries(){
+			return queries.get();
+		}
+	}
+}
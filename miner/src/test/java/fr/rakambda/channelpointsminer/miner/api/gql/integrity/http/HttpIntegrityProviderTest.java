@@ -5,6 +5,7 @@ import fr.rakambda.channelpointsminer.miner.api.gql.integrity.IntegrityException
 import fr.rakambda.channelpointsminer.miner.api.gql.version.IVersionProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.version.VersionException;
 import fr.rakambda.channelpointsminer.miner.api.passport.TwitchLogin;
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import fr.rakambda.channelpointsminer.miner.tests.TestUtils;
 import fr.rakambda.channelpointsminer.miner.tests.UnirestMock;
@@ -15,12 +16,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import static kong.unirest.core.HttpMethod.POST;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -86,6 +90,49 @@ class HttpIntegrityProviderTest{
         unirestMock.verifyAll();
     }
     
+    @Test
+    void integrityIsRefreshedInBackground() throws IntegrityException{
+        try(var timeFactory = mockStatic(TimeFactory.class)){
+            timeFactory.when(TimeFactory::now).thenReturn(Instant.ofEpochMilli(9999999999999L).minus(Duration.ofMinutes(20)));
+            
+            setupClientVersionOk();
+            setupIntegrityOk();
+            
+            var integrity = tested.getIntegrity();
+            assertValidData(integrity);
+            unirestMock.verifyAll();
+            unirestMock.reset();
+            
+            setupIntegrityOk();
+            integrity = tested.getIntegrity();
+            assertValidData(integrity);
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> unirestMock.verifyAll());
+        }
+    }
+    
+    @Test
+    void integrityBackgroundRefreshFailureKeepsCurrent() throws IntegrityException{
+        try(var timeFactory = mockStatic(TimeFactory.class)){
+            timeFactory.when(TimeFactory::now).thenReturn(Instant.ofEpochMilli(9999999999999L).minus(Duration.ofMinutes(20)));
+            
+            setupClientVersionOk();
+            setupIntegrityOk();
+            
+            var integrity = tested.getIntegrity();
+            assertValidData(integrity);
+            unirestMock.verifyAll();
+            unirestMock.reset();
+            
+            expectIntegrityRequest(500, null);
+            integrity = tested.getIntegrity();
+            assertValidData(integrity);
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> unirestMock.verifyAll());
+            
+            integrity = tested.getIntegrity();
+            assertValidData(integrity);
+        }
+    }
+    
     @Test
     void integrityIsInvalidated() throws IntegrityException{
         setupClientVersionOk();
@@ -0,0 +1,113 @@
+package fr.rakambda.channelpointsminer.miner.api.gql.version;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ParallelizableTest
+@ExtendWith(MockitoExtension.class)
+class CachedVersionProviderTest{
+	private static final String VERSION = "version";
+	private static final String NEW_VERSION = "new-version";
+	private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+	private static final Instant NOW = Instant.parse("2020-05-17T12:14:20.000Z");
+	
+	@TempDir
+	private Path tempDir;
+	
+	@Mock
+	private IVersionProvider delegate;
+	
+	@Test
+	void versionIsResolvedOnce() throws VersionException{
+		when(delegate.getVersion()).thenReturn(VERSION);
+		
+		var tested = new CachedVersionProvider(delegate, TIME_TO_LIVE, null);
+		
+		assertThat(tested.getVersion()).isEqualTo(VERSION);
+		assertThat(tested.getVersion()).isEqualTo(VERSION);
+		verify(delegate).getVersion();
+	}
+	
+	@Test
+	void versionIsPersisted() throws VersionException{
+		when(delegate.getVersion()).thenReturn(VERSION);
+		var file = tempDir.resolve("version.json");
+		
+		assertThat(new CachedVersionProvider(delegate, TIME_TO_LIVE, file).getVersion()).isEqualTo(VERSION);
+		assertThat(new CachedVersionProvider(delegate, TIME_TO_LIVE, file).getVersion()).isEqualTo(VERSION);
+		
+		verify(delegate).getVersion();
+		assertThat(tempDir).isDirectoryContaining(path -> path.equals(file))
+				.isDirectoryNotContaining("glob:**.tmp");
+	}
+	
+	@Test
+	void outdatedVersionIsRefreshedInBackground() throws VersionException{
+		when(delegate.getVersion()).thenReturn(VERSION).thenReturn(NEW_VERSION);
+		
+		var tested = new CachedVersionProvider(delegate, TIME_TO_LIVE, null);
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			assertThat(tested.getVersion()).isEqualTo(VERSION);
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(TIME_TO_LIVE));
+			assertThat(tested.getVersion()).isEqualTo(VERSION);
+			verify(delegate, timeout(10000).times(2)).getVersion();
+			await().pollInSameThread().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(tested.getVersion()).isEqualTo(NEW_VERSION));
+		}
+	}
+	
+	@Test
+	void failedBackgroundRefreshKeepsVersion() throws VersionException{
+		when(delegate.getVersion()).thenReturn(VERSION).thenThrow(new VersionException(500, "For tests"));
+		
+		var tested = new CachedVersionProvider(delegate, TIME_TO_LIVE, null);
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			assertThat(tested.getVersion()).isEqualTo(VERSION);
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(TIME_TO_LIVE));
+			assertThat(tested.getVersion()).isEqualTo(VERSION);
+			verify(delegate, timeout(10000).times(2)).getVersion();
+			
+			assertThat(tested.getVersion()).isEqualTo(VERSION);
+		}
+	}
+	
+	@Test
+	void errorWithoutKnownVersion() throws VersionException{
+		when(delegate.getVersion()).thenThrow(new VersionException(500, "For tests"));
+		
+		var tested = new CachedVersionProvider(delegate, TIME_TO_LIVE, null);
+		
+		assertThrows(VersionException.class, tested::getVersion);
+	}
+	
+	@Test
+	void invalidFileIsIgnored() throws Exception{
+		when(delegate.getVersion()).thenReturn(VERSION);
+		var file = tempDir.resolve("version.json");
+		Files.writeString(file, "invalid");
+		
+		var tested = new CachedVersionProvider(delegate, TIME_TO_LIVE, file);
+		
+		assertThat(tested.getVersion()).isEqualTo(VERSION);
+		verify(delegate).getVersion();
+	}
+}
@@ -0,0 +1,107 @@
+package fr.rakambda.channelpointsminer.miner.api.twitch;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockStatic;
+
+@ParallelizableTest
+class SpadeUrlResolverTest{
+	private static final Duration TTL = Duration.ofHours(1);
+	private static final Instant NOW = Instant.parse("2024-05-15T09:10:00Z");
+	
+	private final SpadeUrlResolver tested = new SpadeUrlResolver(TTL);
+	private final AtomicInteger fetchCount = new AtomicInteger();
+	
+	private URL spadeUrl;
+	private URL newSpadeUrl;
+	
+	@BeforeEach
+	void setUp() throws MalformedURLException{
+		spadeUrl = URI.create("https://spade.test/1").toURL();
+		newSpadeUrl = URI.create("https://spade.test/2").toURL();
+	}
+	
+	@Test
+	void fetchedOnce(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			assertThat(tested.resolve(() -> fetch(spadeUrl)).join()).contains(spadeUrl);
+			assertThat(tested.resolve(() -> fetch(newSpadeUrl)).join()).contains(spadeUrl);
+			
+			assertThat(fetchCount).hasValue(1);
+		}
+	}
+	
+	@Test
+	void concurrentResolutionsShareFetch(){
+		var pending = new CompletableFuture<Optional<URL>>();
+		
+		var first = tested.resolve(() -> {
+			fetchCount.incrementAndGet();
+			return pending;
+		});
+		var second = tested.resolve(() -> fetch(newSpadeUrl));
+		
+		assertThat(second).isSameAs(first);
+		assertThat(fetchCount).hasValue(1);
+	}
+	
+	@Test
+	void emptyResultIsNotKept(){
+		assertThat(tested.resolve(() -> fetch(null)).join()).isEmpty();
+		assertThat(tested.resolve(() -> fetch(spadeUrl)).join()).contains(spadeUrl);
+		
+		assertThat(fetchCount).hasValue(2);
+	}
+	
+	@Test
+	void expiredIsRefreshedInBackground(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			assertThat(tested.resolve(() -> fetch(spadeUrl)).join()).contains(spadeUrl);
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(TTL).plusSeconds(1));
+			assertThat(tested.resolve(() -> fetch(newSpadeUrl)).join()).contains(spadeUrl);
+			assertThat(tested.resolve(() -> fetch(spadeUrl)).join()).contains(newSpadeUrl);
+			
+			assertThat(fetchCount).hasValue(2);
+		}
+	}
+	
+	@Test
+	void invalidate(){
+		assertThat(tested.resolve(() -> fetch(spadeUrl)).join()).contains(spadeUrl);
+		
+		tested.invalidate(spadeUrl);
+		
+		assertThat(tested.resolve(() -> fetch(newSpadeUrl)).join()).contains(newSpadeUrl);
+		assertThat(fetchCount).hasValue(2);
+	}
+	
+	@Test
+	void invalidateOtherUrl(){
+		assertThat(tested.resolve(() -> fetch(spadeUrl)).join()).contains(spadeUrl);
+		
+		tested.invalidate(newSpadeUrl);
+		
+		assertThat(tested.resolve(() -> fetch(newSpadeUrl)).join()).contains(spadeUrl);
+		assertThat(fetchCount).hasValue(1);
+	}
+	
+	private CompletableFuture<Optional<URL>> fetch(URL url){
+		fetchCount.incrementAndGet();
+		return CompletableFuture.completedFuture(Optional.ofNullable(url));
+	}
+}
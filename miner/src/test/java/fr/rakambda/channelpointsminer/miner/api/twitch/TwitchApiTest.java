@@ -17,6 +17,9 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static kong.unirest.core.HttpMethod.GET;
 import static kong.unirest.core.HttpMethod.HEAD;
@@ -24,6 +27,7 @@ import static kong.unirest.core.HttpMethod.POST;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -177,6 +181,47 @@ class TwitchApiTest{
         unirest.verifyAll();
     }
     
+    @Test
+    void sendSerializedMinutesWatched(UnirestMock unirest){
+        var event1 = "{\"event\":\"minute-watched\",\"properties\":{\"broadcast_id\":\"b1\"}}";
+        var event2 = "{\"event\":\"minute-watched\",\"properties\":{\"broadcast_id\":\"b2\"}}";
+        var json = "[%s,%s]".formatted(event1, event2);
+        var expectedData = new String(Base64.getEncoder().encode(json.getBytes(UTF_8)));
+        
+        unirest.expect(POST, SPADE_URL)
+                .body("data=%s".formatted(expectedData))
+                .thenReturn()
+                .withStatus(204);
+        
+        assertThat(tested.sendSerializedPlayerEvents(spadeUrl, List.of(event1, event2))).isTrue();
+        
+        unirest.verifyAll();
+    }
+    
+    @Test
+    void sendMinutesWatchedNotSuccessInvalidatesSpadeUrl(UnirestMock unirest){
+        var spadeUrlResolver = mock(SpadeUrlResolver.class);
+        var testedWithResolver = new TwitchApi(unirest.getUnirestInstance(), spadeUrlResolver);
+        
+        unirest.expect(POST, SPADE_URL)
+                .thenReturn()
+                .withStatus(400);
+        
+        assertThat(testedWithResolver.sendSerializedPlayerEvents(spadeUrl, List.of("{}"))).isFalse();
+        
+        verify(spadeUrlResolver).invalidate(spadeUrl);
+    }
+    
+    @Test
+    void getSpadeUrlUsesResolver(UnirestMock unirest){
+        var spadeUrlResolver = mock(SpadeUrlResolver.class);
+        var testedWithResolver = new TwitchApi(unirest.getUnirestInstance(), spadeUrlResolver);
+        
+        when(spadeUrlResolver.resolve(any())).thenReturn(CompletableFuture.completedFuture(Optional.of(spadeUrl)));
+        
+        assertThat(testedWithResolver.getSpadeUrl(streamerUrl)).contains(spadeUrl);
+    }
+    
     @Test
     void sendMinutesWatchedJsonError(){
         try(var jacksonUtils = Mockito.mockStatic(JacksonUtils.class)){
@@ -212,6 +257,20 @@ class TwitchApiTest{
                 .get().isEqualTo(spadeUrl);
     }
     
+    @Test
+    void getSpadeUrlAsync(UnirestMock unirest){
+        unirest.expect(GET, STREAMER_URL)
+                .thenReturn(CONFIG_BODY)
+                .withStatus(200);
+        
+        unirest.expect(GET, CONFIG_URL)
+                .thenReturn(SPADE_BODY)
+                .withStatus(200);
+        
+        assertThat(tested.getSpadeUrlAsync(streamerUrl).join()).isPresent()
+                .get().isEqualTo(spadeUrl);
+    }
+    
     @Test
     void getSpadeUrlFromStreamerPage(UnirestMock unirest){
         unirest.expect(GET, STREAMER_URL)
@@ -402,4 +461,93 @@ class TwitchApiTest{
 		
 		assertThat(tested.openM3u8LastChunk(url)).isFalse();
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void getM3u8ChunkUrlUpdatesState(UnirestMock unirest) throws MalformedURLException{
+		var url = URI.create("https://stream.test/streamer.m3u8").toURL();
+		var state = new M3u8PlaylistState();
+		
+		unirest.expect(GET, url.toString())
+				.thenReturn(M3U8_PLAYLIST_BODY)
+				.withHeader("ETag", "\"etag\"")
+				.withStatus(200);
+		
+		unirest.expect(HEAD, M3U8_CHUNK_URL)
+				.thenReturn("")
+				.withStatus(200);
+		
+		assertThat(tested.openM3u8LastChunk(url, state)).isTrue();
+		
+		assertThat(state.getMediaSequence()).isEqualTo(4);
+		assertThat(state.getLastChunkUrl()).isEqualTo(URI.create(M3U8_CHUNK_URL).toURL());
+		assertThat(state.getEtag()).isEqualTo("\"etag\"");
+	}
+	
+	@Test
+	void getM3u8ChunkUrlNotModified(UnirestMock unirest) throws MalformedURLException{
+		var url = URI.create("https://stream.test/streamer.m3u8").toURL();
+		var state = new M3u8PlaylistState();
+		state.setEtag("\"etag\"");
+		state.setMediaSequence(4);
+		state.setLastChunkUrl(URI.create(M3U8_CHUNK_URL).toURL());
+		
+		unirest.expect(GET, url.toString())
+				.header("If-None-Match", "\"etag\"")
+				.thenReturn()
+				.withStatus(304);
+		
+		unirest.expect(HEAD, M3U8_CHUNK_URL)
+				.thenReturn("")
+				.withStatus(200);
+		
+		assertThat(tested.openM3u8LastChunk(url, state)).isTrue();
+		
+		assertThat(state.getMediaSequence()).isEqualTo(4);
+		assertThat(state.getEtag()).isEqualTo("\"etag\"");
+	}
+	
+	@Test
+	void getM3u8ChunkUrlNoNewSegment(UnirestMock unirest) throws MalformedURLException{
+		var url = URI.create("https://stream.test/streamer.m3u8").toURL();
+		var knownChunkUrl = "https://video-edge-stream.test/known.ts";
+		var state = new M3u8PlaylistState();
+		state.setMediaSequence(4);
+		state.setLastChunkUrl(URI.create(knownChunkUrl).toURL());
+		
+		unirest.expect(GET, url.toString())
+				.thenReturn(M3U8_PLAYLIST_BODY)
+				.withStatus(200);
+		
+		unirest.expect(HEAD, knownChunkUrl)
+				.thenReturn("")
+				.withStatus(200);
+		
+		assertThat(tested.openM3u8LastChunk(url, state)).isTrue();
+		
+		assertThat(state.getMediaSequence()).isEqualTo(4);
+		assertThat(state.getLastChunkUrl()).isEqualTo(URI.create(knownChunkUrl).toURL());
+	}
+	
+	@Test
+	void getM3u8ChunkUrlMediaSequenceWentBackwards(UnirestMock unirest) throws MalformedURLException{
+		var url = URI.create("https://stream.test/streamer.m3u8").toURL();
+		var state = new M3u8PlaylistState();
+		state.setEtag("\"old-etag\"");
+		state.setMediaSequence(150);
+		state.setLastChunkUrl(URI.create("https://video-edge-stream.test/old.ts").toURL());
+		
+		unirest.expect(GET, url.toString())
+				.thenReturn(M3U8_PLAYLIST_BODY)
+				.withStatus(200);
+		
+		unirest.expect(HEAD, M3U8_CHUNK_URL)
+				.thenReturn("")
+				.withStatus(200);
+		
+		assertThat(tested.openM3u8LastChunk(url, state)).isTrue();
+		
+		assertThat(state.getMediaSequence()).isEqualTo(4);
+		assertThat(state.getLastChunkUrl()).isEqualTo(URI.create(M3U8_CHUNK_URL).toURL());
+		assertThat(state.getEtag()).isNull();
+	}
+}
@@ -45,6 +45,7 @@ class TwitchPubSubWebSocketClientResponseTest{
 		
 		verify(listener, timeout(MESSAGE_TIMEOUT)).onWebSocketClosed(eq(tested), anyInt(), anyString(), anyBoolean());
 		assertThat(server.isReceivedClose()).isTrue();
+		assertThat(tested.isInvalidCredentials()).isTrue();
 	}
 	
 	@RepeatedIfExceptionsTest(repeats = 5, exceptions = ConditionTimeoutException.class)
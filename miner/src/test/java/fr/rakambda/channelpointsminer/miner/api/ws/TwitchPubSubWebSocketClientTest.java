@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.URI;
 import java.time.Instant;
+import java.util.Set;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.VIDEO_PLAYBACK_BY_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -165,6 +166,7 @@ class TwitchPubSubWebSocketClientTest{
 		tested.removeTopic(topic1);
 		server.awaitMessage();
 		assertThat(tested.getTopicCount()).isEqualTo(0);
+		assertThat(tested.isTopicListened(topic1)).isFalse();
 		assertThat(server.getReceivedMessages()).hasSize(1);
 		
 		server.reset();
@@ -174,6 +176,36 @@ class TwitchPubSubWebSocketClientTest{
 		assertThat(server.getReceivedMessages()).isEmpty();
 	}
 	
+	@Test
+	void removeTopicFromBatch(WebsocketMockServer server) throws InterruptedException{
+		tested.connectBlocking();
+		server.awaitMessage();
+		server.reset();
+		
+		var topic1 = Topic.builder()
+				.name(VIDEO_PLAYBACK_BY_ID)
+				.target("target1")
+				.build();
+		var topic2 = Topic.builder()
+				.name(VIDEO_PLAYBACK_BY_ID)
+				.target("target2")
+				.build();
+		
+		tested.listenTopic(new Topics(Set.of(topic1, topic2), null));
+		server.awaitMessage();
+		assertThat(tested.getTopicCount()).isEqualTo(2);
+		assertThat(server.getReceivedMessages()).hasSize(1);
+		
+		server.reset();
+		tested.removeTopic(topic1);
+		server.awaitMessage();
+		assertThat(tested.getTopicCount()).isEqualTo(1);
+		assertThat(tested.isTopicListened(topic1)).isFalse();
+		assertThat(tested.isTopicListened(topic2)).isTrue();
+		assertThat(tested.getTopics()).containsExactly(new Topics(topic2));
+		assertThat(server.getReceivedMessages()).hasSize(1);
+	}
+	
 	@BeforeEach
 	void setUp(WebsocketMockServer server){
 		var uri = URI.create("ws://127.0.0.1:" + server.getPort());
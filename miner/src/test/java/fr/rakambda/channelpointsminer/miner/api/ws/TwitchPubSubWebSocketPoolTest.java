@@ -6,26 +6,37 @@ import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topics;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.response.ITwitchWebSocketResponse;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.response.MessageData;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.response.MessageResponse;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.response.ResponseResponse;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TwitchWebSocketClientFactory;
+import fr.rakambda.channelpointsminer.miner.util.SleepHandler;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.java_websocket.framing.CloseFrame.ABNORMAL_CLOSE;
+import static org.java_websocket.framing.CloseFrame.GOING_AWAY;
 import static org.java_websocket.framing.CloseFrame.NORMAL;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.longThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -36,10 +47,8 @@ import static org.mockito.Mockito.when;
 class TwitchPubSubWebSocketPoolTest{
 	private static final Instant NOW = Instant.parse("2021-10-10T10:10:10Z");
 	
-	private final TwitchPubSubWebSocketPool tested = new TwitchPubSubWebSocketPool(50);
+	private final TwitchPubSubWebSocketPool tested = new TwitchPubSubWebSocketPool(50, Runnable::run);
 	
-	@Mock
-	private Topics topics;
 	@Mock
 	private Topic topic;
 	@Mock
@@ -49,9 +58,11 @@ class TwitchPubSubWebSocketPoolTest{
 	@Mock
 	private ITwitchPubSubMessageListener twitchMessageListener;
 	
+	private Topics topics;
+	
 	@BeforeEach
 	void setUp(){
-		lenient().when(topics.getTopics()).thenReturn(Set.of(topic));
+		topics = new Topics(topic);
 	}
 	
 	@Test
@@ -125,6 +136,57 @@ class TwitchPubSubWebSocketPoolTest{
 		}
 	}
 	
+	@Test
+	void topicsAreBatchedByAuthToken(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client);
+			
+			var topic2 = mock(Topic.class);
+			var topic3 = mock(Topic.class);
+			
+			assertDoesNotThrow(() -> tested.listenTopics(List.of(topics, new Topics(topic2), new Topics(topic3, "token"))));
+			
+			assertThat(tested.getClientCount()).isEqualTo(1);
+			verify(client).listenTopic(new Topics(Set.of(topic, topic2), null));
+			verify(client).listenTopic(new Topics(topic3, "token"));
+		}
+	}
+	
+	@Test
+	void batchesRespectClientTopicLimit(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			var client2 = mock(TwitchPubSubWebSocketClient.class);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client).thenReturn(client2);
+			
+			var topic2 = mock(Topic.class);
+			var topic3 = mock(Topic.class);
+			
+			when(client.getTopicCount()).thenReturn(48, 50);
+			
+			assertDoesNotThrow(() -> tested.listenTopics(List.of(topics, new Topics(topic2), new Topics(topic3))));
+			
+			assertThat(tested.getClientCount()).isEqualTo(2);
+			verify(client).listenTopic(new Topics(Set.of(topic, topic2), null));
+			verify(client2).listenTopic(new Topics(topic3));
+		}
+	}
+	
+	@Test
+	void queuedTopicsAreListenedTogether(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client);
+			
+			var topic2 = mock(Topic.class);
+			
+			tested.queueTopic(topics);
+			tested.queueTopic(new Topics(topic2));
+			verify(client, never()).listenTopic(any());
+			
+			tested.listenPendingTopics();
+			verify(client).listenTopic(new Topics(Set.of(topic, topic2), null));
+		}
+	}
+	
 	@Test
 	void clientError() throws InterruptedException{
 		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
@@ -172,6 +234,24 @@ class TwitchPubSubWebSocketPoolTest{
 		}
 	}
 	
+	@Test
+	void closedClientTopicsAreListenedAgain(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			var client2 = mock(TwitchPubSubWebSocketClient.class);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client).thenReturn(client2);
+			
+			when(client.getTopics()).thenReturn(Set.of(topics));
+			lenient().when(client.isTopicListened(topic)).thenReturn(true);
+			
+			assertDoesNotThrow(() -> tested.listenTopic(topics));
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, NORMAL, "test", false));
+			assertDoesNotThrow(() -> tested.listenTopic(topics));
+			
+			assertThat(tested.getClientCount()).isEqualTo(1);
+			verify(client2).listenTopic(topics);
+		}
+	}
+	
 	@Test
 	void abnormalClientCloseRecreatesClient(){
 		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
@@ -186,16 +266,20 @@ class TwitchPubSubWebSocketPoolTest{
 			assertThat(tested.getClientCount()).isEqualTo(1);
 			
 			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, ABNORMAL_CLOSE, "test", true));
-			assertThat(tested.getClientCount()).isEqualTo(0);
-			verify(client2, never()).listenTopic(topics);
+			assertThat(tested.getClientCount()).isEqualTo(1);
+			verify(client2).listenTopic(topics);
+			assertThat(tested.getLastReconnectionGap()).isNotNull();
 		}
 	}
 	
 	@Test
-	void abnormalClientCloseRecreatesClient2(){
+	void abnormalClientCloseRetriesReconnection(){
 		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
 			var client2 = mock(TwitchPubSubWebSocketClient.class);
-			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client).thenReturn(client2);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient)
+					.thenReturn(client)
+					.thenThrow(new RuntimeException("For tests"))
+					.thenReturn(client2);
 			
 			var topics = new Topics(topic);
 			
@@ -205,12 +289,139 @@ class TwitchPubSubWebSocketPoolTest{
 			assertThat(tested.getClientCount()).isEqualTo(1);
 			
 			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, ABNORMAL_CLOSE, "test", true));
-			assertThat(tested.getClientCount()).isEqualTo(0);
-			verify(client2, never()).listenTopic(topics);
+			assertThat(tested.getClientCount()).isEqualTo(1);
+			verify(client2).listenTopic(topics);
+			twitchClientFactory.verify(TwitchWebSocketClientFactory::createPubSubClient, times(3));
+		}
+	}
+	
+	@Test
+	void abnormalClientCloseOpensClientsInParallel(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			var client2 = mock(TwitchPubSubWebSocketClient.class);
+			var client3 = mock(TwitchPubSubWebSocketClient.class);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client2).thenReturn(client3);
+			
+			var topics = IntStream.range(0, 60)
+					.mapToObj(i -> new Topics(mock(Topic.class)))
+					.collect(Collectors.toSet());
+			when(client.getTopics()).thenReturn(topics);
+			when(client2.getTopicCount()).thenReturn(0, 0, 50);
+			
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, ABNORMAL_CLOSE, "test", true));
+			
+			assertThat(tested.getClientCount()).isEqualTo(2);
+			verify(client2).connectBlocking();
+			verify(client3).connectBlocking();
+			verify(client2).listenTopic(argThat(t -> t.getTopicCount() == 50));
+			verify(client3).listenTopic(argThat(t -> t.getTopicCount() == 10));
+		}
+	}
+	
+	@Test
+	void abnormalClientCloseRetriesOpeningClients(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			var client2 = mock(TwitchPubSubWebSocketClient.class);
+			var client3 = mock(TwitchPubSubWebSocketClient.class);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient)
+					.thenThrow(new RuntimeException("For tests"))
+					.thenReturn(client2)
+					.thenReturn(client3);
+			
+			var topics = IntStream.range(0, 60)
+					.mapToObj(i -> new Topics(mock(Topic.class)))
+					.collect(Collectors.toSet());
+			when(client.getTopics()).thenReturn(topics);
+			when(client2.getTopicCount()).thenReturn(0, 0, 0, 50);
+			
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, ABNORMAL_CLOSE, "test", true));
+			
+			assertThat(tested.getClientCount()).isEqualTo(2);
+			verify(client2).listenTopic(argThat(t -> t.getTopicCount() == 50));
+			verify(client3).listenTopic(argThat(t -> t.getTopicCount() == 10));
+			twitchClientFactory.verify(TwitchWebSocketClientFactory::createPubSubClient, times(3));
+			assertThat(tested.getLastReconnectionGap()).isNotNull();
+		}
+	}
+	
+	@Test
+	void normalClientCloseDoesNotReconnect(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client);
+			
+			assertDoesNotThrow(() -> tested.listenTopic(topics));
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, NORMAL, "test", false));
+			
+			twitchClientFactory.verify(TwitchWebSocketClientFactory::createPubSubClient);
+			assertThat(tested.getLastReconnectionGap()).isNull();
+		}
+	}
+	
+	@Test
+	void pendingTopicsAreListened(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client);
+			
+			tested.queueTopic(topics);
+			verify(client, never()).listenTopic(topics);
 			
 			tested.listenPendingTopics();
 			assertThat(tested.getClientCount()).isEqualTo(1);
-			verify(client2).listenTopic(topics);
+			verify(client).listenTopic(topics);
+		}
+	}
+	
+	@Test
+	void reconnectDelayIsJitteredAndCapped(){
+		assertThat(TwitchPubSubWebSocketPool.getReconnectDelay(0)).isBetween(Duration.ofMillis(250), Duration.ofMillis(500));
+		assertThat(TwitchPubSubWebSocketPool.getReconnectDelay(3)).isBetween(Duration.ofMillis(2000), Duration.ofMillis(4000));
+		assertThat(TwitchPubSubWebSocketPool.getReconnectDelay(100)).isBetween(Duration.ofSeconds(15), Duration.ofSeconds(30));
+	}
+	
+	@Test
+	void repeatedClosesBackOffUntilSuccessfulResponse(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class);
+				var sleepHandler = Mockito.mockStatic(SleepHandler.class)){
+			var client2 = mock(TwitchPubSubWebSocketClient.class);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client2);
+			
+			when(client.getTopics()).thenReturn(Set.of(topics));
+			when(client2.getTopics()).thenReturn(Set.of(topics));
+			
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, ABNORMAL_CLOSE, "test", true));
+			sleepHandler.verifyNoInteractions();
+			
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client2, GOING_AWAY, "test", true));
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client2, GOING_AWAY, "test", true));
+			sleepHandler.verify(() -> SleepHandler.sleep(longThat(delay -> delay >= 250 && delay <= 500)));
+			sleepHandler.verify(() -> SleepHandler.sleep(longThat(delay -> delay >= 500 && delay <= 1000)));
+			
+			tested.onWebSocketMessage(ResponseResponse.builder().nonce("nonce").build());
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client2, GOING_AWAY, "test", true));
+			
+			sleepHandler.verify(() -> SleepHandler.sleep(anyLong()), times(2));
+			verify(client2, times(4)).listenTopic(topics);
+		}
+	}
+	
+	@Test
+	void invalidCredentialsCloseWaitsForNewAuthToken(){
+		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class)){
+			var client2 = mock(TwitchPubSubWebSocketClient.class);
+			twitchClientFactory.when(TwitchWebSocketClientFactory::createPubSubClient).thenReturn(client2);
+			
+			when(client.getTopics()).thenReturn(Set.of(new Topics(topic, "bad-token")));
+			when(client.isInvalidCredentials()).thenReturn(true);
+			
+			assertDoesNotThrow(() -> tested.onWebSocketClosed(client, GOING_AWAY, "Invalid credentials", false));
+			tested.listenPendingTopics();
+			twitchClientFactory.verifyNoInteractions();
+			
+			assertDoesNotThrow(() -> tested.listenTopic(new Topics(mock(Topic.class), "bad-token")));
+			verify(client2).listenTopic(argThat(t -> t.getTopicCount() == 1));
+			
+			assertDoesNotThrow(() -> tested.listenTopic(new Topics(mock(Topic.class), "new-token")));
+			verify(client2).listenTopic(argThat(t -> t.getTopicCount() == 2 && Objects.equals("new-token", t.getAuthToken())));
 		}
 	}
 	
@@ -221,6 +432,7 @@ class TwitchPubSubWebSocketPoolTest{
 		var message = mock(IPubSubMessage.class);
 		
 		when(response.getData()).thenReturn(data);
+		when(data.isDecodable()).thenReturn(true);
 		when(data.getMessage()).thenReturn(message);
 		when(data.getTopic()).thenReturn(topic);
 		
@@ -231,6 +443,21 @@ class TwitchPubSubWebSocketPoolTest{
 		verify(twitchMessageListener).onTwitchMessage(topic, message);
 	}
 	
+	@Test
+	void unknownMessagesAreNotDecoded(){
+		var response = mock(MessageResponse.class);
+		var data = mock(MessageData.class);
+		
+		when(response.getData()).thenReturn(data);
+		when(data.isDecodable()).thenReturn(false);
+		
+		assertDoesNotThrow(() -> tested.addListener(twitchMessageListener));
+		assertDoesNotThrow(() -> tested.onWebSocketMessage(response));
+		
+		verify(data, never()).getMessage();
+		verify(twitchMessageListener, never()).onTwitchMessage(any(), any());
+	}
+	
 	@Test
 	void pingSendsPing(){
 		try(var twitchClientFactory = Mockito.mockStatic(TwitchWebSocketClientFactory.class);
@@ -32,4 +32,27 @@ class MessageDataTest{
 			jacksonUtils.verify(() -> JacksonUtils.read(eq(JSON_CONTENT), any()));
 		}
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void typeIsReadWithoutDecoding(){
+		try(var jacksonUtils = Mockito.mockStatic(JacksonUtils.class)){
+			var tested = MessageData.builder().build();
+			
+			assertDoesNotThrow(() -> tested.setMessage("{\"type\":\"points-earned\",\"data\":{\"channel_id\":\"123\"}}"));
+			assertThat(tested.getMessageType()).isEqualTo("points-earned");
+			assertThat(tested.isDecodable()).isTrue();
+			
+			jacksonUtils.verifyNoInteractions();
+		}
+	}
+	
+	@Test
+	void unknownTypeIsNotDecodable(){
+		var tested = MessageData.builder().build();
+		
+		assertDoesNotThrow(() -> tested.setMessage("{\"data\":{\"viewers\":[1,2]},\"type\":\"viewcount\"}"));
+		assertThat(tested.getMessageType()).isEqualTo("viewcount");
+		assertThat(tested.isDecodable()).isFalse();
+		assertThat(tested.getMessage()).isNull();
+	}
+}
@@ -7,9 +7,8 @@ import fr.rakambda.channelpointsminer.miner.api.gql.integrity.browser.BrowserInt
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.http.HttpIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.http.MobileIntegrityProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.integrity.http.NoIntegrityProvider;
+import fr.rakambda.channelpointsminer.miner.api.gql.version.CachedVersionProvider;
 import fr.rakambda.channelpointsminer.miner.api.gql.version.IVersionProvider;
-import fr.rakambda.channelpointsminer.miner.api.gql.version.manifest.ManifestVersionProvider;
-import fr.rakambda.channelpointsminer.miner.api.gql.version.webpage.WebpageVersionProvider;
 import fr.rakambda.channelpointsminer.miner.api.passport.TwitchClient;
 import fr.rakambda.channelpointsminer.miner.api.passport.TwitchLogin;
 import fr.rakambda.channelpointsminer.miner.api.passport.browser.BrowserLoginProvider;
@@ -17,6 +16,9 @@ import fr.rakambda.channelpointsminer.miner.api.passport.http.HttpLoginProvider;
 import fr.rakambda.channelpointsminer.miner.api.passport.oauth.OauthLoginProvider;
 import fr.rakambda.channelpointsminer.miner.api.telegram.TelegramApi;
 import fr.rakambda.channelpointsminer.miner.api.twitch.TwitchApi;
+import fr.rakambda.channelpointsminer.miner.config.GQLBatchConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.GQLCircuitBreakerConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.HttpVersion;
 import fr.rakambda.channelpointsminer.miner.config.VersionProvider;
 import fr.rakambda.channelpointsminer.miner.config.login.BrowserConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.login.HttpLoginMethod;
@@ -24,16 +26,23 @@ import fr.rakambda.channelpointsminer.miner.config.login.MobileLoginMethod;
 import fr.rakambda.channelpointsminer.miner.config.login.TvLoginMethod;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import kong.unirest.core.Config;
+import kong.unirest.core.UnirestInstance;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.URL;
+import java.net.http.HttpClient;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicReference;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.when;
 
 @ParallelizableTest
@@ -71,22 +80,51 @@ class ApiFactoryTest{
 	
 	@Test
 	void createGqlApi(){
-		assertThat(ApiFactory.createGqlApi(twitchLogin, integrityProvider)).isNotNull().isInstanceOf(GQLApi.class);
+		assertThat(ApiFactory.createGqlApi(twitchLogin, integrityProvider, GQLBatchConfiguration.builder().build(), GQLCircuitBreakerConfiguration.builder().build(), HttpVersion.HTTP_1_1)).isNotNull().isInstanceOf(GQLApi.class);
 	}
 	
 	@Test
 	void createMobileGqlApi(){
-		assertThat(ApiFactory.createGqlApi(mobileTwitchLogin, integrityProvider)).isNotNull().isInstanceOf(GQLApi.class);
+		assertThat(ApiFactory.createGqlApi(mobileTwitchLogin, integrityProvider, GQLBatchConfiguration.builder().build(), GQLCircuitBreakerConfiguration.builder().build(), HttpVersion.HTTP_1_1)).isNotNull().isInstanceOf(GQLApi.class);
 	}
 	
 	@Test
 	void createTvGqlApi(){
-		assertThat(ApiFactory.createGqlApi(tvTwitchLogin, integrityProvider)).isNotNull().isInstanceOf(GQLApi.class);
+		assertThat(ApiFactory.createGqlApi(tvTwitchLogin, integrityProvider, GQLBatchConfiguration.builder().build(), GQLCircuitBreakerConfiguration.builder().build(), HttpVersion.HTTP_1_1)).isNotNull().isInstanceOf(GQLApi.class);
+	}
+	
+	@Test
+	void createHttp2GqlApi(){
+		assertThat(ApiFactory.createGqlApi(twitchLogin, integrityProvider, GQLBatchConfiguration.builder().build(), GQLCircuitBreakerConfiguration.builder().build(), HttpVersion.HTTP_2)).isNotNull().isInstanceOf(GQLApi.class);
+	}
+	
+	@Test
+	void createGqlApiWithHttpVersion(){
+		assertThat(getGqlApiHttpVersion(HttpVersion.HTTP_1_1)).isEqualTo(HttpClient.Version.HTTP_1_1);
+		assertThat(getGqlApiHttpVersion(HttpVersion.HTTP_2)).isEqualTo(HttpClient.Version.HTTP_2);
+		assertThat(getGqlApiHttpVersion(null)).isEqualTo(new Config().getVersion());
+	}
+	
+	@Test
+	void createGqlApiWithoutCircuitBreaker(){
+		assertThat(ApiFactory.createGqlApi(twitchLogin, integrityProvider, GQLBatchConfiguration.builder().build(), GQLCircuitBreakerConfiguration.builder().enabled(false).build(), HttpVersion.HTTP_1_1)).isNotNull().isInstanceOf(GQLApi.class);
 	}
 	
 	@Test
 	void createTwitchApi(){
-		assertThat(ApiFactory.createTwitchApi(twitchLogin)).isNotNull().isInstanceOf(TwitchApi.class);
+		assertThat(ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).isNotNull().isInstanceOf(TwitchApi.class);
+	}
+	
+	@Test
+	void createHttp2TwitchApi(){
+		assertThat(ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_2)).isNotNull().isInstanceOf(TwitchApi.class);
+	}
+	
+	@Test
+	void createTwitchApiWithHttpVersion(){
+		assertThat(getTwitchApiHttpVersion(HttpVersion.HTTP_1_1)).isEqualTo(HttpClient.Version.HTTP_1_1);
+		assertThat(getTwitchApiHttpVersion(HttpVersion.HTTP_2)).isEqualTo(HttpClient.Version.HTTP_2);
+		assertThat(getTwitchApiHttpVersion(null)).isEqualTo(new Config().getVersion());
 	}
 	
 	@Test
@@ -151,11 +189,44 @@ class ApiFactoryTest{
 	
 	@Test
 	void createWebpageVersionProvider(){
-		assertThat(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE)).isNotNull().isInstanceOf(WebpageVersionProvider.class);
+		assertThat(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE, Paths.get("."))).isNotNull().isInstanceOf(CachedVersionProvider.class);
 	}
 	
 	@Test
 	void createManifestVersionProvider(){
-		assertThat(ApiFactory.createVersionProvider(VersionProvider.MANIFEST)).isNotNull().isInstanceOf(ManifestVersionProvider.class);
+		assertThat(ApiFactory.createVersionProvider(VersionProvider.MANIFEST, Paths.get("."))).isNotNull().isInstanceOf(CachedVersionProvider.class);
+	}
+	
+	@Test
+	void versionProviderIsShared(){
+		assertThat(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE, Paths.get("."))).isSameAs(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE, Paths.get("").toAbsolutePath()));
+	}
+	
+	@Test
+	void versionProviderIsSharedByCacheDirectory(){
+		assertThat(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE, Paths.get("."))).isNotSameAs(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE, Paths.get("versions")));
+	}
+	
+	@Test
+	void createInMemoryVersionProvider(){
+		assertThat(ApiFactory.createVersionProvider(VersionProvider.WEBPAGE, null)).isNotNull().isInstanceOf(CachedVersionProvider.class);
+	}
+	
+	@NotNull
+	private HttpClient.Version getGqlApiHttpVersion(@Nullable HttpVersion httpVersion){
+		var unirest = new AtomicReference<UnirestInstance>();
+		try(var ignored = mockConstruction(GQLApi.class, (mock, context) -> unirest.set((UnirestInstance) context.arguments().get(1)))){
+			ApiFactory.createGqlApi(twitchLogin, integrityProvider, GQLBatchConfiguration.builder().build(), GQLCircuitBreakerConfiguration.builder().build(), httpVersion);
+		}
+		return unirest.get().config().getVersion();
+	}
+	
+	@NotNull
+	private HttpClient.Version getTwitchApiHttpVersion(@Nullable HttpVersion httpVersion){
+		var unirest = new AtomicReference<UnirestInstance>();
+		try(var ignored = mockConstruction(TwitchApi.class, (mock, context) -> unirest.set((UnirestInstance) context.arguments().get(0)))){
+			ApiFactory.createTwitchApi(twitchLogin, httpVersion);
+		}
+		return unirest.get().config().getVersion();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package fr.rakambda.channelpointsminer.miner.factory;
+
+import fr.rakambda.channelpointsminer.miner.config.ThreadMode;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ParallelizableTest
+class ExecutorFactoryTest{
+	@ParameterizedTest
+	@EnumSource(ThreadMode.class)
+	void createScheduledExecutor(ThreadMode threadMode) throws Exception{
+		var executor = ExecutorFactory.createScheduledExecutor(threadMode);
+		try{
+			var isVirtual = executor.schedule(() -> Thread.currentThread().isVirtual(), 0, TimeUnit.MILLISECONDS).get();
+			assertThat(isVirtual).isEqualTo(threadMode == ThreadMode.VIRTUAL);
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+	
+	@ParameterizedTest
+	@EnumSource(ThreadMode.class)
+	void createTaskExecutor(ThreadMode threadMode) throws Exception{
+		var executor = ExecutorFactory.createTaskExecutor(threadMode);
+		try{
+			var isVirtual = executor.submit(() -> Thread.currentThread().isVirtual()).get();
+			assertThat(isVirtual).isEqualTo(threadMode == ThreadMode.VIRTUAL);
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+}
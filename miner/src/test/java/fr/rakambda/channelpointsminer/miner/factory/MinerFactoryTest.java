@@ -8,6 +8,7 @@ import fr.rakambda.channelpointsminer.miner.config.AnalyticsConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.DatabaseConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.DiscordConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.TelegramConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.ThreadMode;
 import fr.rakambda.channelpointsminer.miner.config.login.ILoginMethod;
 import fr.rakambda.channelpointsminer.miner.database.DatabaseEventHandler;
 import fr.rakambda.channelpointsminer.miner.database.IDatabase;
@@ -24,6 +25,7 @@ import fr.rakambda.channelpointsminer.miner.log.LoggerEventListener;
 import fr.rakambda.channelpointsminer.miner.log.discord.DiscordEventListener;
 import fr.rakambda.channelpointsminer.miner.log.telegram.TelegramEventListener;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
+import fr.rakambda.channelpointsminer.miner.miner.SharedRuntime;
 import fr.rakambda.channelpointsminer.miner.runnable.SyncInventory;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.Mock;
@@ -34,12 +36,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -76,6 +81,12 @@ class MinerFactoryTest{
 	private IEventManager eventManager;
 	@Mock
 	private SyncInventory syncInventory;
+	@Mock
+	private SharedRuntime sharedRuntime;
+	@Mock
+	private ScheduledExecutorService scheduledExecutor;
+	@Mock
+	private ExecutorService taskExecutor;
 	
 	@BeforeEach
 	void setUp(){
@@ -85,6 +96,7 @@ class MinerFactoryTest{
 		lenient().when(accountConfiguration.getTelegram()).thenReturn(telegramConfiguration);
 		lenient().when(accountConfiguration.getAnalytics()).thenReturn(analyticsConfiguration);
 		lenient().when(analyticsConfiguration.isRecordUserPredictions()).thenReturn(RECORD_USER_PREDICTIONS);
+		lenient().when(accountConfiguration.getThreadMode()).thenReturn(ThreadMode.PLATFORM);
 	}
 	
 	@Test
@@ -220,6 +232,37 @@ class MinerFactoryTest{
 		}
 	}
 	
+	@Test
+	void nominalWithSharedRuntime() throws SQLException{
+		try(var apiFactory = mockStatic(ApiFactory.class);
+				var databaseFactory = mockStatic(DatabaseFactory.class);
+				var minerRunnableFactory = mockStatic(MinerRunnableFactory.class)){
+			apiFactory.when(() -> ApiFactory.createLoginProvider(USERNAME, loginMethod, eventManager)).thenReturn(passportApi);
+			databaseFactory.when(() -> DatabaseFactory.createDatabaseHandler(database, RECORD_USER_PREDICTIONS)).thenReturn(databaseEventHandler);
+			minerRunnableFactory.when(() -> MinerRunnableFactory.createSyncInventory(any(IMiner.class), eq(eventManager))).thenReturn(syncInventory);
+			
+			when(analyticsConfiguration.isEnabled()).thenReturn(true);
+			when(analyticsConfiguration.getDatabase()).thenReturn(databaseConfiguration);
+			when(sharedRuntime.getDatabase(databaseConfiguration)).thenReturn(database);
+			when(sharedRuntime.createScheduledExecutor()).thenReturn(scheduledExecutor);
+			when(sharedRuntime.getTaskExecutor(USERNAME)).thenReturn(taskExecutor);
+			
+			var miner = MinerFactory.create(accountConfiguration, eventManager, sharedRuntime);
+			
+			assertThat(miner.getSyncInventory()).isEqualTo(syncInventory);
+			assertThat(miner.getDatabase()).isEqualTo(database);
+			assertThat(miner.getPubSubMessageHandlers()).hasSize(8);
+			
+			verify(database).deleteAllUserPredictions();
+			databaseFactory.verify(() -> DatabaseFactory.createDatabase(any()), never());
+			
+			miner.close();
+			
+			verify(scheduledExecutor).shutdown();
+			verify(taskExecutor).shutdown();
+		}
+	}
+	
 	@Test
 	void nominalWithAnalyticsException(){
 		try(var apiFactory = mockStatic(ApiFactory.class);
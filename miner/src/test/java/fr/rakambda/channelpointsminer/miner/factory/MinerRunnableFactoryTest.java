@@ -1,5 +1,6 @@
 package fr.rakambda.channelpointsminer.miner.factory;
 
+import fr.rakambda.channelpointsminer.miner.config.StreamerRefreshConfiguration;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.runnable.SendM3u8MinutesWatched;
@@ -27,7 +28,8 @@ class MinerRunnableFactoryTest{
 	
 	@Test
 	void createUpdateStreamInfo(){
-		Assertions.assertThat(MinerRunnableFactory.createUpdateStreamInfo(miner)).isNotNull()
+		var configuration = StreamerRefreshConfiguration.builder().build();
+		Assertions.assertThat(MinerRunnableFactory.createUpdateStreamInfo(miner, configuration)).isNotNull()
 				.isInstanceOf(UpdateStreamInfo.class);
 	}
 	
@@ -0,0 +1,73 @@
+package fr.rakambda.channelpointsminer.miner.handler;
+
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.IPubSubMessage;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.PointsEarned;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.PointsSpent;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.StreamUp;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topic;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@ParallelizableTest
+class PubSubMessageRouterTest{
+	private final PubSubMessageRouter tested = new PubSubMessageRouter();
+	
+	@Test
+	void adapterReceivesOverriddenTypes(){
+		var handler = new PubSubMessageHandlerAdapter(){
+			@Override
+			public void onPointsEarned(@NotNull Topic topic, @NotNull PointsEarned message){
+			}
+			
+			@Override
+			public void onPointsSpent(@NotNull Topic topic, @NotNull PointsSpent message){
+			}
+		};
+		tested.addHandler(handler);
+		
+		assertThat(tested.getHandlers(PointsEarned.class)).containsExactly(handler);
+		assertThat(tested.getHandlers(PointsSpent.class)).containsExactly(handler);
+		assertThat(tested.getHandlers(StreamUp.class)).isEmpty();
+	}
+	
+	@Test
+	void adapterOverridingHandleReceivesEverything(){
+		var handler = new PubSubMessageHandlerAdapter(){
+			@Override
+			public void handle(@NotNull Topic topic, @NotNull IPubSubMessage message){
+			}
+		};
+		tested.addHandler(handler);
+		
+		assertThat(tested.getHandlers(StreamUp.class)).containsExactly(handler);
+	}
+	
+	@Test
+	void otherHandlersReceiveEverything(){
+		var handler = mock(IPubSubMessageHandler.class);
+		tested.addHandler(handler);
+		
+		assertThat(tested.getHandlers(PointsEarned.class)).containsExactly(handler);
+		assertThat(tested.getHandlers(StreamUp.class)).containsExactly(handler);
+	}
+	
+	@Test
+	void addedHandlerIsRouted(){
+		var handler1 = mock(IPubSubMessageHandler.class);
+		var handler2 = new PubSubMessageHandlerAdapter(){
+			@Override
+			public void onStreamUp(@NotNull Topic topic, @NotNull StreamUp message){
+			}
+		};
+		
+		tested.addHandler(handler1);
+		assertThat(tested.getHandlers(StreamUp.class)).containsExactly(handler1);
+		
+		tested.addHandler(handler2);
+		assertThat(tested.getHandlers(StreamUp.class)).containsExactly(handler1, handler2);
+		assertThat(tested.getHandlers()).containsExactly(handler1, handler2);
+	}
+}
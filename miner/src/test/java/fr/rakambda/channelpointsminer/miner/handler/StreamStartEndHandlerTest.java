@@ -77,6 +77,7 @@ class StreamStartEndHandlerTest{
 		
 		assertDoesNotThrow(() -> tested.handle(topic, streamUpMessage));
 		
+		verify(streamer).resetUpdateDelay();
 		verify(miner).updateStreamerInfos(streamer);
 		verify(eventManager).onEvent(new StreamUpEvent(STREAMER_ID, STREAMER_NAME, streamer, NOW));
 		verify(chatClient, never()).join(any());
@@ -95,6 +96,7 @@ class StreamStartEndHandlerTest{
 		
 		assertDoesNotThrow(() -> tested.handle(topic, streamUpMessage));
 		
+		verify(streamer).resetUpdateDelay();
 		verify(miner).updateStreamerInfos(streamer);
 		verify(eventManager).onEvent(new StreamUpEvent(STREAMER_ID, STREAMER_NAME, streamer, NOW));
 		verify(chatClient).join(STREAMER_NAME);
@@ -123,6 +125,7 @@ class StreamStartEndHandlerTest{
 		
 		assertDoesNotThrow(() -> tested.handle(topic, streamDownMessage));
 		
+		verify(streamer).resetUpdateDelay();
 		verify(miner).updateStreamerInfos(streamer);
 		verify(eventManager).onEvent(new StreamDownEvent(STREAMER_ID, STREAMER_NAME, streamer, NOW));
 		verify(chatClient).leave(STREAMER_NAME);
@@ -11,11 +11,17 @@ import fr.rakambda.channelpointsminer.miner.api.passport.exceptions.LoginExcepti
 import fr.rakambda.channelpointsminer.miner.api.twitch.TwitchApi;
 import fr.rakambda.channelpointsminer.miner.api.ws.TwitchPubSubWebSocketPool;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.message.IPubSubMessage;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.StreamDown;
+import fr.rakambda.channelpointsminer.miner.api.ws.data.message.StreamUp;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topic;
 import fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Topics;
 import fr.rakambda.channelpointsminer.miner.config.AccountConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.AnalyticsConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.ChatMode;
+import fr.rakambda.channelpointsminer.miner.config.GQLBatchConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.GQLCircuitBreakerConfiguration;
+import fr.rakambda.channelpointsminer.miner.config.HttpVersion;
+import fr.rakambda.channelpointsminer.miner.config.StreamerRefreshConfiguration;
 import fr.rakambda.channelpointsminer.miner.config.VersionProvider;
 import fr.rakambda.channelpointsminer.miner.config.login.ILoginMethod;
 import fr.rakambda.channelpointsminer.miner.database.IDatabase;
@@ -28,18 +34,23 @@ import fr.rakambda.channelpointsminer.miner.factory.StreamerSettingsFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TwitchChatFactory;
 import fr.rakambda.channelpointsminer.miner.handler.IPubSubMessageHandler;
+import fr.rakambda.channelpointsminer.miner.handler.PubSubMessageHandlerAdapter;
 import fr.rakambda.channelpointsminer.miner.runnable.StreamerConfigurationReload;
 import fr.rakambda.channelpointsminer.miner.runnable.SyncInventory;
 import fr.rakambda.channelpointsminer.miner.runnable.UpdateStreamInfo;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
 import fr.rakambda.channelpointsminer.miner.streamer.StreamerSettings;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -53,6 +64,7 @@ import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.Top
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.RAID;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.USER_DROP_EVENTS;
 import static fr.rakambda.channelpointsminer.miner.api.ws.data.request.topic.TopicName.VIDEO_PLAYBACK_BY_ID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -80,6 +92,7 @@ class MinerTest{
 	private static final String ACCESS_TOKEN = "access-token";
 	private static final ChatMode CHAT_MODE = ChatMode.WS;
 	private static final VersionProvider VERSION_PROVIDER = VersionProvider.WEBPAGE;
+	private static final Path VERSION_CACHE_DIRECTORY = Paths.get("versions");
 	private static final Instant NOW = Instant.parse("2020-05-17T12:14:20.000Z");
 	
 	private Miner tested;
@@ -91,6 +104,12 @@ class MinerTest{
 	@Mock
 	private AnalyticsConfiguration analyticsConfiguration;
 	@Mock
+	private StreamerRefreshConfiguration streamerRefreshConfiguration;
+	@Mock
+	private GQLBatchConfiguration gqlBatchConfiguration;
+	@Mock
+	private GQLCircuitBreakerConfiguration gqlCircuitBreakerConfiguration;
+	@Mock
 	private ILoginProvider passportApi;
 	@Mock
 	private TwitchPubSubWebSocketPool webSocketPool;
@@ -139,7 +158,14 @@ class MinerTest{
 		lenient().when(accountConfiguration.getChatMode()).thenReturn(CHAT_MODE);
 		lenient().when(accountConfiguration.getAnalytics()).thenReturn(analyticsConfiguration);
 		lenient().when(accountConfiguration.getVersionProvider()).thenReturn(VERSION_PROVIDER);
+		lenient().when(accountConfiguration.getVersionCacheDirectory()).thenReturn(VERSION_CACHE_DIRECTORY);
 		lenient().when(accountConfiguration.getLoginMethod()).thenReturn(loginMethod);
+		lenient().when(accountConfiguration.getStreamerRefresh()).thenReturn(streamerRefreshConfiguration);
+		lenient().when(accountConfiguration.getGqlBatch()).thenReturn(gqlBatchConfiguration);
+		lenient().when(accountConfiguration.getGqlCircuitBreaker()).thenReturn(gqlCircuitBreakerConfiguration);
+		lenient().when(accountConfiguration.getHttpVersion()).thenReturn(HttpVersion.HTTP_1_1);
+		lenient().when(streamerRefreshConfiguration.getConcurrency()).thenReturn(1);
+		lenient().when(streamerRefreshConfiguration.getRefreshPerSecond()).thenReturn(1D);
 		lenient().when(analyticsConfiguration.isEnabled()).thenReturn(false);
 		lenient().when(analyticsConfiguration.isRecordUserPredictions()).thenReturn(false);
 		
@@ -163,13 +189,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			runnableFactory.when(() -> MinerRunnableFactory.createStreamerConfigurationReload(tested, eventManager, streamerSettingsFactory, false)).thenReturn(streamerConfigurationReload);
 			
 			assertDoesNotThrow(() -> tested.start());
@@ -180,9 +206,14 @@ class MinerTest{
 			assertThat(tested.getStreamers()).isEmpty();
 			
 			verify(passportApi).login();
-			verify(webSocketPool).listenTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
 			verify(twitchChatClient, never()).join(any());
 			verify(scheduledExecutorService).schedule(eq(streamerConfigurationReload), anyLong(), any());
+			
+			var listenTopicsCaptor = ArgumentCaptor.forClass(Runnable.class);
+			verify(scheduledExecutorService).schedule(listenTopicsCaptor.capture(), anyLong(), eq(MILLISECONDS));
+			listenTopicsCaptor.getValue().run();
+			verify(webSocketPool).listenPendingTopics();
 			verify(twitchChatClient).addChatMessageListener(any());
 		}
 	}
@@ -191,12 +222,12 @@ class MinerTest{
 	void setupIsDoneWithConfigReload() throws LoginException, IOException{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			runnableFactory.when(() -> MinerRunnableFactory.createStreamerConfigurationReload(tested, eventManager, streamerSettingsFactory, true)).thenReturn(streamerConfigurationReload);
 			
 			lenient().when(accountConfiguration.getReloadEvery()).thenReturn(15);
@@ -209,7 +240,7 @@ class MinerTest{
 			assertThat(tested.getStreamers()).isEmpty();
 			
 			verify(passportApi).login();
-			verify(webSocketPool).listenTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
 			verify(scheduledExecutorService).scheduleWithFixedDelay(eq(streamerConfigurationReload), anyLong(), eq(15L), eq(MINUTES));
 		}
 	}
@@ -218,12 +249,12 @@ class MinerTest{
 	void setupIsDoneWithConfigReloadAndFollows() throws LoginException, IOException{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			runnableFactory.when(() -> MinerRunnableFactory.createStreamerConfigurationReload(tested, eventManager, streamerSettingsFactory, false)).thenReturn(streamerConfigurationReload);
 			
 			lenient().when(accountConfiguration.getReloadEvery()).thenReturn(15);
@@ -235,7 +266,7 @@ class MinerTest{
 			assertThat(tested.getStreamers()).isEmpty();
 			
 			verify(passportApi).login();
-			verify(webSocketPool).listenTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
 			verify(scheduledExecutorService).scheduleWithFixedDelay(eq(streamerConfigurationReload), anyLong(), eq(15L), eq(MINUTES));
 		}
 	}
@@ -245,13 +276,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			runnableFactory.when(() -> MinerRunnableFactory.createStreamerConfigurationReload(tested, eventManager, streamerSettingsFactory, false)).thenReturn(streamerConfigurationReload);
 			
 			when(analyticsConfiguration.isEnabled()).thenReturn(true);
@@ -264,7 +295,7 @@ class MinerTest{
 			assertThat(tested.getStreamers()).isEmpty();
 			
 			verify(passportApi).login();
-			verify(webSocketPool).listenTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
 			verify(twitchChatClient, never()).join(any());
 			verify(scheduledExecutorService).schedule(eq(streamerConfigurationReload), anyLong(), any());
 			verify(twitchChatClient).addChatMessageListener(any());
@@ -276,13 +307,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, true)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			runnableFactory.when(() -> MinerRunnableFactory.createStreamerConfigurationReload(tested, eventManager, streamerSettingsFactory, false)).thenReturn(streamerConfigurationReload);
 			
 			when(analyticsConfiguration.isEnabled()).thenReturn(true);
@@ -296,7 +327,7 @@ class MinerTest{
 			assertThat(tested.getStreamers()).isEmpty();
 			
 			verify(passportApi).login();
-			verify(webSocketPool).listenTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(COMMUNITY_POINTS_USER_V1, USER_ID, ACCESS_TOKEN));
 			verify(twitchChatClient, never()).join(any());
 			verify(scheduledExecutorService).schedule(eq(streamerConfigurationReload), anyLong(), any());
 			verify(twitchChatClient).addChatMessageListener(any());
@@ -306,7 +337,7 @@ class MinerTest{
 	@Test
 	void wrongAccountLoggedIn(){
 		try(var apiFactory = mockStatic(ApiFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
 			
 			when(twitchLogin.getUsername()).thenReturn("wrong");
 			
@@ -334,10 +365,10 @@ class MinerTest{
 	void close(){
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
 			tested.start();
@@ -376,17 +407,36 @@ class MinerTest{
 		verify(handler2).handle(topic, message);
 	}
 	
+	@Test
+	void messageHandlersAreRoutedByType(){
+		var handler1 = mock(IPubSubMessageHandler.class);
+		var handler2 = new PubSubMessageHandlerAdapter(){
+			@Override
+			public void onStreamUp(@NotNull Topic topic, @NotNull StreamUp message){
+			}
+		};
+		
+		tested.addPubSubHandler(handler1);
+		tested.addPubSubHandler(handler2);
+		
+		var message = mock(StreamDown.class);
+		assertDoesNotThrow(() -> tested.onTwitchMessage(topic, message));
+		
+		verify(executorService).submit(any(Runnable.class));
+		verify(handler1).handle(topic, message);
+	}
+	
 	@Test
 	void addStreamerWithPredictions(){
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -404,12 +454,13 @@ class MinerTest{
 			
 			assertThat(tested.getStreamers()).hasSize(1)
 					.first().usingRecursiveComparison().isEqualTo(streamer);
+			verify(streamer).addStateListener(tested.getStreamerIndex());
 			
 			verify(updateStreamInfo).run(streamer);
-			verify(webSocketPool).listenTopic(Topics.buildFromName(PREDICTIONS_USER_V1, USER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(USER_DROP_EVENTS, USER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(PREDICTIONS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(PREDICTIONS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(USER_DROP_EVENTS, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(PREDICTIONS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
 			verify(eventManager).onEvent(new StreamerAddedEvent(streamer, NOW));
 		}
 	}
@@ -419,12 +470,12 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -444,8 +495,8 @@ class MinerTest{
 					.first().usingRecursiveComparison().isEqualTo(streamer);
 			
 			verify(updateStreamInfo).run(streamer);
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(COMMUNITY_MOMENTS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(COMMUNITY_MOMENTS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
 			verify(eventManager).onEvent(new StreamerAddedEvent(streamer, NOW));
 		}
 	}
@@ -455,12 +506,12 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -480,8 +531,8 @@ class MinerTest{
 					.first().usingRecursiveComparison().isEqualTo(streamer);
 			
 			verify(updateStreamInfo).run(streamer);
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(RAID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(RAID, STREAMER_ID, ACCESS_TOKEN));
 			verify(eventManager).onEvent(new StreamerAddedEvent(streamer, NOW));
 		}
 	}
@@ -492,13 +543,13 @@ class MinerTest{
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -517,7 +568,7 @@ class MinerTest{
 					.first().usingRecursiveComparison().isEqualTo(streamer);
 			
 			verify(updateStreamInfo).run(streamer);
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
 			verify(eventManager).onEvent(new StreamerAddedEvent(streamer, NOW));
 			verify(twitchChatClient, never()).join(any());
 		}
@@ -529,13 +580,13 @@ class MinerTest{
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -555,7 +606,7 @@ class MinerTest{
 					.first().usingRecursiveComparison().isEqualTo(streamer);
 			
 			verify(updateStreamInfo).run(streamer);
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
 			verify(eventManager).onEvent(new StreamerAddedEvent(streamer, NOW));
 			verify(twitchChatClient).join(STREAMER_USERNAME);
 		}
@@ -566,12 +617,12 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -590,7 +641,7 @@ class MinerTest{
 					.first().usingRecursiveComparison().isEqualTo(streamer);
 			
 			verify(updateStreamInfo).run(streamer);
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
 			verify(eventManager).onEvent(new StreamerAddedEvent(streamer, NOW));
 		}
 	}
@@ -621,13 +672,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			var id1 = "ID1";
 			var id2 = "ID2";
@@ -654,13 +705,13 @@ class MinerTest{
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var timeFactory = mockStatic(TimeFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
@@ -672,6 +723,7 @@ class MinerTest{
 			tested.start();
 			tested.removeStreamer(streamer);
 			
+			verify(streamer).removeStateListener(tested.getStreamerIndex());
 			verify(webSocketPool).removeTopic(Topic.builder().name(VIDEO_PLAYBACK_BY_ID).target(STREAMER_ID).build());
 			verify(webSocketPool).removeTopic(Topic.builder().name(PREDICTIONS_CHANNEL_V1).target(STREAMER_ID).build());
 			verify(webSocketPool).removeTopic(Topic.builder().name(COMMUNITY_MOMENTS_CHANNEL_V1).target(STREAMER_ID).build());
@@ -686,13 +738,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			var streamer = mock(Streamer.class);
 			when(streamer.getId()).thenReturn(STREAMER_ID);
@@ -715,7 +767,7 @@ class MinerTest{
 		
 		assertDoesNotThrow(() -> tested.updateStreamer(streamer));
 		
-		verify(webSocketPool, never()).listenTopic(any());
+		verify(webSocketPool, never()).queueTopic(any());
 		verify(webSocketPool, never()).removeTopic(any());
 	}
 	
@@ -724,13 +776,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			tested.start();
 			
@@ -748,11 +800,11 @@ class MinerTest{
 			
 			assertDoesNotThrow(() -> tested.updateStreamer(streamer));
 			
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(USER_DROP_EVENTS, USER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(PREDICTIONS_USER_V1, USER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(PREDICTIONS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(RAID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(USER_DROP_EVENTS, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(PREDICTIONS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(PREDICTIONS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(RAID, STREAMER_ID, ACCESS_TOKEN));
 			verify(twitchChatClient).join(STREAMER_USERNAME);
 		}
 	}
@@ -762,13 +814,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			tested.start();
 			
@@ -786,11 +838,11 @@ class MinerTest{
 			
 			assertDoesNotThrow(() -> tested.updateStreamer(streamer));
 			
-			verify(webSocketPool).listenTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(USER_DROP_EVENTS, USER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(PREDICTIONS_USER_V1, USER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(PREDICTIONS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
-			verify(webSocketPool).listenTopic(Topics.buildFromName(RAID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(VIDEO_PLAYBACK_BY_ID, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(USER_DROP_EVENTS, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(PREDICTIONS_USER_V1, USER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(PREDICTIONS_CHANNEL_V1, STREAMER_ID, ACCESS_TOKEN));
+			verify(webSocketPool).queueTopic(Topics.buildFromName(RAID, STREAMER_ID, ACCESS_TOKEN));
 			verify(twitchChatClient, never()).join(any());
 		}
 	}
@@ -800,13 +852,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			tested.start();
 			
@@ -835,13 +887,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			tested.start();
 			
@@ -878,13 +930,13 @@ class MinerTest{
 		try(var apiFactory = mockStatic(ApiFactory.class);
 				var runnableFactory = mockStatic(MinerRunnableFactory.class);
 				var ircFactory = mockStatic(TwitchChatFactory.class)){
-			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin)).thenReturn(twitchApi);
-			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER)).thenReturn(versionProvider);
+			apiFactory.when(() -> ApiFactory.createTwitchApi(twitchLogin, HttpVersion.HTTP_1_1)).thenReturn(twitchApi);
+			apiFactory.when(() -> ApiFactory.createVersionProvider(VERSION_PROVIDER, VERSION_CACHE_DIRECTORY)).thenReturn(versionProvider);
 			apiFactory.when(() -> ApiFactory.createIntegrityProvider(twitchLogin, versionProvider, loginMethod, eventManager)).thenReturn(integrityProvider);
-			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider)).thenReturn(gqlApi);
+			apiFactory.when(() -> ApiFactory.createGqlApi(twitchLogin, integrityProvider, gqlBatchConfiguration, gqlCircuitBreakerConfiguration, HttpVersion.HTTP_1_1)).thenReturn(gqlApi);
 			ircFactory.when(() -> TwitchChatFactory.createChat(tested, CHAT_MODE, false)).thenReturn(twitchChatClient);
 			
-			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested)).thenReturn(updateStreamInfo);
+			runnableFactory.when(() -> MinerRunnableFactory.createUpdateStreamInfo(tested, streamerRefreshConfiguration)).thenReturn(updateStreamInfo);
 			
 			assertDoesNotThrow(() -> tested.syncInventory());
 			
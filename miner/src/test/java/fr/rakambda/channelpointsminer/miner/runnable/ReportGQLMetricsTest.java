@@ -0,0 +1,61 @@
+package fr.rakambda.channelpointsminer.miner.runnable;
+
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLApi;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLMetrics;
+import fr.rakambda.channelpointsminer.miner.miner.IMiner;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ParallelizableTest
+@ExtendWith(MockitoExtension.class)
+class ReportGQLMetricsTest{
+	@InjectMocks
+	private ReportGQLMetrics tested;
+	
+	@Mock
+	private IMiner miner;
+	@Mock
+	private GQLApi gqlApi;
+	
+	private final GQLMetrics metrics = new GQLMetrics();
+	
+	@BeforeEach
+	void setUp(){
+		lenient().when(miner.getGqlApi()).thenReturn(gqlApi);
+		lenient().when(gqlApi.getMetrics()).thenReturn(metrics);
+	}
+	
+	@Test
+	void reportEmpty(){
+		assertDoesNotThrow(() -> tested.run());
+		
+		verify(gqlApi).getMetrics();
+	}
+	
+	@Test
+	void report(){
+		metrics.record("operation", Duration.ofMillis(120), 200, 1000, null);
+		metrics.record("operation", Duration.ofMillis(80), 500, 0, GQLMetrics.ErrorClass.HTTP);
+		
+		assertDoesNotThrow(() -> tested.run());
+		
+		verify(gqlApi).getMetrics();
+	}
+	
+	@Test
+	void reportError(){
+		when(gqlApi.getMetrics()).thenThrow(new IllegalStateException("For tests"));
+		
+		assertDoesNotThrow(() -> tested.run());
+	}
+}
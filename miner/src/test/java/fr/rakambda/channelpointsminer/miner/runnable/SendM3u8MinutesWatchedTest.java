@@ -1,8 +1,10 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
+import fr.rakambda.channelpointsminer.miner.api.twitch.M3u8PlaylistState;
 import fr.rakambda.channelpointsminer.miner.api.twitch.TwitchApi;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIndex;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -12,9 +14,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -32,6 +37,8 @@ class SendM3u8MinutesWatchedTest {
 	private TwitchApi twitchApi;
 	@Mock
 	private Streamer streamer;
+	@Mock
+	private StreamerIndex streamerIndex;
 	
 	private URL m3u8Url;
 	
@@ -48,9 +55,17 @@ class SendM3u8MinutesWatchedTest {
 		assertThat(tested.getType()).isNotNull();
 	}
 	
+	@Test
+	void candidatesAreLiveWithM3u8Url(){
+		when(miner.getStreamerIndex()).thenReturn(streamerIndex);
+		when(streamerIndex.getLiveWithM3u8Url()).thenReturn(List.of(streamer));
+		
+		assertThat(tested.getCandidates()).containsExactly(streamer);
+	}
+	
 	@Test
 	void sendingMinutesWatched(){
-		when(twitchApi.openM3u8LastChunk(m3u8Url)).thenReturn(true);
+		when(twitchApi.openM3u8LastChunk(eq(m3u8Url), any())).thenReturn(true);
 		
 		assertDoesNotThrow(() -> tested.send(streamer));
 		
@@ -59,13 +74,44 @@ class SendM3u8MinutesWatchedTest {
 	
 	@Test
 	void sendingMinutesWatchedFailed(){
-		when(twitchApi.openM3u8LastChunk(m3u8Url)).thenReturn(false);
+		when(twitchApi.openM3u8LastChunk(eq(m3u8Url), any())).thenReturn(false);
 		
 		assertDoesNotThrow(() -> tested.send(streamer));
 		
 		verify(streamer).setM3u8Url(null);
 	}
 	
+	@Test
+	void sendingMinutesWatchedReusesPlaylistState(){
+		var states = new ArrayList<M3u8PlaylistState>();
+		when(twitchApi.openM3u8LastChunk(eq(m3u8Url), any())).thenAnswer(invocation -> {
+			states.add(invocation.getArgument(1));
+			return true;
+		});
+		
+		assertThat(tested.send(streamer)).isTrue();
+		assertThat(tested.send(streamer)).isTrue();
+		
+		assertThat(states).hasSize(2);
+		assertThat(states.get(0)).isSameAs(states.get(1));
+	}
+	
+	@Test
+	void sendingMinutesWatchedForgetsPlaylistOfUnwatchedStreamers(){
+		var states = new ArrayList<M3u8PlaylistState>();
+		when(twitchApi.openM3u8LastChunk(eq(m3u8Url), any())).thenAnswer(invocation -> {
+			states.add(invocation.getArgument(1));
+			return true;
+		});
+		
+		assertThat(tested.send(streamer)).isTrue();
+		assertThat(tested.sendAll(List.of())).isEmpty();
+		assertThat(tested.send(streamer)).isTrue();
+		
+		assertThat(states).hasSize(2);
+		assertThat(states.get(0)).isNotSameAs(states.get(1));
+	}
+	
 	@Test
 	void checkValid(){
 		assertThat(tested.checkStreamer(streamer)).isTrue();
@@ -4,6 +4,7 @@ import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.priority.IStreamerPriority;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIndex;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -41,10 +42,13 @@ class SendMinutesWatchedTest{
 	private IMiner miner;
 	@Mock
 	private Streamer streamer;
+	@Mock
+	private StreamerIndex streamerIndex;
 	
 	@BeforeEach
 	void setUp(){
-		lenient().when(miner.getStreamers()).thenReturn(List.of(streamer));
+		lenient().when(miner.getStreamerIndex()).thenReturn(streamerIndex);
+		lenient().when(streamerIndex.getLive()).thenReturn(List.of(streamer));
 		
 		lenient().when(streamer.getId()).thenReturn(STREAMER_ID);
 		lenient().when(streamer.getUsername()).thenReturn(STREAMER_NAME);
@@ -87,7 +91,7 @@ class SendMinutesWatchedTest{
 		try(var timeFactory = mockStatic(TimeFactory.class)){
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
-			when(miner.getStreamers()).thenReturn(List.of(streamer));
+			when(streamerIndex.getLive()).thenReturn(List.of(streamer));
 			
 			assertDoesNotThrow(tested::run);
 			verify(streamer, never()).addWatchedDuration(any());
@@ -100,17 +104,17 @@ class SendMinutesWatchedTest{
 			clearInvocations(streamer);
 			
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
-			when(miner.getStreamers()).thenReturn(List.of());
+			when(streamerIndex.getLive()).thenReturn(List.of());
 			assertDoesNotThrow(tested::run);
 			verify(streamer, never()).addWatchedDuration(any());
 			
-			when(miner.getStreamers()).thenReturn(List.of(streamer));
+			when(streamerIndex.getLive()).thenReturn(List.of(streamer));
 			assertDoesNotThrow(tested::run);
 			verify(streamer, never()).addWatchedDuration(any());
 			
 			delta = Duration.ofSeconds(45);
 			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(delta));
-			when(miner.getStreamers()).thenReturn(List.of(streamer));
+			when(streamerIndex.getLive()).thenReturn(List.of(streamer));
 			assertDoesNotThrow(tested::run);
 			verify(streamer).addWatchedDuration(delta);
 		}
@@ -178,7 +182,7 @@ class SendMinutesWatchedTest{
 		when(streamer2.getUsername()).thenReturn("sn2");
 		when(streamer2.isStreaming()).thenReturn(true);
 		
-		when(miner.getStreamers()).thenReturn(List.of(streamer, streamer2));
+		when(streamerIndex.getLive()).thenReturn(List.of(streamer, streamer2));
 		
 		assertDoesNotThrow(tested::run);
 		assertThat(tested.sendCalled).isEqualTo(2);
@@ -191,7 +195,7 @@ class SendMinutesWatchedTest{
 	void sendingMinutesWatchedMaxTwoStreamers(){
 		var tested = new Tester(miner, true, true);
 		
-		when(miner.getStreamers()).thenReturn(List.of(streamer, streamer, streamer, streamer));
+		when(streamerIndex.getLive()).thenReturn(List.of(streamer, streamer, streamer, streamer));
 		
 		assertDoesNotThrow(tested::run);
 		assertThat(tested.sendCalled).isEqualTo(2);
@@ -228,7 +232,7 @@ class SendMinutesWatchedTest{
 		when(s4.isStreaming()).thenReturn(true);
 		when(s4.getScore(miner, KEEP_ALL_PRIORITIES)).thenReturn(50);
 		
-		when(miner.getStreamers()).thenReturn(List.of(s1, s2, s3, s4));
+		when(streamerIndex.getLive()).thenReturn(List.of(s1, s2, s3, s4));
 		
 		assertDoesNotThrow(tested::run);
 		assertThat(tested.sentStreamers).containsExactlyInAnyOrder(s2, s4);
@@ -262,7 +266,7 @@ class SendMinutesWatchedTest{
 		when(s4.getIndex()).thenReturn(-5);
 		when(s4.getScore(miner, KEEP_ALL_PRIORITIES)).thenReturn(10);
 		
-		when(miner.getStreamers()).thenReturn(List.of(s1, s2, s3, s4));
+		when(streamerIndex.getLive()).thenReturn(List.of(s1, s2, s3, s4));
 		
 		assertDoesNotThrow(tested::run);
 		assertThat(tested.sentStreamers).containsExactlyInAnyOrder(s2, s4);
@@ -1,5 +1,6 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLApi;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.Game;
 import fr.rakambda.channelpointsminer.miner.api.passport.TwitchLogin;
@@ -8,7 +9,9 @@ import fr.rakambda.channelpointsminer.miner.api.twitch.data.MinuteWatchedEvent;
 import fr.rakambda.channelpointsminer.miner.api.twitch.data.MinuteWatchedProperties;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIndex;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import fr.rakambda.channelpointsminer.miner.util.json.JacksonUtils;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,11 +20,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.List;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -48,6 +58,8 @@ class SendSpadeMinutesWatchedTest{
 	@Mock
 	private Streamer streamer;
 	@Mock
+	private StreamerIndex streamerIndex;
+	@Mock
 	private TwitchLogin twitchLogin;
 	@Mock
 	private Game game;
@@ -79,7 +91,15 @@ class SendSpadeMinutesWatchedTest{
 	}
 	
 	@Test
-	void sendingMinutesWatched(){
+	void candidatesAreLiveWithSpadeUrl(){
+		when(miner.getStreamerIndex()).thenReturn(streamerIndex);
+		when(streamerIndex.getLiveWithSpadeUrl()).thenReturn(List.of(streamer));
+		
+		assertThat(tested.getCandidates()).containsExactly(streamer);
+	}
+	
+	@Test
+	void sendingMinutesWatched() throws JsonProcessingException{
 		when(streamer.getGame()).thenReturn(Optional.of(game));
 		
 		var expected = MinuteWatchedEvent.builder()
@@ -95,13 +115,13 @@ class SendSpadeMinutesWatchedTest{
 						.build())
 				.build();
 		
-		when(twitchApi.sendPlayerEvents(spadeUrl, expected)).thenReturn(true);
+		when(twitchApi.sendSerializedPlayerEvents(spadeUrl, List.of(JacksonUtils.writeAsString(expected)))).thenReturn(true);
 		
 		assertThat(tested.send(streamer)).isTrue();
 	}
 	
 	@Test
-	void sendingMinutesWatchedNoGameName(){
+	void sendingMinutesWatchedNoGameName() throws JsonProcessingException{
 		when(streamer.getGame()).thenReturn(Optional.of(game));
 		when(game.getName()).thenReturn(null);
 		when(game.getId()).thenReturn(null);
@@ -117,13 +137,13 @@ class SendSpadeMinutesWatchedTest{
 						.build())
 				.build();
 		
-		when(twitchApi.sendPlayerEvents(spadeUrl, expected)).thenReturn(true);
+		when(twitchApi.sendSerializedPlayerEvents(spadeUrl, List.of(JacksonUtils.writeAsString(expected)))).thenReturn(true);
 		
 		assertThat(tested.send(streamer)).isTrue();
 	}
 	
 	@Test
-	void sendingMinutesWatchedNoGame(){
+	void sendingMinutesWatchedNoGame() throws JsonProcessingException{
 		var expected = MinuteWatchedEvent.builder()
 				.properties(MinuteWatchedProperties.builder()
 						.channelId(STREAMER_ID)
@@ -135,7 +155,7 @@ class SendSpadeMinutesWatchedTest{
 						.build())
 				.build();
 		
-		when(twitchApi.sendPlayerEvents(spadeUrl, expected)).thenReturn(true);
+		when(twitchApi.sendSerializedPlayerEvents(spadeUrl, List.of(JacksonUtils.writeAsString(expected)))).thenReturn(true);
 		
 		assertThat(tested.send(streamer)).isTrue();
 	}
@@ -146,7 +166,49 @@ class SendSpadeMinutesWatchedTest{
 		
 		assertThat(tested.send(streamer)).isFalse();
 		
-		verify(twitchApi, never()).sendPlayerEvents(any(), any());
+		verify(twitchApi, never()).sendSerializedPlayerEvents(any(), any());
+	}
+	
+	@Test
+	void sendAllGroupsBySpadeUrl() throws MalformedURLException{
+		var otherSpadeUrl = new URL("https://google.com/other");
+		var streamer2 = mock(Streamer.class);
+		var streamer3 = mock(Streamer.class);
+		when(streamer2.getId()).thenReturn("streamer-id-2");
+		when(streamer2.getUsername()).thenReturn("streamer-name-2");
+		when(streamer2.getSpadeUrl()).thenReturn(spadeUrl);
+		when(streamer2.getStreamId()).thenReturn(Optional.of("stream-id-2"));
+		when(streamer3.getId()).thenReturn("streamer-id-3");
+		when(streamer3.getUsername()).thenReturn("streamer-name-3");
+		when(streamer3.getSpadeUrl()).thenReturn(otherSpadeUrl);
+		when(streamer3.getStreamId()).thenReturn(Optional.of("stream-id-3"));
+		
+		when(twitchApi.sendSerializedPlayerEvents(eq(spadeUrl), argThat(events -> events.size() == 2))).thenReturn(true);
+		when(twitchApi.sendSerializedPlayerEvents(eq(otherSpadeUrl), argThat(events -> events.size() == 1))).thenReturn(false);
+		
+		assertThat(tested.sendAll(List.of(streamer, streamer3, streamer2))).containsExactly(streamer, streamer2);
+		
+		verify(twitchApi, times(2)).sendSerializedPlayerEvents(any(), any());
+		verify(streamer3).setSpadeUrl(null);
+		verify(streamer, never()).setSpadeUrl(any());
+		verify(streamer2, never()).setSpadeUrl(any());
+	}
+	
+	@Test
+	void sendAllReusesSerializedEvents(){
+		when(twitchApi.sendSerializedPlayerEvents(eq(spadeUrl), any())).thenReturn(true);
+		
+		try(var jacksonUtils = mockStatic(JacksonUtils.class, CALLS_REAL_METHODS)){
+			assertThat(tested.sendAll(List.of(streamer))).containsExactly(streamer);
+			assertThat(tested.sendAll(List.of(streamer))).containsExactly(streamer);
+			
+			jacksonUtils.verify(() -> JacksonUtils.writeAsString(any()));
+			
+			when(streamer.getStreamId()).thenReturn(Optional.of("new-stream-id"));
+			assertThat(tested.sendAll(List.of(streamer))).containsExactly(streamer);
+			
+			jacksonUtils.verify(() -> JacksonUtils.writeAsString(any()), times(2));
+		}
 	}
 	
 	@Test
@@ -10,6 +10,7 @@ import fr.rakambda.channelpointsminer.miner.factory.StreamerSettingsFactory;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIdCache;
 import fr.rakambda.channelpointsminer.miner.streamer.StreamerSettings;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import lombok.SneakyThrows;
@@ -20,11 +21,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.lenient;
@@ -41,6 +44,7 @@ class StreamerConfigurationReloadInitialNoFollowsTest{
 	private static final Instant NOW = Instant.parse("2020-05-17T12:14:20.000Z");
 	
 	private StreamerConfigurationReload tested;
+	private StreamerIdCache streamerIdCache;
 	
 	@TempDir
 	private Path tempDir;
@@ -66,6 +70,7 @@ class StreamerConfigurationReloadInitialNoFollowsTest{
 	@BeforeEach
 	void setUp(){
 		tested = new StreamerConfigurationReload(miner, eventManager, streamerSettingsFactory, false);
+		streamerIdCache = new StreamerIdCache(null, Duration.ZERO);
 		
 		lenient().when(streamerSettingsFactory.getStreamerConfigs()).thenReturn(Stream.empty());
 		lenient().when(streamerSettingsFactory.createStreamerSettings(STREAMER_USERNAME)).thenReturn(streamerSettings);
@@ -73,6 +78,7 @@ class StreamerConfigurationReloadInitialNoFollowsTest{
 		
 		lenient().when(miner.getGqlApi()).thenReturn(gqlApi);
 		lenient().when(miner.getStreamers()).thenReturn(List.of());
+		lenient().when(miner.getStreamerIdCache()).thenReturn(streamerIdCache);
 		
 		lenient().when(reportMenuItemResponse.getData()).thenReturn(reportMenuItemData);
 		lenient().when(reportMenuItemData.getUser()).thenReturn(user);
@@ -90,7 +96,7 @@ class StreamerConfigurationReloadInitialNoFollowsTest{
 		var expectedStreamer = new Streamer(STREAMER_ID, STREAMER_USERNAME, streamerSettings);
 		
 		verify(miner).addStreamer(expectedStreamer);
-		verify(gqlApi, never()).allChannelFollows();
+		verify(gqlApi, never()).channelFollowsPages(any());
 		verify(eventManager, never()).onEvent(any());
 	}
 
@@ -105,10 +111,39 @@ class StreamerConfigurationReloadInitialNoFollowsTest{
 		var expectedStreamer = new Streamer(STREAMER_ID, STREAMER_USERNAME, streamerSettings);
 
 		verify(miner).addStreamer(expectedStreamer);
-		verify(gqlApi, never()).allChannelFollows();
+		verify(gqlApi, never()).channelFollowsPages(any());
 		verify(eventManager, never()).onEvent(any());
 	}
 	
+	@Test
+	void loadFromConfigWithCachedId(){
+		streamerIdCache.put(STREAMER_USERNAME, STREAMER_ID);
+		
+		setupStreamerConfig(STREAMER_USERNAME);
+		
+		assertDoesNotThrow(() -> tested.run());
+		
+		var expectedStreamer = new Streamer(STREAMER_ID, STREAMER_USERNAME, streamerSettings);
+		
+		verify(miner).addStreamer(expectedStreamer);
+		verify(gqlApi, never()).reportMenuItem(any());
+		verify(eventManager, never()).onEvent(any());
+	}
+	
+	@Test
+	void loadFromConfigPersistsResolvedIds(){
+		var file = tempDir.resolve("streamer-ids.json");
+		when(miner.getStreamerIdCache()).thenReturn(new StreamerIdCache(file, Duration.ZERO));
+		when(gqlApi.reportMenuItem(STREAMER_USERNAME)).thenReturn(Optional.of(reportMenuItemResponse));
+		
+		setupStreamerConfig(STREAMER_USERNAME);
+		
+		assertDoesNotThrow(() -> tested.run());
+		
+		verify(miner).addStreamer(new Streamer(STREAMER_ID, STREAMER_USERNAME, streamerSettings));
+		assertThat(file).content().contains(STREAMER_ID);
+	}
+	
 	@SneakyThrows
 	private void setupStreamerConfig(String... usernames){
 		var paths = new ArrayList<Path>();
@@ -130,7 +165,24 @@ class StreamerConfigurationReloadInitialNoFollowsTest{
 			assertDoesNotThrow(() -> tested.run());
 			
 			verify(miner, never()).addStreamer(any());
-			verify(gqlApi, never()).allChannelFollows();
+			verify(gqlApi, never()).channelFollowsPages(any());
+			verify(eventManager).onEvent(new StreamerUnknownEvent(STREAMER_USERNAME, NOW));
+		}
+	}
+	
+	@Test
+	void loadFromConfigUserNull(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			when(gqlApi.reportMenuItem(STREAMER_USERNAME)).thenReturn(Optional.of(reportMenuItemResponse));
+			when(reportMenuItemData.getUser()).thenReturn(null);
+			
+			setupStreamerConfig(STREAMER_USERNAME);
+			
+			assertDoesNotThrow(() -> tested.run());
+			
+			verify(miner, never()).addStreamer(any());
 			verify(eventManager).onEvent(new StreamerUnknownEvent(STREAMER_USERNAME, NOW));
 		}
 	}
@@ -8,6 +8,7 @@ import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.factory.StreamerSettingsFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIdCache;
 import fr.rakambda.channelpointsminer.miner.streamer.StreamerSettings;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.Mock;
@@ -16,13 +17,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -64,6 +68,7 @@ class StreamerConfigurationReloadInitialWithFollowsTest{
 		
 		lenient().when(miner.getGqlApi()).thenReturn(gqlApi);
 		lenient().when(miner.getStreamers()).thenReturn(List.of());
+		lenient().when(miner.getStreamerIdCache()).thenReturn(new StreamerIdCache(null, Duration.ZERO));
 		
 		lenient().when(gqlApi.reportMenuItem(STREAMER_USERNAME)).thenReturn(Optional.empty());
 		lenient().when(reportMenuItemDataGQLResponse.getData()).thenReturn(reportMenuItemData);
@@ -75,7 +80,7 @@ class StreamerConfigurationReloadInitialWithFollowsTest{
 		when(user.getId()).thenReturn(STREAMER_ID);
 		when(user.getLogin()).thenReturn(STREAMER_USERNAME);
 		
-		when(gqlApi.allChannelFollows()).thenReturn(List.of(user));
+		mockFollows(List.of(user));
 		
 		assertDoesNotThrow(() -> tested.run());
 		
@@ -84,9 +89,37 @@ class StreamerConfigurationReloadInitialWithFollowsTest{
 		verify(gqlApi, never()).reportMenuItem(anyString());
 	}
 	
+	@Test
+	void loadFromFollowsAddsEachPage(){
+		var otherUser = mock(User.class);
+		when(user.getId()).thenReturn(STREAMER_ID);
+		when(user.getLogin()).thenReturn(STREAMER_USERNAME);
+		when(otherUser.getId()).thenReturn("other-id");
+		when(otherUser.getLogin()).thenReturn("other-username");
+		when(streamerSettingsFactory.createStreamerSettings("other-username")).thenReturn(streamerSettings);
+		
+		var expectedStreamer = new Streamer(STREAMER_ID, STREAMER_USERNAME, streamerSettings);
+		var otherStreamer = new Streamer("other-id", "other-username", streamerSettings);
+		when(gqlApi.channelFollowsPages(any())).thenAnswer(invocation -> {
+			Predicate<List<User>> consumer = invocation.getArgument(0);
+			consumer.test(List.of(user));
+			verify(miner).addStreamer(expectedStreamer);
+			verify(miner, never()).addStreamer(otherStreamer);
+			
+			consumer.test(List.of(otherUser));
+			verify(miner).addStreamer(otherStreamer);
+			return true;
+		});
+		
+		assertDoesNotThrow(() -> tested.run());
+		
+		verify(miner).addStreamer(expectedStreamer);
+		verify(miner).addStreamer(otherStreamer);
+	}
+	
 	@Test
 	void loadFromFollowsEmpty(){
-		when(gqlApi.allChannelFollows()).thenReturn(List.of());
+		mockFollows(List.of());
 		
 		assertDoesNotThrow(() -> tested.run());
 		
@@ -115,4 +148,12 @@ class StreamerConfigurationReloadInitialWithFollowsTest{
 		
 		verify(miner, never()).addStreamer(any());
 	}
-}
\ No newline at end of file
+	
+	private void mockFollows(List<User> follows){
+		when(gqlApi.channelFollowsPages(any())).thenAnswer(invocation -> {
+			Predicate<List<User>> consumer = invocation.getArgument(0);
+			consumer.test(follows);
+			return true;
+		});
+	}
+}
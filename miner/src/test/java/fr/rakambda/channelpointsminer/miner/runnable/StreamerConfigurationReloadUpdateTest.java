@@ -4,8 +4,10 @@ import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLApi;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.User;
 import fr.rakambda.channelpointsminer.miner.event.manager.IEventManager;
 import fr.rakambda.channelpointsminer.miner.factory.StreamerSettingsFactory;
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIdCache;
 import fr.rakambda.channelpointsminer.miner.streamer.StreamerSettings;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.Mock;
@@ -13,12 +15,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +38,9 @@ class StreamerConfigurationReloadUpdateTest{
 	private static final String EXISTING_STREAMER_ID = "exits-streamer-id";
 	private static final String STREAMER_ID = "streamer-id";
 	private static final String STREAMER_USERNAME = "streamer-username";
+	private static final String NEW_STREAMER_ID = "new-streamer-id";
+	private static final String NEW_STREAMER_USERNAME = "new-streamer-username";
+	private static final Instant NOW = Instant.parse("2020-05-17T12:14:20.000Z");
 	
 	private StreamerConfigurationReload tested;
 	
@@ -43,6 +56,8 @@ class StreamerConfigurationReloadUpdateTest{
 	@Mock
 	private User user;
 	@Mock
+	private User newUser;
+	@Mock
 	private StreamerSettings streamerSettings;
 	
 	@Mock
@@ -58,18 +73,22 @@ class StreamerConfigurationReloadUpdateTest{
 		
 		lenient().when(miner.getGqlApi()).thenReturn(gqlApi);
 		lenient().when(miner.getStreamers()).thenReturn(List.of(existingStreamer));
+		lenient().when(miner.getStreamerIdCache()).thenReturn(new StreamerIdCache(null, Duration.ZERO));
 		
 		lenient().when(existingStreamer.getId()).thenReturn(EXISTING_STREAMER_ID);
 		lenient().when(existingStreamer.getUsername()).thenReturn(STREAMER_USERNAME);
 		
 		lenient().when(user.getId()).thenReturn(STREAMER_ID);
 		lenient().when(user.getLogin()).thenReturn(STREAMER_USERNAME);
+		lenient().when(newUser.getId()).thenReturn(NEW_STREAMER_ID);
+		lenient().when(newUser.getLogin()).thenReturn(NEW_STREAMER_USERNAME);
+		lenient().when(streamerSettingsFactory.createStreamerSettings(NEW_STREAMER_USERNAME)).thenReturn(streamerSettings);
 	}
 	
 	@Test
 	void addNew(){
 		when(existingStreamer.getUsername()).thenReturn(STREAMER_USERNAME + "Old");
-		when(gqlApi.allChannelFollows()).thenReturn(List.of(user));
+		mockFollows(List.of(user));
 		
 		assertDoesNotThrow(() -> tested.run());
 		
@@ -82,7 +101,7 @@ class StreamerConfigurationReloadUpdateTest{
 	void notAddedIfNotEnabled(){
 		when(existingStreamer.getUsername()).thenReturn(STREAMER_USERNAME + "Old");
 		when(streamerSettings.isEnabled()).thenReturn(false);
-		when(gqlApi.allChannelFollows()).thenReturn(List.of(user));
+		mockFollows(List.of(user));
 		
 		assertDoesNotThrow(() -> tested.run());
 		
@@ -95,7 +114,7 @@ class StreamerConfigurationReloadUpdateTest{
 	@Test
 	void updateExisting(){
 		when(user.getId()).thenReturn(EXISTING_STREAMER_ID);
-		when(gqlApi.allChannelFollows()).thenReturn(List.of(user));
+		mockFollows(List.of(user));
 		
 		assertDoesNotThrow(() -> tested.run());
 		
@@ -106,11 +125,75 @@ class StreamerConfigurationReloadUpdateTest{
 	
 	@Test
 	void removeOld(){
-		when(gqlApi.allChannelFollows()).thenReturn(List.of());
+		mockFollows(List.of());
 		
 		assertDoesNotThrow(() -> tested.run());
 		
 		verify(miner).removeStreamer(existingStreamer);
 		verify(gqlApi, never()).reportMenuItem(anyString());
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void reloadStopsAtKnownFollows(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			mockFollows(List.of(user));
+			assertDoesNotThrow(() -> tested.run());
+			
+			var continued = mockFollowsPage(List.of(newUser, user));
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(Duration.ofMinutes(15)));
+			assertDoesNotThrow(() -> tested.run());
+			
+			assertThat(continued).containsExactly(false);
+			verify(miner).addStreamer(new Streamer(NEW_STREAMER_ID, NEW_STREAMER_USERNAME, streamerSettings));
+			verify(miner, never()).removeStreamer(existingStreamer);
+		}
+	}
+	
+	@Test
+	void reloadAllFollowsAfterDelay(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			mockFollows(List.of(user));
+			assertDoesNotThrow(() -> tested.run());
+			
+			var continued = mockFollowsPage(List.of(user));
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(Duration.ofHours(1)));
+			assertDoesNotThrow(() -> tested.run());
+			
+			assertThat(continued).containsExactly(true);
+		}
+	}
+	
+	@Test
+	void reloadKeepsKnownFollowsOnFailure(){
+		mockFollows(List.of(user));
+		assertDoesNotThrow(() -> tested.run());
+		
+		when(gqlApi.channelFollowsPages(any())).thenReturn(false);
+		assertDoesNotThrow(() -> tested.run());
+		
+		verify(miner, never()).removeStreamer(existingStreamer);
+		verify(miner, times(2)).updateStreamer(existingStreamer);
+	}
+	
+	private List<Boolean> mockFollowsPage(List<User> page){
+		var continued = new ArrayList<Boolean>();
+		when(gqlApi.channelFollowsPages(any())).thenAnswer(invocation -> {
+			Predicate<List<User>> consumer = invocation.getArgument(0);
+			continued.add(consumer.test(page));
+			return true;
+		});
+		return continued;
+	}
+	
+	private void mockFollows(List<User> follows){
+		when(gqlApi.channelFollowsPages(any())).thenAnswer(invocation -> {
+			Predicate<List<User>> consumer = invocation.getArgument(0);
+			consumer.test(follows);
+			return true;
+		});
+	}
+}
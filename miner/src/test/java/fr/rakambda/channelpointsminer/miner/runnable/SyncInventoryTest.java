@@ -16,6 +16,7 @@ import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.miner.MinerData;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
+import fr.rakambda.channelpointsminer.miner.streamer.StreamerIndex;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -69,11 +70,14 @@ class SyncInventoryTest{
 	private TimeBasedDropSelfEdge timeBasedDropSelfEdge;
 	@Mock
 	private Streamer streamer;
+	@Mock
+	private StreamerIndex streamerIndex;
 	
 	@BeforeEach
 	void setUp(){
 		lenient().when(miner.getGqlApi()).thenReturn(gqlApi);
-		lenient().when(miner.getStreamers()).thenReturn(List.of(streamer));
+		lenient().when(miner.getStreamerIndex()).thenReturn(streamerIndex);
+		lenient().when(streamerIndex.getParticipatingCampaigns()).thenReturn(List.of(streamer));
 		lenient().when(miner.getMinerData()).thenReturn(minerData);
 		
 		lenient().when(inventoryDataGQLResponse.getData()).thenReturn(inventoryData);
@@ -198,7 +202,7 @@ class SyncInventoryTest{
 	
 	@Test
 	void updateInventoryNoStreamers(){
-		when(miner.getStreamers()).thenReturn(List.of());
+		when(streamerIndex.getParticipatingCampaigns()).thenReturn(List.of());
 		
 		assertDoesNotThrow(() -> tested.run());
 		
@@ -209,7 +213,10 @@ class SyncInventoryTest{
 	
 	@Test
 	void updateInventoryNoStreamersInCampaigns(){
+		var index = new StreamerIndex();
+		when(miner.getStreamerIndex()).thenReturn(index);
 		when(streamer.isParticipateCampaigns()).thenReturn(false);
+		index.add(streamer);
 		
 		assertDoesNotThrow(() -> tested.run());
 		
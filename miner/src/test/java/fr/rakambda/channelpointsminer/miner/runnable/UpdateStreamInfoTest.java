@@ -1,6 +1,7 @@
 package fr.rakambda.channelpointsminer.miner.runnable;
 
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLApi;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.GQLRequestRejectedException;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.GQLResponse;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.channelpointscontext.ChannelPointsContextData;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.chatroombanstatus.ChatRoomBanStatusData;
@@ -19,7 +20,7 @@ import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
 import fr.rakambda.channelpointsminer.miner.streamer.Streamer;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
-import org.mockito.InjectMocks;
+import fr.rakambda.channelpointsminer.miner.util.RateLimiter;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,8 +29,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -53,12 +57,13 @@ class UpdateStreamInfoTest{
 	private static final String M3U8_VALUE = "value";
 	private static final String CAMPAIGN_ID = "campaign-id";
 	
-	@InjectMocks
 	private UpdateStreamInfo tested;
 	
 	@Mock
 	private IMiner miner;
 	@Mock
+	private RateLimiter rateLimiter;
+	@Mock
 	private GQLApi gqlApi;
 	@Mock
 	private TwitchApi twitchApi;
@@ -105,6 +110,8 @@ class UpdateStreamInfoTest{
 		m3u8Url = new URL("https://google.m3u8/");
 		streamerUrl = new URL("https://google.com/streamer");
 		
+		tested = new UpdateStreamInfo(miner, Runnable::run, rateLimiter, 2);
+		
 		lenient().when(miner.getGqlApi()).thenReturn(gqlApi);
 		lenient().when(miner.getTwitchApi()).thenReturn(twitchApi);
 		lenient().when(miner.getStreamers()).thenReturn(List.of(streamer));
@@ -137,30 +144,48 @@ class UpdateStreamInfoTest{
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
 			when(streamer.isStreaming()).thenReturn(false);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).chatRoomBanStatus(anyString(), anyString());
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).chatRoomBanStatusAsync(anyString(), anyString());
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer).setSpadeUrl(null);
 			verify(streamer).setM3u8Url(null);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer, never()).setChatBanned(anyBoolean());
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
 		}
 	}
 	
+	@Test
+	void updateNotStreamingDoesNotNeedUserId(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			lenient().when(twitchLogin.fetchUserId(gqlApi)).thenThrow(new IllegalStateException("For tests"));
+			when(streamer.isStreaming()).thenReturn(false);
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			
+			assertDoesNotThrow(() -> tested.run());
+			
+			verify(twitchLogin, never()).fetchUserId(any());
+			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
+			verify(streamer).markUpdated(NOW);
+		}
+	}
+	
 	@Test
 	void updateWithDataNotStreamingButWasBefore(){
 		try(var timeFactory = mockStatic(TimeFactory.class)){
@@ -168,23 +193,23 @@ class UpdateStreamInfoTest{
 			
 			when(streamer.hasStreamedEnoughTime()).thenReturn(true);
 			when(streamer.isStreaming()).thenReturn(true).thenReturn(false);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.empty());
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.empty());
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).chatRoomBanStatus(anyString(), anyString());
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any());
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).chatRoomBanStatusAsync(anyString(), anyString());
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any());
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(null);
 			verify(streamer).setChannelPointsContext(null);
 			verify(streamer).setSpadeUrl(null);
 			verify(streamer).setM3u8Url(null);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setLastOffline(NOW);
 			verify(streamer).resetWatchedDuration();
 			verify(streamer, never()).setChatBanned(anyBoolean());
@@ -197,24 +222,24 @@ class UpdateStreamInfoTest{
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
 			when(streamer.isStreaming()).thenReturn(false);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.empty());
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.empty());
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).chatRoomBanStatus(anyString(), anyString());
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).chatRoomBanStatusAsync(anyString(), anyString());
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(null);
 			verify(streamer).setChannelPointsContext(null);
 			verify(streamer).setSpadeUrl(null);
 			verify(streamer).setM3u8Url(null);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer, never()).setChatBanned(anyBoolean());
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -229,25 +254,25 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreaming()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
 			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -262,27 +287,27 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreaming()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
 			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
 			
 			when(chatRoomBanStatusData.getChatRoomBanStatus()).thenReturn(mock(ChatRoomBanStatus.class));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(true);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -297,12 +322,12 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreaming()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(null);
 			when(streamer.getM3u8Url()).thenReturn(null);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
-			when(gqlApi.playbackAccessToken(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponsePlaybackAccessToken));
-			when(twitchApi.getSpadeUrl(streamerUrl)).thenReturn(Optional.of(spadeUrl));
-			when(twitchApi.getM3u8Url(STREAMER_USERNAME, M3U8_SIGNATURE, M3U8_VALUE)).thenReturn(Optional.of(m3u8Url));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
+			when(gqlApi.playbackAccessTokenAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponsePlaybackAccessToken)));
+			when(twitchApi.getSpadeUrlAsync(streamerUrl)).thenReturn(CompletableFuture.completedFuture(Optional.of(spadeUrl)));
+			when(twitchApi.getM3u8UrlAsync(STREAMER_USERNAME, M3U8_SIGNATURE, M3U8_VALUE)).thenReturn(CompletableFuture.completedFuture(Optional.of(m3u8Url)));
 			
 			var streamPlaybackAccessToken = mock(StreamPlaybackAccessToken.class);
 			when(playbackAccessTokenData.getStreamPlaybackAccessToken()).thenReturn(streamPlaybackAccessToken);
@@ -311,17 +336,17 @@ class UpdateStreamInfoTest{
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(twitchApi).getSpadeUrl(streamerUrl);
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(twitchApi).getSpadeUrlAsync(streamerUrl);
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer).setSpadeUrl(spadeUrl);
 			verify(streamer).setM3u8Url(m3u8Url);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -336,24 +361,24 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreaming()).thenReturn(true);
 			when(streamer.isParticipateCampaigns()).thenReturn(false);
 			when(streamer.getSpadeUrl()).thenReturn(null);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
-			when(twitchApi.getSpadeUrl(streamerUrl)).thenReturn(Optional.of(spadeUrl));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
+			when(twitchApi.getSpadeUrlAsync(streamerUrl)).thenReturn(CompletableFuture.completedFuture(Optional.of(spadeUrl)));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(twitchApi).getSpadeUrl(streamerUrl);
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(twitchApi).getSpadeUrlAsync(streamerUrl);
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer).setSpadeUrl(spadeUrl);
 			verify(streamer).setM3u8Url(null);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -367,25 +392,25 @@ class UpdateStreamInfoTest{
 			
 			when(streamer.isStreaming()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(null);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
-			when(twitchApi.getSpadeUrl(streamerUrl)).thenReturn(Optional.empty());
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
+			when(twitchApi.getSpadeUrlAsync(streamerUrl)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(twitchApi).getSpadeUrl(streamerUrl);
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(twitchApi).getSpadeUrlAsync(streamerUrl);
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(null);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -402,26 +427,26 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreamingGame()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
 			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.dropsHighlightServiceAvailableDrops(STREAMER_ID)).thenReturn(Optional.of(dropsHighlightServiceAvailableDrops));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.dropsHighlightServiceAvailableDropsAsync(STREAMER_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(dropsHighlightServiceAvailableDrops)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).dropsHighlightServiceAvailableDrops(STREAMER_ID);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi).dropsHighlightServiceAvailableDropsAsync(STREAMER_ID);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
 			verify(streamer).setDropsHighlightServiceAvailableDrops(dropsHighlightServiceAvailableDropsData);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -442,10 +467,11 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreamingGame()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
 			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.dropsHighlightServiceAvailableDrops(STREAMER_ID)).thenReturn(Optional.of(dropsHighlightServiceAvailableDrops));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.dropsHighlightServiceAvailableDropsAsync(STREAMER_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(dropsHighlightServiceAvailableDrops)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
+			when(gqlApi.setDropsCommunityHighlightToHiddenAsync(STREAMER_ID, dropId)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 			
 			when(dropCampaign.getSummary()).thenReturn(dropCampaignSummary);
 			when(dropCampaignSummary.isSitewide()).thenReturn(true);
@@ -453,20 +479,21 @@ class UpdateStreamInfoTest{
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).dropsHighlightServiceAvailableDrops(STREAMER_ID);
-			verify(gqlApi).setDropsCommunityHighlightToHidden(STREAMER_ID, dropId);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi, times(2)).dropsHighlightServiceAvailableDropsAsync(STREAMER_ID);
+			verify(gqlApi).setDropsCommunityHighlightToHiddenAsync(STREAMER_ID, dropId);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
-			verify(streamer).setDropsHighlightServiceAvailableDrops(dropsHighlightServiceAvailableDropsData);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer, times(2)).setDropsHighlightServiceAvailableDrops(dropsHighlightServiceAvailableDropsData);
+			verify(streamer).markUpdated(NOW);
+			verify(miner, never()).updateStreamerInfos(any());
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -483,26 +510,26 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreamingGame()).thenReturn(true);
 			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
 			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.dropsHighlightServiceAvailableDrops(STREAMER_ID)).thenReturn(Optional.empty());
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.dropsHighlightServiceAvailableDropsAsync(STREAMER_ID)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).dropsHighlightServiceAvailableDrops(STREAMER_ID);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi).dropsHighlightServiceAvailableDropsAsync(STREAMER_ID);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -519,25 +546,25 @@ class UpdateStreamInfoTest{
 			when(streamer.isStreamingGame()).thenReturn(false);
 			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
 			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
-			when(gqlApi.chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID)).thenReturn(Optional.of(gqlResponseChatRoomBanStatus));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChatRoomBanStatus)));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi).chatRoomBanStatus(STREAMER_ID, ACCOUNT_ID);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).playbackAccessToken(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi).chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).playbackAccessTokenAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -550,21 +577,21 @@ class UpdateStreamInfoTest{
 			timeFactory.when(TimeFactory::now).thenReturn(NOW);
 			
 			when(streamer.isStreaming()).thenReturn(false);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.empty());
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.empty());
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 			when(miner.getStreamers()).thenReturn(List.of(streamer, streamer));
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi, times(2)).videoPlayerStreamInfoOverlayChannel(anyString());
-			verify(gqlApi, times(2)).channelPointsContext(anyString());
+			verify(gqlApi, times(2)).videoPlayerStreamInfoOverlayChannelAsync(anyString());
+			verify(gqlApi, times(2)).channelPointsContextAsync(anyString());
 			
 			verify(streamer, times(2)).setVideoPlayerStreamInfoOverlayChannel(null);
 			verify(streamer, times(2)).setChannelPointsContext(null);
 			verify(streamer, times(2)).setSpadeUrl(null);
 			verify(streamer, times(2)).setM3u8Url(null);
 			verify(streamer, times(2)).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer, times(2)).setLastUpdated(NOW);
+			verify(streamer, times(2)).markUpdated(NOW);
 			verify(streamer, never()).setChatBanned(false);
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
@@ -573,11 +600,34 @@ class UpdateStreamInfoTest{
 	
 	@Test
 	void updateException(){
-		when(gqlApi.videoPlayerStreamInfoOverlayChannel(any())).thenThrow(new RuntimeException("For tests"));
+		when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(any())).thenThrow(new RuntimeException("For tests"));
 		
 		assertDoesNotThrow(() -> tested.run());
 	}
 	
+	@Test
+	void updateRejectedKeepsState(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			when(streamer.isStreaming()).thenReturn(true);
+			when(streamer.getSpadeUrl()).thenReturn(spadeUrl);
+			when(streamer.getM3u8Url()).thenReturn(m3u8Url);
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.failedFuture(new GQLRequestRejectedException("VideoPlayerStreamInfoOverlayChannel")));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.failedFuture(new GQLRequestRejectedException("ChannelPointsContext")));
+			when(gqlApi.chatRoomBanStatusAsync(STREAMER_ID, ACCOUNT_ID)).thenReturn(CompletableFuture.failedFuture(new GQLRequestRejectedException("ChatRoomBanStatus")));
+			
+			assertDoesNotThrow(() -> tested.run());
+			
+			verify(streamer, never()).setVideoPlayerStreamInfoOverlayChannel(any());
+			verify(streamer, never()).setChannelPointsContext(any());
+			verify(streamer, never()).setChatBanned(anyBoolean());
+			verify(streamer, never()).setSpadeUrl(any());
+			verify(streamer, never()).setM3u8Url(any());
+			verify(streamer).markUpdated(NOW);
+		}
+	}
+	
 	@Test
 	void notUpdatingIfNotNeeded(){
 		try(var timeFactory = mockStatic(TimeFactory.class)){
@@ -585,18 +635,18 @@ class UpdateStreamInfoTest{
 			
 			assertDoesNotThrow(() -> tested.run());
 			
-			verify(gqlApi, never()).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi, never()).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(gqlApi, never()).chatRoomBanStatus(anyString(), anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi, never()).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi, never()).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(gqlApi, never()).chatRoomBanStatusAsync(anyString(), anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer, never()).setVideoPlayerStreamInfoOverlayChannel(any());
 			verify(streamer, never()).setChannelPointsContext(any());
 			verify(streamer, never()).setSpadeUrl(any());
 			verify(streamer, never()).setM3u8Url(any());
 			verify(streamer, never()).setDropsHighlightServiceAvailableDrops(any());
-			verify(streamer, never()).setLastUpdated(any());
+			verify(streamer, never()).markUpdated(any());
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
 			verify(streamer, never()).setChatBanned(anyBoolean());
@@ -610,26 +660,43 @@ class UpdateStreamInfoTest{
 			
 			lenient().when(streamer.needUpdate()).thenReturn(false);
 			when(streamer.isStreaming()).thenReturn(false);
-			when(gqlApi.videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseVideoPlayer));
-			when(gqlApi.channelPointsContext(STREAMER_USERNAME)).thenReturn(Optional.of(gqlResponseChannelPoints));
+			when(gqlApi.videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseVideoPlayer)));
+			when(gqlApi.channelPointsContextAsync(STREAMER_USERNAME)).thenReturn(CompletableFuture.completedFuture(Optional.of(gqlResponseChannelPoints)));
 			
 			assertDoesNotThrow(() -> tested.run(streamer));
 			
-			verify(gqlApi).videoPlayerStreamInfoOverlayChannel(STREAMER_USERNAME);
-			verify(gqlApi).channelPointsContext(STREAMER_USERNAME);
-			verify(gqlApi, never()).chatRoomBanStatus(anyString(), anyString());
-			verify(gqlApi, never()).dropsHighlightServiceAvailableDrops(anyString());
-			verify(twitchApi, never()).getSpadeUrl(any(URL.class));
+			verify(gqlApi).videoPlayerStreamInfoOverlayChannelAsync(STREAMER_USERNAME);
+			verify(gqlApi).channelPointsContextAsync(STREAMER_USERNAME);
+			verify(gqlApi, never()).chatRoomBanStatusAsync(anyString(), anyString());
+			verify(gqlApi, never()).dropsHighlightServiceAvailableDropsAsync(anyString());
+			verify(twitchApi, never()).getSpadeUrlAsync(any(URL.class));
 			
 			verify(streamer).setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
 			verify(streamer).setChannelPointsContext(channelPointsContextData);
 			verify(streamer).setSpadeUrl(null);
 			verify(streamer).setM3u8Url(null);
 			verify(streamer).setDropsHighlightServiceAvailableDrops(null);
-			verify(streamer).setLastUpdated(NOW);
+			verify(streamer).markUpdated(NOW);
 			verify(streamer, never()).setChatBanned(anyBoolean());
 			verify(streamer, never()).setLastOffline(any());
 			verify(streamer, never()).resetWatchedDuration();
 		}
 	}
+	
+	@Test
+	void updateIsHandedToExecutorWithoutOverlapping(){
+		var passes = new ArrayList<Runnable>();
+		var updater = new UpdateStreamInfo(miner, passes::add, rateLimiter, 2);
+		
+		updater.run();
+		updater.run();
+		assertThat(passes).hasSize(1);
+		verify(miner, never()).getStreamers();
+		
+		passes.get(0).run();
+		verify(miner).getStreamers();
+		
+		updater.run();
+		assertThat(passes).hasSize(2);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package fr.rakambda.channelpointsminer.miner.streamer;
+
+import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockStatic;
+
+@ParallelizableTest
+class StreamerIdCacheTest{
+	private static final String USERNAME = "streamer-username";
+	private static final String ID = "streamer-id";
+	private static final Instant NOW = Instant.parse("2020-05-17T12:14:20.000Z");
+	private static final Duration RETRY_DELAY = Duration.ofMinutes(60);
+	
+	@TempDir
+	private Path tempDir;
+	
+	private Path file;
+	private AtomicInteger resolveCount;
+	
+	@BeforeEach
+	void setUp(){
+		file = tempDir.resolve("streamer-ids.json");
+		resolveCount = new AtomicInteger();
+	}
+	
+	@Test
+	void knownIdIsNotResolvedAgain(){
+		var tested = new StreamerIdCache(null, RETRY_DELAY);
+		
+		assertThat(tested.getId(USERNAME, resolver(ID))).contains(ID);
+		assertThat(tested.getId(USERNAME.toUpperCase(), resolver(ID))).contains(ID);
+		assertThat(resolveCount).hasValue(1);
+	}
+	
+	@Test
+	void putIdIsNotResolved(){
+		var tested = new StreamerIdCache(null, RETRY_DELAY);
+		tested.put(USERNAME, ID);
+		
+		assertThat(tested.getId(USERNAME, resolver(null))).contains(ID);
+		assertThat(resolveCount).hasValue(0);
+	}
+	
+	@Test
+	void idsArePersistedOnFlush(){
+		var tested = new StreamerIdCache(new StreamerIdStore(file), RETRY_DELAY);
+		assertThat(tested.getId(USERNAME, resolver(ID))).contains(ID);
+		assertThat(file).doesNotExist();
+		
+		tested.flush();
+		assertThat(file).exists();
+		assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+		
+		var restored = new StreamerIdCache(new StreamerIdStore(file), RETRY_DELAY);
+		assertThat(restored.getId(USERNAME, resolver(ID))).contains(ID);
+		assertThat(resolveCount).hasValue(1);
+	}
+	
+	@Test
+	void unchangedIdsAreNotWritten(){
+		var tested = new StreamerIdCache(new StreamerIdStore(file), RETRY_DELAY);
+		tested.put(USERNAME, ID);
+		tested.flush();
+		assertThat(file).exists();
+		
+		assertThat(file.toFile().delete()).isTrue();
+		tested.put(USERNAME, ID);
+		tested.flush();
+		assertThat(file).doesNotExist();
+	}
+	
+	@Test
+	void persistedIdsAreMerged(){
+		var first = new StreamerIdCache(new StreamerIdStore(file), RETRY_DELAY);
+		var second = new StreamerIdCache(new StreamerIdStore(file), RETRY_DELAY);
+		first.put(USERNAME, ID);
+		second.put("other", "other-id");
+		first.flush();
+		second.flush();
+		
+		var restored = new StreamerIdCache(new StreamerIdStore(file), RETRY_DELAY);
+		assertThat(restored.getId(USERNAME, resolver(null))).contains(ID);
+		assertThat(restored.getId("other", resolver(null))).contains("other-id");
+		assertThat(resolveCount).hasValue(0);
+	}
+	
+	@Test
+	void cachesOfSameFileShareIds(){
+		var first = new StreamerIdCache(file, RETRY_DELAY);
+		var second = new StreamerIdCache(tempDir.resolve(".").resolve(file.getFileName()), RETRY_DELAY);
+		first.put(USERNAME, ID);
+		
+		assertThat(second.getId(USERNAME, resolver(null))).contains(ID);
+		assertThat(resolveCount).hasValue(0);
+	}
+	
+	@Test
+	void unknownIsRetriedAfterDelay(){
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW);
+			
+			var tested = new StreamerIdCache(null, RETRY_DELAY);
+			assertThat(tested.getId(USERNAME, resolver(null))).isEmpty();
+			assertThat(tested.getId(USERNAME, resolver(null))).isEmpty();
+			assertThat(resolveCount).hasValue(1);
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(RETRY_DELAY));
+			assertThat(tested.getId(USERNAME, resolver(ID))).contains(ID);
+			assertThat(resolveCount).hasValue(2);
+		}
+	}
+	
+	@Test
+	void failureIsNotCached(){
+		var tested = new StreamerIdCache(file, RETRY_DELAY);
+		assertThat(tested.getId(USERNAME, username -> {
+			resolveCount.incrementAndGet();
+			throw new IllegalStateException("Failed");
+		})).isEmpty();
+		tested.flush();
+		assertThat(file).doesNotExist();
+		
+		assertThat(tested.getId(USERNAME, resolver(ID))).contains(ID);
+		assertThat(resolveCount).hasValue(2);
+	}
+	
+	@Test
+	void invalidFileIsIgnored() throws Exception{
+		Files.writeString(file, "not json");
+		
+		var tested = new StreamerIdCache(file, RETRY_DELAY);
+		assertThat(tested.getId(USERNAME, resolver(ID))).contains(ID);
+		assertThat(resolveCount).hasValue(1);
+	}
+	
+	private Function<String, Optional<String>> resolver(String id){
+		return username -> {
+			resolveCount.incrementAndGet();
+			return Optional.ofNullable(id);
+		};
+	}
+}
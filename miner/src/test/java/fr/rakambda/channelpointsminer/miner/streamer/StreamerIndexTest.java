@@ -0,0 +1,141 @@
+package fr.rakambda.channelpointsminer.miner.streamer;
+
+import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ParallelizableTest
+@ExtendWith(MockitoExtension.class)
+class StreamerIndexTest{
+	private final StreamerIndex tested = new StreamerIndex();
+	
+	@Mock
+	private Streamer streamer;
+	
+	private URL url;
+	
+	@BeforeEach
+	void setUp() throws MalformedURLException{
+		url = URI.create("https://google.com/").toURL();
+		
+		lenient().when(streamer.isStreaming()).thenReturn(true);
+		lenient().when(streamer.isParticipateCampaigns()).thenReturn(true);
+		lenient().when(streamer.getSpadeUrl()).thenReturn(url);
+		lenient().when(streamer.getM3u8Url()).thenReturn(url);
+	}
+	
+	@Test
+	void addIndexesStreamer(){
+		tested.add(streamer);
+		
+		verify(streamer).addStateListener(tested);
+		assertThat(tested.getLive()).containsExactly(streamer);
+		assertThat(tested.getParticipatingCampaigns()).containsExactly(streamer);
+		assertThat(tested.getLiveWithSpadeUrl()).containsExactly(streamer);
+		assertThat(tested.getLiveWithM3u8Url()).containsExactly(streamer);
+	}
+	
+	@Test
+	void offlineStreamer(){
+		when(streamer.isStreaming()).thenReturn(false);
+		
+		tested.add(streamer);
+		
+		assertThat(tested.getLive()).isEmpty();
+		assertThat(tested.getParticipatingCampaigns()).containsExactly(streamer);
+		assertThat(tested.getLiveWithSpadeUrl()).isEmpty();
+		assertThat(tested.getLiveWithM3u8Url()).isEmpty();
+	}
+	
+	@Test
+	void stateChangeUpdatesViews(){
+		tested.add(streamer);
+		
+		when(streamer.getSpadeUrl()).thenReturn(null);
+		when(streamer.isParticipateCampaigns()).thenReturn(false);
+		tested.onStreamerStateChanged(streamer);
+		
+		assertThat(tested.getLive()).containsExactly(streamer);
+		assertThat(tested.getParticipatingCampaigns()).isEmpty();
+		assertThat(tested.getLiveWithSpadeUrl()).isEmpty();
+		assertThat(tested.getLiveWithM3u8Url()).containsExactly(streamer);
+		
+		when(streamer.isStreaming()).thenReturn(false);
+		tested.onStreamerStateChanged(streamer);
+		
+		assertThat(tested.getLive()).isEmpty();
+		assertThat(tested.getLiveWithM3u8Url()).isEmpty();
+	}
+	
+	@Test
+	void concurrentChangeIsAppliedAfterCurrentOne() throws Exception{
+		tested.add(streamer);
+		
+		var streaming = new AtomicBoolean(true);
+		var concurrentChange = new AtomicReference<Future<?>>();
+		var executor = Executors.newSingleThreadExecutor();
+		try{
+			when(streamer.isStreaming()).thenAnswer(invocation -> {
+				if(Objects.nonNull(concurrentChange.get())){
+					return streaming.get();
+				}
+				
+				// Streamer goes offline while its previous state is being applied
+				streaming.set(false);
+				concurrentChange.set(executor.submit(() -> tested.onStreamerStateChanged(streamer)));
+				try{
+					concurrentChange.get().get(200, MILLISECONDS);
+				}
+				catch(TimeoutException e){
+					// Expected, it waits for this change to be applied
+				}
+				return true;
+			});
+			
+			tested.onStreamerStateChanged(streamer);
+			concurrentChange.get().get();
+			
+			assertThat(tested.getLive()).isEmpty();
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	void removeClearsViews(){
+		tested.add(streamer);
+		tested.remove(streamer);
+		
+		verify(streamer).removeStateListener(tested);
+		assertThat(tested.getLive()).isEmpty();
+		assertThat(tested.getParticipatingCampaigns()).isEmpty();
+		assertThat(tested.getLiveWithSpadeUrl()).isEmpty();
+		assertThat(tested.getLiveWithM3u8Url()).isEmpty();
+	}
+	
+	@Test
+	void unknownStreamerIsIgnored(){
+		tested.onStreamerStateChanged(streamer);
+		
+		assertThat(tested.getLive()).isEmpty();
+		assertThat(tested.getParticipatingCampaigns()).isEmpty();
+	}
+}
@@ -1,6 +1,7 @@
 package fr.rakambda.channelpointsminer.miner.streamer;
 
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.channelpointscontext.ChannelPointsContextData;
+import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.inventory.InventoryData;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.BroadcastSettings;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.Channel;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.ChannelSelfEdge;
@@ -13,6 +14,7 @@ import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.types.User;
 import fr.rakambda.channelpointsminer.miner.api.gql.gql.data.videoplayerstreaminfooverlaychannel.VideoPlayerStreamInfoOverlayChannelData;
 import fr.rakambda.channelpointsminer.miner.factory.TimeFactory;
 import fr.rakambda.channelpointsminer.miner.miner.IMiner;
+import fr.rakambda.channelpointsminer.miner.miner.MinerData;
 import fr.rakambda.channelpointsminer.miner.priority.IStreamerPriority;
 import fr.rakambda.channelpointsminer.miner.tests.ParallelizableTest;
 import org.mockito.Mock;
@@ -28,13 +30,18 @@ import java.net.URL;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Predicate;
 import static java.time.Duration.ZERO;
 import static java.time.Duration.ofMinutes;
 import static java.time.temporal.ChronoUnit.HOURS;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ParallelizableTest
@@ -67,11 +74,17 @@ class StreamerTest{
 	private ChannelSelfEdge channelSelfEdge;
 	@Mock
 	private CommunityPointsProperties communityPointsProperties;
+	@Mock
+	private MinerData minerData;
+	@Mock
+	private InventoryData inventoryData;
 	
 	@BeforeEach
 	void setUp(){
 		tested = new Streamer("streamer-id", USERNAME, settings);
 		tested.setVideoPlayerStreamInfoOverlayChannel(videoPlayerStreamInfoOverlayChannelData);
+		
+		lenient().when(miner.getMinerData()).thenReturn(minerData);
 	}
 	
 	@Test
@@ -129,6 +142,24 @@ class StreamerTest{
 		assertThat(tested.getStreamId()).isEmpty();
 	}
 	
+	@Test
+	void stateListenerNotified() throws MalformedURLException{
+		var listener = mock(IStreamerStateListener.class);
+		tested.addStateListener(listener);
+		
+		tested.setSpadeUrl(new URL("https://google.com/spade"));
+		tested.setM3u8Url(null);
+		tested.setVideoPlayerStreamInfoOverlayChannel(null);
+		tested.setSettings(settings);
+		
+		verify(listener, times(4)).onStreamerStateChanged(tested);
+		
+		tested.removeStateListener(listener);
+		tested.setSpadeUrl(null);
+		
+		verifyNoMoreInteractions(listener);
+	}
+	
 	@Test
 	void getChannelUrl() throws MalformedURLException{
 		assertThat(tested.getChannelUrl()).isEqualTo(new URL("https://www.twitch.tv/" + USERNAME));
@@ -395,6 +426,65 @@ class StreamerTest{
 		}
 	}
 	
+	@Test
+	void markUpdatedStreaming(){
+		when(videoPlayerStreamInfoOverlayChannelData.getUser()).thenReturn(user);
+		when(user.getStream()).thenReturn(stream);
+		
+		tested.markUpdated(NOW);
+		tested.markUpdated(NOW);
+		
+		assertThat(tested.getUpdateDelay()).isEqualTo(Streamer.UPDATE_DELAY);
+	}
+	
+	@Test
+	void markUpdatedOfflineBacksOff(){
+		tested.markUpdated(NOW);
+		assertThat(tested.getUpdateDelay()).isEqualTo(ofMinutes(10));
+		
+		tested.markUpdated(NOW);
+		assertThat(tested.getUpdateDelay()).isEqualTo(ofMinutes(20));
+		
+		try(var timeFactory = mockStatic(TimeFactory.class)){
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(15, MINUTES));
+			assertThat(tested.needUpdate()).isFalse();
+			
+			timeFactory.when(TimeFactory::now).thenReturn(NOW.plus(25, MINUTES));
+			assertThat(tested.needUpdate()).isTrue();
+		}
+	}
+	
+	@Test
+	void markUpdatedOfflineBackOffIsCapped(){
+		for(var i = 0; i < 20; i++){
+			tested.markUpdated(NOW);
+		}
+		
+		assertThat(tested.getUpdateDelay()).isEqualTo(Streamer.MAX_OFFLINE_UPDATE_DELAY);
+	}
+	
+	@Test
+	void markUpdatedBackOnline(){
+		tested.markUpdated(NOW);
+		tested.markUpdated(NOW);
+		
+		when(videoPlayerStreamInfoOverlayChannelData.getUser()).thenReturn(user);
+		when(user.getStream()).thenReturn(stream);
+		tested.markUpdated(NOW);
+		
+		assertThat(tested.getUpdateDelay()).isEqualTo(Streamer.UPDATE_DELAY);
+	}
+	
+	@Test
+	void resetUpdateDelay(){
+		tested.markUpdated(NOW);
+		tested.markUpdated(NOW);
+		
+		tested.resetUpdateDelay();
+		
+		assertThat(tested.getUpdateDelay()).isEqualTo(Streamer.UPDATE_DELAY);
+	}
+	
 	@Test
 	void followRaid(){
 		when(settings.isFollowRaid()).thenReturn(true);
@@ -434,6 +524,79 @@ class StreamerTest{
 		assertThat(tested.getScore(miner, p -> true)).isEqualTo(s1 + s2);
 	}
 	
+	@Test
+	void getScoreIsCached(){
+		Predicate<IStreamerPriority> filter = p -> true;
+		var priority = mock(IStreamerPriority.class);
+		when(priority.getScore(miner, tested)).thenReturn(15);
+		when(settings.getPriorities()).thenReturn(List.of(priority));
+		
+		assertThat(tested.getScore(miner, filter)).isEqualTo(15);
+		assertThat(tested.getScore(miner, filter)).isEqualTo(15);
+		
+		verify(priority).getScore(miner, tested);
+	}
+	
+	@Test
+	void getScoreCacheIsPerFilter(){
+		Predicate<IStreamerPriority> filterAll = p -> true;
+		Predicate<IStreamerPriority> filterNone = p -> false;
+		var priority = mock(IStreamerPriority.class);
+		when(priority.getScore(miner, tested)).thenReturn(15);
+		when(settings.getPriorities()).thenReturn(List.of(priority));
+		
+		assertThat(tested.getScore(miner, filterAll)).isEqualTo(15);
+		assertThat(tested.getScore(miner, filterNone)).isEqualTo(0);
+	}
+	
+	@Test
+	void getScoreInvalidatedByPointsContext(){
+		Predicate<IStreamerPriority> filter = p -> true;
+		var priority = mock(IStreamerPriority.class);
+		when(priority.getScore(miner, tested)).thenReturn(15, 20);
+		when(settings.getPriorities()).thenReturn(List.of(priority));
+		
+		assertThat(tested.getScore(miner, filter)).isEqualTo(15);
+		tested.setChannelPointsContext(channelPointsContextData);
+		assertThat(tested.getScore(miner, filter)).isEqualTo(20);
+	}
+	
+	@Test
+	void getScoreInvalidatedByStreamInfo(){
+		Predicate<IStreamerPriority> filter = p -> true;
+		var priority = mock(IStreamerPriority.class);
+		when(priority.getScore(miner, tested)).thenReturn(15, 20);
+		when(settings.getPriorities()).thenReturn(List.of(priority));
+		
+		assertThat(tested.getScore(miner, filter)).isEqualTo(15);
+		tested.setVideoPlayerStreamInfoOverlayChannel(null);
+		assertThat(tested.getScore(miner, filter)).isEqualTo(20);
+	}
+	
+	@Test
+	void getScoreInvalidatedByInventory(){
+		Predicate<IStreamerPriority> filter = p -> true;
+		var priority = mock(IStreamerPriority.class);
+		when(priority.getScore(miner, tested)).thenReturn(15, 20);
+		when(settings.getPriorities()).thenReturn(List.of(priority));
+		
+		assertThat(tested.getScore(miner, filter)).isEqualTo(15);
+		when(minerData.getInventory()).thenReturn(inventoryData);
+		assertThat(tested.getScore(miner, filter)).isEqualTo(20);
+	}
+	
+	@Test
+	void getScoreTimeDependentNotCached(){
+		Predicate<IStreamerPriority> filter = p -> true;
+		var priority = mock(IStreamerPriority.class);
+		when(priority.isTimeDependent()).thenReturn(true);
+		when(priority.getScore(miner, tested)).thenReturn(15, 20);
+		when(settings.getPriorities()).thenReturn(List.of(priority));
+		
+		assertThat(tested.getScore(miner, filter)).isEqualTo(15);
+		assertThat(tested.getScore(miner, filter)).isEqualTo(20);
+	}
+	
 	@ParameterizedTest
 	@ValueSource(ints = {
 			0,
@@ -0,0 +1,83 @@
+package fr.rakambda.channelpointsminer.miner.util;
+
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mockStatic;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimiterTest{
+	@Captor
+	private ArgumentCaptor<Long> captor;
+	
+	private final AtomicLong clock = new AtomicLong();
+	
+	@Test
+	void burstDoesNotWait() throws InterruptedException{
+		try(var sleepHandler = mockStatic(SleepHandler.class)){
+			sleepHandler.when(() -> SleepHandler.sleep(captor.capture())).then(Answers.RETURNS_DEFAULTS);
+			
+			var tested = new RateLimiter(2, 3, clock::get);
+			tested.acquire();
+			tested.acquire();
+			tested.acquire();
+			
+			assertThat(captor.getAllValues()).containsExactly(0L, 0L, 0L);
+		}
+	}
+	
+	@Test
+	void waitsWhenEmpty() throws InterruptedException{
+		try(var sleepHandler = mockStatic(SleepHandler.class)){
+			sleepHandler.when(() -> SleepHandler.sleep(captor.capture())).then(Answers.RETURNS_DEFAULTS);
+			
+			var tested = new RateLimiter(2, 1, clock::get);
+			tested.acquire();
+			tested.acquire();
+			tested.acquire();
+			
+			assertThat(captor.getAllValues()).containsExactly(0L, 500L, 1000L);
+		}
+	}
+	
+	@Test
+	void refillsOverTime() throws InterruptedException{
+		try(var sleepHandler = mockStatic(SleepHandler.class)){
+			sleepHandler.when(() -> SleepHandler.sleep(captor.capture())).then(Answers.RETURNS_DEFAULTS);
+			
+			var tested = new RateLimiter(2, 1, clock::get);
+			tested.acquire();
+			clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+			tested.acquire();
+			
+			assertThat(captor.getAllValues()).containsExactly(0L, 300L);
+		}
+	}
+	
+	@Test
+	void refillIsCappedByBurst() throws InterruptedException{
+		try(var sleepHandler = mockStatic(SleepHandler.class)){
+			sleepHandler.when(() -> SleepHandler.sleep(captor.capture())).then(Answers.RETURNS_DEFAULTS);
+			
+			var tested = new RateLimiter(1, 2, clock::get);
+			clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+			tested.acquire();
+			tested.acquire();
+			tested.acquire();
+			
+			assertThat(captor.getAllValues()).containsExactly(0L, 0L, 1000L);
+		}
+	}
+	
+	@Test
+	void invalidRate(){
+		assertThatThrownBy(() -> new RateLimiter(0, 1)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
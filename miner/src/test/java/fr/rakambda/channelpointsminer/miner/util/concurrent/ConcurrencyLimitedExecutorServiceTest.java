@@ -0,0 +1,111 @@
+package fr.rakambda.channelpointsminer.miner.util.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitedExecutorServiceTest{
+	private ExecutorService shared;
+	
+	@BeforeEach
+	void setUp(){
+		shared = Executors.newFixedThreadPool(8);
+	}
+	
+	@AfterEach
+	void tearDown(){
+		shared.shutdownNow();
+	}
+	
+	@Test
+	void limitsConcurrency() throws Exception{
+		var tested = new ConcurrencyLimitedExecutorService(shared, 2);
+		var running = new AtomicInteger();
+		var maxRunning = new AtomicInteger();
+		
+		var futures = new ArrayList<Future<?>>();
+		for(var i = 0; i < 10; i++){
+			futures.add(tested.submit(() -> {
+				var current = running.incrementAndGet();
+				maxRunning.accumulateAndGet(current, Math::max);
+				TimeUnit.MILLISECONDS.sleep(20);
+				running.decrementAndGet();
+				return null;
+			}));
+		}
+		for(var future : futures){
+			future.get(5, TimeUnit.SECONDS);
+		}
+		
+		assertThat(maxRunning.get()).isEqualTo(2);
+	}
+	
+	@Test
+	void doesNotStarveOtherUsers() throws Exception{
+		var greedy = new ConcurrencyLimitedExecutorService(shared, 2);
+		var other = new ConcurrencyLimitedExecutorService(shared, 2);
+		var release = new CountDownLatch(1);
+		
+		for(var i = 0; i < 20; i++){
+			greedy.execute(() -> {
+				try{
+					release.await();
+				}
+				catch(InterruptedException e){
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		
+		assertThat(other.submit(() -> true).get(5, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+	}
+	
+	@Test
+	void shutdownDoesNotAffectShared() throws Exception{
+		var tested = new ConcurrencyLimitedExecutorService(shared, 2);
+		tested.shutdown();
+		
+		assertThat(tested.isShutdown()).isTrue();
+		assertThat(tested.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(shared.isShutdown()).isFalse();
+		assertThatThrownBy(() -> tested.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+	}
+	
+	@Test
+	void shutdownNowReturnsQueuedTasks() throws Exception{
+		var tested = new ConcurrencyLimitedExecutorService(shared, 1);
+		var release = new CountDownLatch(1);
+		var started = new CountDownLatch(1);
+		
+		tested.execute(() -> {
+			started.countDown();
+			try{
+				release.await();
+			}
+			catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		});
+		started.await(5, TimeUnit.SECONDS);
+		tested.execute(() -> {});
+		
+		List<Runnable> pending = tested.shutdownNow();
+		assertThat(pending).hasSize(1);
+		assertThat(tested.isTerminated()).isFalse();
+		
+		release.countDown();
+		assertThat(tested.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+	}
+}
@@ -0,0 +1,53 @@
+package fr.rakambda.channelpointsminer.miner.util.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedScheduledExecutorServiceTest{
+	private ScheduledExecutorService shared;
+	
+	@BeforeEach
+	void setUp(){
+		shared = Executors.newScheduledThreadPool(1);
+	}
+	
+	@AfterEach
+	void tearDown(){
+		shared.shutdownNow();
+	}
+	
+	@Test
+	void runsOnShared() throws Exception{
+		var tested = new SharedScheduledExecutorService(shared);
+		
+		assertThat(tested.schedule(() -> 5, 1, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS)).isEqualTo(5);
+		assertThat(tested.submit(() -> 3).get(5, TimeUnit.SECONDS)).isEqualTo(3);
+	}
+	
+	@Test
+	void shutdownCancelsOwnTasksOnly() throws Exception{
+		var tested = new SharedScheduledExecutorService(shared);
+		var other = new SharedScheduledExecutorService(shared);
+		
+		var testedTask = tested.scheduleWithFixedDelay(() -> {}, 0, 10, TimeUnit.MILLISECONDS);
+		var otherTask = other.scheduleWithFixedDelay(() -> {}, 0, 10, TimeUnit.MILLISECONDS);
+		
+		tested.shutdown();
+		
+		assertThat(testedTask.isCancelled()).isTrue();
+		assertThat(otherTask.isCancelled()).isFalse();
+		assertThat(shared.isShutdown()).isFalse();
+		assertThat(tested.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+		assertThatThrownBy(() -> tested.schedule(() -> {}, 0, TimeUnit.MILLISECONDS)).isInstanceOf(RejectedExecutionException.class);
+		
+		other.shutdownNow();
+		assertThat(otherTask.isCancelled()).isTrue();
+	}
+}
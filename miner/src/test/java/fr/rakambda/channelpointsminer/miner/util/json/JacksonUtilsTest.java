@@ -6,10 +6,13 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
@@ -117,4 +120,17 @@ class JacksonUtilsTest{
 			assertThat(result).isEqualTo(expected);
 		}
 	}
+	
+	@Test
+	void writeAtomicallyReplacesFile(@TempDir Path tempDir) throws IOException{
+		var file = tempDir.resolve("sub").resolve("file.json");
+		
+		JacksonUtils.writeAtomically(file, new TestObject("value1", 25));
+		JacksonUtils.writeAtomically(file, new TestObject("value2", 30));
+		
+		assertThat(file).hasContent("{\"field1\":\"value2\",\"field2\":30}");
+		try(var files = Files.list(file.getParent())){
+			assertThat(files).containsExactly(file);
+		}
+	}
 }
\ No newline at end of file